@@ -0,0 +1,85 @@
+/*
+ * Copyright 2023 Karma Krafts & associates
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.karma.ferrous.osmium.benchmark;
+
+import io.karma.ferrous.osmium.Transpiler;
+import io.karma.ferrous.osmium.TranspilerConfig;
+import io.karma.ferrous.osmium.pass.EmitPass;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Matches the pattern of a nested repetition against a line which makes it fail only at its very end.
+ * The TextMate pattern uses a possessive quantifier, since the repeated characters can't
+ * match what follows, the Pygments pattern is the same pattern without it, because
+ * Python only supports possessive quantifiers since 3.11.
+ * {@link java.util.regex} supports both and stands in for the engines of both.
+ *
+ * @author Alexander Hinze
+ * @since 17/10/2026
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BacktrackingBenchmark {
+    @Param({"12", "16", "20", "24"})
+    public int length;
+
+    private String input;
+    private Pattern possessivePattern;
+    private Pattern plainPattern;
+
+    private static String getPattern(final Transpiler transpiler, final String generatorName,
+                                     final Path path) throws IOException {
+        final var grammar = Objects.requireNonNull(transpiler.parseGrammar(path));
+        final var generator = Objects.requireNonNull(transpiler.getGenerator(generatorName));
+        return generator.getPipeline().run(grammar).get(EmitPass.PATTERNS).get("WORDS");
+    }
+
+    @Setup
+    public void setUp() throws IOException {
+        try (final var grammars = new BenchmarkGrammars()) {
+            final var path = grammars.write("Backtracking", "WORDS : ('x'+)* 'y' ;\n");
+            final var transpiler = new Transpiler(new TranspilerConfig());
+            final var possessiveSource = getPattern(transpiler, "textmate", path);
+            final var plainSource = getPattern(transpiler, "pygments", path);
+            if (!possessiveSource.contains("*+") || plainSource.contains("*+")) {
+                throw new IllegalStateException(STR."Unexpected patterns \{possessiveSource} and \{plainSource}");
+            }
+            possessivePattern = Pattern.compile(possessiveSource);
+            plainPattern = Pattern.compile(plainSource);
+        }
+        input = "x".repeat(length); // The missing terminator makes every way of splitting the line fail
+    }
+
+    @Benchmark
+    public boolean possessive() {
+        return possessivePattern.matcher(input).lookingAt();
+    }
+
+    @Benchmark
+    public boolean plain() {
+        return plainPattern.matcher(input).lookingAt();
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright 2023 Karma Krafts & associates
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.karma.ferrous.osmium.benchmark;
+
+import io.karma.ferrous.osmium.Transpiler;
+import io.karma.ferrous.osmium.TranspilerConfig;
+import io.karma.ferrous.osmium.grammar.Grammar;
+import io.karma.ferrous.osmium.grammar.LexerGrammar;
+import io.karma.ferrous.osmium.grammar.ParserGrammar;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Objects;
+
+/**
+ * Writes synthetic grammars to a temporary directory, so benchmarks
+ * can run the transpiler on them just like on grammars read from disk.
+ *
+ * @author Alexander Hinze
+ * @since 17/10/2026
+ */
+public final class BenchmarkGrammars implements AutoCloseable {
+    private final Path directory;
+
+    public BenchmarkGrammars() throws IOException {
+        directory = Files.createTempDirectory("osmium-benchmark");
+    }
+
+    /**
+     * Writes a parser grammar of the given name and a lexer grammar with the given rules,
+     * which the parser grammar uses as its token vocabulary.
+     *
+     * @return the path of the parser grammar.
+     */
+    public Path write(final String name, final String lexerRules) throws IOException {
+        final var lexerName = STR."\{name}Lexer";
+        Files.writeString(directory.resolve(STR."\{lexerName}.g4"), STR."lexer grammar \{lexerName};\n\{lexerRules}");
+        final var path = directory.resolve(STR."\{name}.g4");
+        Files.writeString(path, STR."parser grammar \{name};\noptions { tokenVocab = \{lexerName}; }\nfile : EOF ;\n");
+        return path;
+    }
+
+    public Path getLexerPath(final Path path) {
+        final var fileName = path.getFileName().toString();
+        return path.resolveSibling(fileName.replace(".g4", "Lexer.g4"));
+    }
+
+    public static Grammar parse(final Path path) throws IOException {
+        return Objects.requireNonNull(new Transpiler(new TranspilerConfig()).parseGrammar(path));
+    }
+
+    public static LexerGrammar getLexerGrammar(final Grammar grammar) {
+        return Objects.requireNonNull(((ParserGrammar) grammar).getLexerGrammar());
+    }
+
+    @Override
+    public void close() throws IOException {
+        try (final var paths = Files.walk(directory)) {
+            for (final var path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2023 Karma Krafts & associates
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.karma.ferrous.osmium.benchmark;
+
+import io.karma.ferrous.osmium.Transpiler;
+import io.karma.ferrous.osmium.TranspilerConfig;
+import io.karma.ferrous.osmium.ir.LexerIR;
+import io.karma.ferrous.osmium.ir.LexerIREmitter;
+import io.karma.ferrous.osmium.pass.LowerPass;
+import io.karma.ferrous.osmium.util.RegexDialect;
+import io.karma.ferrous.osmium.util.RegexUtils;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Emits escaped characters into a reused buffer, and the patterns of a large grammar from its IR.
+ * Run with {@code -prof gc}, escaping should not allocate at all, and emitting patterns
+ * should allocate little more than the resulting patterns themselves.
+ *
+ * @author Alexander Hinze
+ * @since 17/10/2026
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EmitBenchmark {
+    private static final String ESCAPED_TEXT = "if (a[i] == '\\t') { return x.y+z*2 | ^$ ?; }\u0000\u001Fé€";
+
+    @Param({"ONIGURUMA", "PYTHON"})
+    public RegexDialect dialect;
+
+    @Param({"3000"})
+    public int ruleCount;
+
+    private int[] codePoints;
+    private StringBuilder builder;
+    private LexerIR ir;
+
+    // Literals with escapes, ranges, negated sets, keywords and references to other rules
+    private static String createRules(final int ruleCount) {
+        final var builder = new StringBuilder();
+        for (var i = 0; i < ruleCount; i++) {
+            switch (i % 5) {
+                case 0 -> builder.append(STR."R\{i} : '(\{i})' '\\t'? '\\\\' ;\n");
+                case 1 -> builder.append(STR."R\{i} : [a-z_\\u00C0-\\u00FF] [a-z0-9]* ;\n");
+                case 2 -> builder.append(STR."R\{i} : ~[\\r\\n\"]+ '\"' ;\n");
+                case 3 -> builder.append(STR."R\{i} : 'kw\{i}' | 'key\{i}' | 'keyword\{i}' ;\n");
+                default -> builder.append(STR."R\{i} : R\{i - 1} '.' R\{i - 4} ;\n");
+            }
+        }
+        return builder.toString();
+    }
+
+    @Setup
+    public void setUp() throws IOException {
+        codePoints = ESCAPED_TEXT.repeat(64).codePoints().toArray();
+        builder = new StringBuilder();
+        try (final var grammars = new BenchmarkGrammars()) {
+            final var transpiler = new Transpiler(new TranspilerConfig());
+            final var grammar = BenchmarkGrammars.parse(grammars.write("Emit", createRules(ruleCount)));
+            final var generator = Objects.requireNonNull(transpiler.getGenerator("textmate"));
+            ir = generator.getPipeline().run(grammar).get(LowerPass.LEXER_IR);
+        }
+        var patternLength = 0L;
+        for (final var pattern : LexerIREmitter.emit(ir, dialect).values()) {
+            patternLength += pattern.length();
+        }
+        System.out.println(STR."Escaping \{codePoints.length} code points, emitting \{patternLength} pattern chars");
+    }
+
+    @Benchmark
+    public int escape() {
+        builder.setLength(0);
+        for (final var codePoint : codePoints) {
+            RegexUtils.appendEscapedCodePoint(builder, codePoint, dialect);
+        }
+        return builder.length();
+    }
+
+    @Benchmark
+    public Map<String, String> emitPatterns() {
+        return LexerIREmitter.emit(ir, dialect);
+    }
+}
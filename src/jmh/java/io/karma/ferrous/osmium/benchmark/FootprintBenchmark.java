@@ -0,0 +1,150 @@
+/*
+ * Copyright 2023 Karma Krafts & associates
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.karma.ferrous.osmium.benchmark;
+
+import io.karma.ferrous.osmium.Transpiler;
+import io.karma.ferrous.osmium.TranspilerConfig;
+import io.karma.ferrous.osmium.grammar.node.ContainerNode;
+import io.karma.ferrous.osmium.grammar.node.NamedNode;
+import io.karma.ferrous.osmium.grammar.node.Node;
+import io.karma.ferrous.osmium.ir.LexerIR;
+import io.karma.ferrous.osmium.pass.LowerPass;
+import io.karma.ferrous.osmium.pass.ResolvePass;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the resolved node tree of a large lexer grammar against its {@link LexerIR}.
+ * The heap retained by either of them is measured once while setting up and printed,
+ * the benchmarks walk every rule of both to compare pointer chasing against iterating arrays.
+ *
+ * @author Alexander Hinze
+ * @since 17/10/2026
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+// Full collections always compact, so the heap usage after a collection only counts live objects
+@Fork(value = 1, jvmArgsAppend = {"-XX:+UseSerialGC", "-XX:MarkSweepDeadRatio=0"})
+public class FootprintBenchmark {
+    @Param({"3000"})
+    public int ruleCount;
+
+    private List<? extends NamedNode> nodes;
+    private LexerIR ir;
+    private final ArrayDeque<Node> queue = new ArrayDeque<>();
+    private final IntArrayList stack = new IntArrayList();
+
+    // Keywords, operators, literals with fragments and comments, like the lexer of a programming language
+    private static String createRules(final int ruleCount) {
+        final var builder = new StringBuilder();
+        builder.append("fragment DIGIT : [0-9] ;\nfragment LETTER : [a-zA-Z_] ;\n");
+        for (var i = 0; i < ruleCount; i++) {
+            switch (i % 6) {
+                case 0 -> builder.append(STR."KW_\{i} : 'kw\{i}' | 'key\{i}' ;\n");
+                case 1 -> builder.append(STR."OP_\{i} : '+\{i}=' | '-\{i}=' | '<<\{i}' ;\n");
+                case 2 -> builder.append(STR."NUM_\{i} : DIGIT+ ('.' DIGIT*)? 'n\{i}' ;\n");
+                case 3 -> builder.append(STR."ID_\{i} : LETTER (LETTER | DIGIT)* '$\{i}' ;\n");
+                case 4 -> builder.append(STR."STR_\{i} : '\"' (~[\"\\\\\\r\\n] | '\\\\' .)* '\"\{i}' ;\n");
+                default -> builder.append(STR."COMMENT_\{i} : '/*\{i}' .*? '*/' ;\n");
+            }
+        }
+        return builder.toString();
+    }
+
+    private static long getUsedHeap() {
+        System.gc();
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    private static List<? extends NamedNode> resolveNodes(final Transpiler transpiler, final Path path)
+        throws IOException {
+        final var grammar = BenchmarkGrammars.parse(path);
+        final var context = Objects.requireNonNull(transpiler.getGenerator("textmate")).getPipeline().run(grammar);
+        return List.copyOf(BenchmarkGrammars.getLexerGrammar(context.get(ResolvePass.RESOLVED_GRAMMAR)).getNodes());
+    }
+
+    private static LexerIR lower(final Transpiler transpiler, final Path path) throws IOException {
+        final var grammar = BenchmarkGrammars.parse(path);
+        return Objects.requireNonNull(transpiler.getGenerator("textmate")).getPipeline().run(grammar)
+            .get(LowerPass.LEXER_IR);
+    }
+
+    @Setup
+    public void setUp() throws IOException {
+        try (final var grammars = new BenchmarkGrammars()) {
+            final var transpiler = new Transpiler(new TranspilerConfig());
+            final var path = grammars.write("Footprint", createRules(ruleCount));
+            resolveNodes(transpiler, path); // Warms up the shared DFA cache of the parser, which is not part of the tree
+
+            final var usedBefore = getUsedHeap();
+            nodes = resolveNodes(transpiler, path);
+            final var usedByTree = getUsedHeap() - usedBefore;
+
+            final var usedBeforeIR = getUsedHeap();
+            ir = lower(transpiler, path);
+            final var usedByIR = getUsedHeap() - usedBeforeIR;
+
+            System.out.println(STR."Node tree retains \{usedByTree} bytes");
+            System.out.println(STR."IR retains \{usedByIR} bytes, estimated \{ir.estimateSize()} bytes");
+        }
+    }
+
+    // Named nodes below a rule are references to other rules, which are visited on their own
+    @Benchmark
+    public long walkTree() {
+        var sum = 0L;
+        for (final var rule : nodes) {
+            queue.push(rule);
+            while (!queue.isEmpty()) {
+                final var node = queue.pop();
+                sum += node.getType().ordinal();
+                if (node instanceof ContainerNode container && (node == rule || !node.isNamed())) {
+                    for (final var child : container.getChildren()) {
+                        queue.push(child);
+                    }
+                }
+            }
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public long walkIR() {
+        var sum = 0L;
+        for (var rule = 0; rule < ir.getTopLevelRuleCount(); rule++) {
+            stack.push(ir.getRuleRoot(rule));
+            while (!stack.isEmpty()) {
+                final var node = stack.popInt();
+                sum += ir.getOpcode(node);
+                final var count = ir.getChildCount(node);
+                for (var i = 0; i < count; i++) {
+                    stack.push(ir.getChild(node, i));
+                }
+            }
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright 2023 Karma Krafts & associates
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.karma.ferrous.osmium.benchmark;
+
+import io.karma.ferrous.osmium.grammar.node.LiteralTrie;
+import io.karma.ferrous.osmium.util.RegexDialect;
+import io.karma.ferrous.osmium.util.RegexUtils;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Scans a synthetic source corpus for keywords, once with a flat alternation of all keywords
+ * and once with the prefix-factored pattern of a {@link LiteralTrie}.
+ * {@link java.util.regex} stands in for the regex engines of TextMate and Pygments,
+ * which try every alternative at every position just the same.
+ *
+ * @author Alexander Hinze
+ * @since 17/10/2026
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LiteralTrieBenchmark {
+    // @formatter:off
+    private static final List<String> KEYWORDS = List.of(
+        "abstract", "assert", "boolean", "break", "byte", "case", "catch", "char", "class", "const",
+        "continue", "default", "do", "double", "else", "enum", "extends", "final", "finally", "float",
+        "for", "goto", "if", "implements", "import", "instanceof", "int", "interface", "long", "native",
+        "new", "package", "private", "protected", "public", "return", "short", "static", "strictfp", "super",
+        "switch", "synchronized", "this", "throw", "throws", "transient", "try", "void", "volatile", "while"
+    );
+    private static final List<String> IDENTIFIERS = List.of(
+        "value", "index", "builder", "result", "count", "node", "context", "element", "buffer", "state"
+    );
+    // @formatter:on
+
+    @Param({"1000000"})
+    public int corpusSize;
+
+    private String corpus;
+    private Pattern flatPattern;
+    private Pattern triePattern;
+
+    // Longest literals first, so the flat alternation picks the same match as the trie
+    private static String createFlatPattern() {
+        final var builder = new StringBuilder("(?:");
+        final var literals = KEYWORDS.stream().sorted(Comparator.comparingInt(String::length).reversed()).toList();
+        for (var i = 0; i < literals.size(); i++) {
+            if (i > 0) {
+                builder.append('|');
+            }
+            RegexUtils.appendEscaped(builder, literals.get(i));
+        }
+        return builder.append(')').toString();
+    }
+
+    private static String createTriePattern() {
+        final var builder = new StringBuilder();
+        Objects.requireNonNull(LiteralTrie.ofLiterals(KEYWORDS)).appendPattern(builder, RegexDialect.ONIGURUMA);
+        return builder.toString();
+    }
+
+    // Roughly one keyword per three words, like ordinary Java sources
+    private static String createCorpus(final int size) {
+        final var random = new Random(42);
+        final var builder = new StringBuilder(size + 32);
+        while (builder.length() < size) {
+            final var words = random.nextInt(3) == 0 ? KEYWORDS : IDENTIFIERS;
+            builder.append(words.get(random.nextInt(words.size())));
+            builder.append(random.nextInt(8) == 0 ? ";\n" : " ");
+        }
+        return builder.toString();
+    }
+
+    private static int countMatches(final Pattern pattern, final String input) {
+        final var matcher = pattern.matcher(input);
+        var count = 0;
+        while (matcher.find()) {
+            count++;
+        }
+        return count;
+    }
+
+    @Setup
+    public void setUp() {
+        corpus = createCorpus(corpusSize);
+        final var flatSource = createFlatPattern();
+        final var trieSource = createTriePattern();
+        flatPattern = Pattern.compile(flatSource);
+        triePattern = Pattern.compile(trieSource);
+        final var flatMatches = countMatches(flatPattern, corpus);
+        if (flatMatches != countMatches(triePattern, corpus)) {
+            throw new IllegalStateException("Patterns don't match the same keywords");
+        }
+        System.out.println(STR."Flat pattern: \{flatSource.length()} chars, trie pattern: \{trieSource.length()} chars, \{flatMatches} matches");
+    }
+
+    @Benchmark
+    public int flat() {
+        return countMatches(flatPattern, corpus);
+    }
+
+    @Benchmark
+    public int trie() {
+        return countMatches(triePattern, corpus);
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2023 Karma Krafts & associates
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.karma.ferrous.osmium.benchmark;
+
+import io.karma.ferrous.antlr.ANTLRv4Parser.GrammarSpecContext;
+import io.karma.ferrous.osmium.Transpiler;
+import io.karma.ferrous.osmium.grammar.LexerGrammar;
+import io.karma.ferrous.osmium.parser.LexerGrammarParser;
+import io.karma.ferrous.osmium.parser.ParseSession;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Builds the nodes of a lexer rule whose blocks are nested as deep as the given depth.
+ * Building is a single descent, so the time per level should stay the same for every depth.
+ * The grammar is parsed up front, so only building the nodes is measured.
+ *
+ * @author Alexander Hinze
+ * @since 17/10/2026
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xss16m") // The ANTLR frontend recurses several times per level
+public class NestedRuleBenchmark {
+    @Param({"64", "128", "256", "512"})
+    public int depth;
+
+    private BenchmarkGrammars grammars;
+    private Path lexerPath;
+    private GrammarSpecContext context;
+
+    // Every level is a block with a nested alternative, an optional and a repeated element
+    private static String createRule(final int depth) {
+        final var builder = new StringBuilder("NESTED : ");
+        for (var i = 0; i < depth; i++) {
+            builder.append("('a").append(i % 10).append("' (");
+        }
+        builder.append("'z'");
+        for (var i = 0; i < depth; i++) {
+            builder.append(" | 'b')? 'c'* | [0-9])");
+        }
+        return builder.append(" ;\n").toString();
+    }
+
+    @Setup
+    public void setUp() throws IOException {
+        grammars = new BenchmarkGrammars();
+        lexerPath = grammars.getLexerPath(grammars.write("Nested", createRule(depth)));
+        context = Transpiler.loadGrammar(lexerPath);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        grammars.close();
+    }
+
+    @Benchmark
+    public LexerGrammar buildNodes() {
+        return LexerGrammarParser.parse(new ParseSession(), lexerPath, context);
+    }
+}
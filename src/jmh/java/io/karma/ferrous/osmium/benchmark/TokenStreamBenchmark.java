@@ -0,0 +1,85 @@
+/*
+ * Copyright 2023 Karma Krafts & associates
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.karma.ferrous.osmium.benchmark;
+
+import io.karma.ferrous.antlr.ANTLRv4Parser.GrammarSpecContext;
+import io.karma.ferrous.osmium.Transpiler;
+import io.karma.ferrous.osmium.TranspilerStatistics;
+import io.karma.ferrous.osmium.parser.ParseSession;
+import org.antlr.v4.runtime.atn.PredictionMode;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parses a large lexer grammar with a buffered and with an unbuffered token stream.
+ * Every rule comes with line and block comments, so most tokens are off the default channel.
+ * Run with {@code -prof gc} to compare allocations, the unbuffered stream never retains
+ * more than a few tokens while the buffered stream holds on to every token of the file.
+ *
+ * @author Alexander Hinze
+ * @since 17/10/2026
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TokenStreamBenchmark {
+    @Param({"false", "true"})
+    public boolean isStreamingTokens;
+
+    @Param({"5000"})
+    public int ruleCount;
+
+    private BenchmarkGrammars grammars;
+    private Path lexerPath;
+
+    private static String createRules(final int ruleCount) {
+        final var builder = new StringBuilder();
+        for (var i = 0; i < ruleCount; i++) {
+            builder.append(STR."// Keyword \{i} with a longer explanatory comment\n");
+            builder.append(STR."/* Block comment for rule \{i} */\n");
+            builder.append(STR."KW_\{i}    :   'kw\{i}'   |   [a-c]+ '_\{i}'   ;\n\n");
+        }
+        return builder.toString();
+    }
+
+    @Setup
+    public void setUp() throws IOException {
+        grammars = new BenchmarkGrammars();
+        lexerPath = grammars.getLexerPath(grammars.write("Tokens", createRules(ruleCount)));
+        // Falling back to LL would parse every file twice and hide what streaming saves
+        final var statistics = new TranspilerStatistics();
+        Transpiler.loadGrammar(lexerPath, new ParseSession(statistics, isStreamingTokens));
+        if (statistics.getParseCount(PredictionMode.LL) != 0) {
+            throw new IllegalStateException("Grammar was not parsed in SLL mode");
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        grammars.close();
+    }
+
+    @Benchmark
+    public GrammarSpecContext parse() throws IOException {
+        return Transpiler.loadGrammar(lexerPath, new ParseSession(new TranspilerStatistics(), isStreamingTokens));
+    }
+}
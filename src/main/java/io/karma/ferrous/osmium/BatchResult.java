@@ -0,0 +1,84 @@
+/*
+ * Copyright 2023 Karma Krafts & associates
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.karma.ferrous.osmium;
+
+import org.apiguardian.api.API;
+
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The outcome of transpiling multiple grammars in a single
+ * {@link Transpiler#transpileAll(java.util.List, Path, io.karma.ferrous.osmium.generator.Generator)} call.
+ *
+ * @author Alexander Hinze
+ * @since 17/10/2026
+ */
+@API(status = API.Status.STABLE)
+public final class BatchResult {
+    private final ConcurrentHashMap<Path, Path> outputs = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Path, Throwable> failures = new ConcurrentHashMap<>();
+    private long time;
+
+    void recordOutput(final Path inPath, final Path outPath) {
+        outputs.put(inPath, outPath);
+    }
+
+    void recordFailure(final Path inPath, final Throwable error) {
+        failures.put(inPath, error);
+    }
+
+    void setTime(final long time) {
+        this.time = time;
+    }
+
+    /**
+     * @return the output file of every grammar which was transpiled successfully.
+     */
+    public Map<Path, Path> getOutputs() {
+        return Collections.unmodifiableMap(outputs);
+    }
+
+    /**
+     * @return the error of every grammar which could not be transpiled.
+     */
+    public Map<Path, Throwable> getFailures() {
+        return Collections.unmodifiableMap(failures);
+    }
+
+    /**
+     * @return the wall clock time the batch took in nanoseconds.
+     */
+    public long getTime() {
+        return time;
+    }
+
+    public boolean isSuccessful() {
+        return failures.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        final var total = outputs.size() + failures.size();
+        // @formatter:off
+        return STR."Transpiled \{outputs.size()} of \{total} grammar(s) "
+            + STR."in \{TimeUnit.NANOSECONDS.toMillis(time)}ms, \{failures.size()} failed";
+        // @formatter:on
+    }
+}
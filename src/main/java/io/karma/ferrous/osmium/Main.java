@@ -15,11 +15,19 @@
 
 package io.karma.ferrous.osmium;
 
+import io.karma.ferrous.osmium.cache.DFASnapshot;
+import io.karma.ferrous.osmium.cache.GrammarCache;
+import io.karma.ferrous.osmium.daemon.DaemonClient;
+import io.karma.ferrous.osmium.daemon.DaemonRequest;
+import io.karma.ferrous.osmium.daemon.TranspilerDaemon;
+import io.karma.ferrous.osmium.util.GrammarFiles;
 import joptsimple.OptionParser;
 import org.apiguardian.api.API;
 
+import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.function.Function;
 
 /**
  * @author Alexander Hinze
@@ -37,12 +45,17 @@ public final class Main {
 
             // @formatter:off
             final var helpOpt = parser.accepts("?");
+            final var statsOpt = parser.accepts("stats");
+            final var streamTokensOpt = parser.accepts("stream-tokens");
             final var formatOpt = parser.accepts("f")
                 .withRequiredArg()
                 .ofType(String.class);
             final var inOpt = parser.accepts("i")
                 .withRequiredArg()
                 .ofType(String.class);
+            final var batchOpt = parser.accepts("batch")
+                .withRequiredArg()
+                .ofType(String.class);
             final var outOpt = parser.accepts("o")
                 .withRequiredArg()
                 .ofType(String.class);
@@ -50,6 +63,22 @@ public final class Main {
                 .withOptionalArg()
                 .ofType(String.class)
                 .defaultsTo("osmium.json");
+            final var cacheOpt = parser.accepts("cache")
+                .withRequiredArg()
+                .ofType(String.class);
+            final var cacheSizeOpt = parser.accepts("cache-size")
+                .withRequiredArg()
+                .ofType(Long.class)
+                .defaultsTo(GrammarCache.DEFAULT_MAX_SIZE);
+            final var dfaSnapshotOpt = parser.accepts("dfa-snapshot")
+                .withRequiredArg()
+                .ofType(String.class);
+            final var daemonOpt = parser.accepts("daemon")
+                .withRequiredArg()
+                .ofType(String.class);
+            final var clientOpt = parser.accepts("client")
+                .withRequiredArg()
+                .ofType(String.class);
             // @formatter:on
 
             final var options = parser.parse(args);
@@ -59,25 +88,78 @@ public final class Main {
                 return; // Exit with code 0 by default
             }
 
-            final var inPath = Path.of(options.valueOf(inOpt));
-            if (!Files.exists(inPath) || Files.isDirectory(inPath)) {
-                System.err.println("Input file does not exist or is not a file");
-                System.exit(1);
+            final var configPath = Path.of(options.valueOf(configOpt));
+
+            if (options.has(clientOpt)) {
+                final var request = new DaemonRequest();
+                request.inPath = Path.of(options.valueOf(inOpt)).toAbsolutePath().toString();
+                request.outPath = Path.of(options.valueOf(outOpt)).toAbsolutePath().toString();
+                request.generator = options.valueOf(formatOpt);
+                request.configPath = configPath.toAbsolutePath().toString();
+                final var response = DaemonClient.send(Path.of(options.valueOf(clientOpt)), request);
+                response.diagnostics.forEach(System.err::println);
+                if (!response.isSuccessful) {
+                    System.exit(1);
+                }
+                return;
             }
 
-            final var outPath = Path.of(options.valueOf(outOpt));
-            if (Files.exists(outPath)) {
-                Files.delete(outPath);
+            final var isStreamingTokens = options.has(streamTokensOpt);
+            final var cache = options.has(cacheOpt)
+                ? new GrammarCache(Path.of(options.valueOf(cacheOpt)), options.valueOf(cacheSizeOpt))
+                : null;
+            final Function<TranspilerConfig, Transpiler> transpilerFactory = config -> {
+                final var transpiler = new Transpiler(config);
+                transpiler.setStreamingTokens(isStreamingTokens);
+                transpiler.setCache(cache);
+                return transpiler;
+            };
+            final var dfaSnapshotPath = options.has(dfaSnapshotOpt) ? Path.of(options.valueOf(dfaSnapshotOpt)) : null;
+            if (dfaSnapshotPath != null) {
+                DFASnapshot.load(dfaSnapshotPath);
+            }
+
+            if (options.has(daemonOpt)) {
+                final var daemon = new TranspilerDaemon(Path.of(options.valueOf(daemonOpt)), transpilerFactory);
+                // Hooks also run when serving fails or returns, so this is the only place closing the daemon
+                Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                    try {
+                        daemon.close();
+                        if (dfaSnapshotPath != null) {
+                            DFASnapshot.save(dfaSnapshotPath);
+                        }
+                    }
+                    catch (IOException error) {
+                        System.err.println(STR."Could not shut down daemon: \{error}");
+                    }
+                }));
+                System.out.println(STR."Listening on \{daemon.getSocketPath()}");
+                daemon.run();
+                return;
             }
 
-            final var configPath = Path.of(options.valueOf(configOpt));
             if (!Files.exists(configPath)) {
                 System.err.println("Configuration file does not exist");
                 System.exit(1);
             }
 
-            final var config = TranspilerConfig.read(configPath);
-            new Transpiler(config).transpile(inPath, outPath, options.valueOf(formatOpt));
+            final var transpiler = transpilerFactory.apply(TranspilerConfig.read(configPath));
+            final var outPath = Path.of(options.valueOf(outOpt));
+            final var format = options.valueOf(formatOpt);
+            // @formatter:off
+            final var isSuccessful = options.has(batchOpt)
+                ? transpileAll(transpiler, options.valueOf(batchOpt), outPath, format)
+                : transpile(transpiler, Path.of(options.valueOf(inOpt)), outPath, format);
+            // @formatter:on
+            if (dfaSnapshotPath != null) {
+                DFASnapshot.save(dfaSnapshotPath);
+            }
+            if (options.has(statsOpt)) {
+                System.out.println(transpiler.getStatistics());
+            }
+            if (!isSuccessful) {
+                System.exit(1);
+            }
         }
         catch (Throwable error) {
             System.err.println("Oops, that didn't quite work. Try running with -? to get some help");
@@ -86,6 +168,37 @@ public final class Main {
         }
     }
 
+    private static boolean transpile(final Transpiler transpiler, final Path inPath, final Path outPath,
+                                     final String generator) throws IOException {
+        if (!Files.exists(inPath) || Files.isDirectory(inPath)) {
+            System.err.println("Input file does not exist or is not a file");
+            return false;
+        }
+        if (Files.exists(outPath)) {
+            Files.delete(outPath);
+        }
+        transpiler.transpile(inPath, outPath, generator);
+        return true;
+    }
+
+    private static boolean transpileAll(final Transpiler transpiler, final String pattern, final Path outDir,
+                                        final String generator) throws IOException {
+        final var inPaths = GrammarFiles.collect(pattern);
+        if (inPaths.isEmpty()) {
+            System.err.println(STR."No grammar files match \{pattern}");
+            return false;
+        }
+        if (Files.exists(outDir) && !Files.isDirectory(outDir)) {
+            System.err.println("Output path is not a directory");
+            return false;
+        }
+        final var result = transpiler.transpileAll(inPaths, outDir, generator);
+        result.getOutputs().forEach((inPath, outPath) -> System.out.println(STR."\t\{inPath} -> \{outPath}"));
+        result.getFailures().forEach((inPath, error) -> System.err.println(STR."\t\{inPath}: \{error}"));
+        System.out.println(result);
+        return result.isSuccessful();
+    }
+
     private static final class NoArgsException extends RuntimeException {
         public NoArgsException() {
             super();
@@ -18,23 +18,40 @@ package io.karma.ferrous.osmium;
 import io.karma.ferrous.antlr.ANTLRv4Lexer;
 import io.karma.ferrous.antlr.ANTLRv4Parser;
 import io.karma.ferrous.antlr.ANTLRv4Parser.GrammarSpecContext;
+import io.karma.ferrous.osmium.cache.GrammarCache;
 import io.karma.ferrous.osmium.generator.Generator;
 import io.karma.ferrous.osmium.generator.PygmentsGenerator;
 import io.karma.ferrous.osmium.generator.TextMateGenerator;
+import io.karma.ferrous.osmium.grammar.Grammar;
+import io.karma.ferrous.osmium.parser.ParseSession;
 import io.karma.ferrous.osmium.parser.ParserGrammarParser;
+import io.karma.ferrous.osmium.pass.PassContext;
+import io.karma.ferrous.osmium.util.ChannelTokenSource;
 import io.karma.ferrous.osmium.util.DefaultErrorListener;
-import org.antlr.v4.runtime.CharStreams;
+import io.karma.ferrous.osmium.util.GrammarFiles;
+import io.karma.ferrous.osmium.util.MappedCharStreams;
+import org.antlr.v4.runtime.BailErrorStrategy;
 import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.DefaultErrorStrategy;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.TokenStream;
+import org.antlr.v4.runtime.UnbufferedTokenStream;
+import org.antlr.v4.runtime.atn.PredictionMode;
+import org.antlr.v4.runtime.misc.ParseCancellationException;
 import org.apiguardian.api.API;
 import org.jetbrains.annotations.Nullable;
 
 import java.io.IOException;
 import java.nio.channels.Channels;
-import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 
 /**
  * @author Alexander Hinze
@@ -44,6 +61,9 @@ import java.util.HashMap;
 public final class Transpiler {
     private final TranspilerConfig config;
     private final HashMap<String, Generator> generators = new HashMap<>();
+    private final TranspilerStatistics statistics = new TranspilerStatistics();
+    private GrammarCache cache;
+    private boolean isStreamingTokens;
 
     public Transpiler(final TranspilerConfig config) {
         this.config = config;
@@ -52,16 +72,136 @@ public final class Transpiler {
     }
 
     public static GrammarSpecContext loadGrammar(final Path path) throws IOException {
-        try (final var stream = Files.newInputStream(path); final var channel = Channels.newChannel(stream)) {
-            final var charStream = CharStreams.fromChannel(channel, StandardCharsets.UTF_8);
-            final var lexer = new ANTLRv4Lexer(charStream);
-            final var tokenStream = new CommonTokenStream(lexer);
-            tokenStream.fill();
-            final var parser = new ANTLRv4Parser(tokenStream);
-            parser.removeErrorListeners();
+        return loadGrammar(path, new ParseSession());
+    }
+
+    /**
+     * Parses the given grammar file using the fast SLL prediction mode first,
+     * and only falls back to full LL prediction if SLL parsing fails.
+     * If the session streams tokens, the SLL pass pulls tokens from the lexer on demand
+     * instead of buffering all of them. Only tokens on the default channel are pulled,
+     * so hidden tokens are never retained and never make SLL prediction fail.
+     */
+    public static GrammarSpecContext loadGrammar(final Path path, final ParseSession session) throws IOException {
+        final var statistics = session.getStatistics();
+        final var charStream = MappedCharStreams.fromPath(path);
+        final var lexer = new ANTLRv4Lexer(charStream);
+        final TokenStream tokenStream = session.isStreamingTokens()
+            ? new UnbufferedTokenStream<>(new ChannelTokenSource(lexer, Token.DEFAULT_CHANNEL))
+            : new CommonTokenStream(lexer);
+        final var parser = new ANTLRv4Parser(tokenStream);
+        parser.removeErrorListeners();
+        parser.setErrorHandler(new BailErrorStrategy());
+        parser.getInterpreter().setPredictionMode(PredictionMode.SLL);
+        try {
+            final var context = parser.grammarSpec();
+            statistics.recordPredictionMode(path, PredictionMode.SLL);
+            return context;
+        }
+        catch (ParseCancellationException error) { // SLL is not powerful enough or input is invalid, retry with LL
+            if (session.isStreamingTokens()) {
+                // Unbuffered streams can't rewind, and error reporting needs the buffered token text
+                charStream.seek(0);
+                parser.setTokenStream(new CommonTokenStream(new ANTLRv4Lexer(charStream)));
+            }
+            else {
+                parser.reset();
+            }
             parser.addErrorListener(DefaultErrorListener.INSTANCE);
-            return parser.grammarSpec();
+            parser.setErrorHandler(new DefaultErrorStrategy());
+            parser.getInterpreter().setPredictionMode(PredictionMode.LL);
+            final var context = parser.grammarSpec();
+            statistics.recordPredictionMode(path, PredictionMode.LL);
+            return context;
+        }
+    }
+
+    /**
+     * @return a new parse session which uses the statistics and token streaming mode of this transpiler.
+     */
+    public ParseSession createSession() {
+        return new ParseSession(statistics, isStreamingTokens);
+    }
+
+    public @Nullable Grammar parseGrammar(final Path path) throws IOException {
+        return parseGrammar(path, createSession());
+    }
+
+    public @Nullable Grammar parseGrammar(final Path path, final ParseSession session) throws IOException {
+        if (cache != null) {
+            // Record the files of the entry, so sessions of cached grammars know what they depend on as well
+            final var cachedGrammar = cache.get(path, dependency -> session.addDependency(null, dependency));
+            if (cachedGrammar != null) {
+                return cachedGrammar;
+            }
         }
+        final var grammar = ParserGrammarParser.parse(session, path.getParent(), loadGrammar(path, session));
+        if (grammar != null && cache != null) {
+            cache.put(path, session.getDependencies(), grammar);
+        }
+        return grammar;
+    }
+
+    /**
+     * Parses the given grammar file again and applies it to the given, previously parsed version of it in place,
+     * so only the rules which changed and the rules depending on them are resolved and generated again.
+     * The given pass contexts of previous generations of the grammar, keyed by generator name,
+     * are updated along with it, or cleared if the grammar had to be replaced.
+     *
+     * @return the updated grammar, or the newly parsed one if the changes could not be applied in place.
+     */
+    public @Nullable Grammar updateGrammar(final Grammar grammar, final Path path, final ParseSession session,
+                                           final Map<String, PassContext> contexts) throws IOException {
+        final var wasResolving = session.isResolving();
+        final Grammar editedGrammar;
+        session.setResolving(false); // The edited grammar is applied to the previous one before resolving
+        try {
+            editedGrammar = ParserGrammarParser.parse(session, path.getParent(), loadGrammar(path, session));
+        }
+        finally {
+            session.setResolving(wasResolving);
+        }
+        if (editedGrammar == null) {
+            return null;
+        }
+        var updatedGrammar = grammar;
+        final var changedRules = grammar.update(editedGrammar);
+        if (changedRules == null) {
+            updatedGrammar = editedGrammar.resolve();
+            contexts.clear();
+        }
+        else {
+            for (final var entry : contexts.entrySet()) {
+                final var generator = generators.get(entry.getKey());
+                if (generator != null) {
+                    generator.getPipeline().update(entry.getValue(), changedRules);
+                }
+            }
+        }
+        if (cache != null) {
+            cache.put(path, session.getDependencies(), updatedGrammar);
+        }
+        return updatedGrammar;
+    }
+
+    public @Nullable GrammarCache getCache() {
+        return cache;
+    }
+
+    public void setCache(final @Nullable GrammarCache cache) {
+        this.cache = cache;
+    }
+
+    public boolean isStreamingTokens() {
+        return isStreamingTokens;
+    }
+
+    public void setStreamingTokens(final boolean isStreamingTokens) {
+        this.isStreamingTokens = isStreamingTokens;
+    }
+
+    public TranspilerStatistics getStatistics() {
+        return statistics;
     }
 
     public TranspilerConfig getConfig() {
@@ -93,17 +233,83 @@ public final class Transpiler {
     }
 
     public void transpile(final Path inPath, final Path outPath, final Generator generator) throws IOException {
+        transpile(inPath, outPath, generator, createSession());
+    }
+
+    private void transpile(final Path inPath, final Path outPath, final Generator generator,
+                           final ParseSession session) throws IOException {
+        final var grammar = parseGrammar(inPath, session); // Failing grammars must not leave an empty file behind
+        if (grammar == null) {
+            throw new IllegalStateException("Could not parse grammar");
+        }
         try (final var outStream = Files.newOutputStream(outPath); final var outChannel = Channels.newChannel(outStream)) {
-            final var grammarContext = loadGrammar(inPath);
-            final var grammar = ParserGrammarParser.parse(inPath.getParent(), grammarContext);
-            if (grammar == null) {
-                throw new IllegalStateException("Could not parse grammar");
-            }
             generator.generate(outChannel, grammar, config);
         }
     }
 
+    /**
+     * Generates the given, already parsed grammar into the given output file.
+     */
+    public void generate(final Grammar grammar, final Path outPath, final Generator generator) throws IOException {
+        generate(generator.getPipeline().run(grammar), outPath, generator);
+    }
+
+    /**
+     * Generates a grammar from the results of a previous run of the pipeline of the given generator,
+     * which only runs the passes whose results are missing.
+     */
+    public void generate(final PassContext context, final Path outPath, final Generator generator) throws IOException {
+        try (final var outStream = Files.newOutputStream(outPath); final var outChannel = Channels.newChannel(outStream)) {
+            generator.generate(outChannel, context, config);
+        }
+    }
+
     public void transpile(final Path inPath, final Path outPath, final String generator) throws IOException {
         transpile(inPath, outPath, getGenerator(generator));
     }
+
+    /**
+     * Transpiles all given grammars in parallel on a work-stealing pool sized to the available cores.
+     * Every grammar is written to its own file in the given output directory,
+     * lexer grammars imported by multiple grammars are only parsed once.
+     * Failing grammars don't abort the batch and are reported in the returned result instead.
+     */
+    public BatchResult transpileAll(final List<Path> inPaths, final Path outDir,
+                                    final Generator generator) throws IOException {
+        final var outPaths = new LinkedHashMap<Path, Path>();
+        for (final var inPath : inPaths) {
+            final var outPath = outDir.resolve(STR."\{GrammarFiles.getBaseName(inPath)}.\{generator.getFileExtension()}");
+            if (outPaths.containsValue(outPath)) {
+                throw new IllegalStateException(STR."Multiple grammars would be written to \{outPath}");
+            }
+            outPaths.put(inPath, outPath);
+        }
+        Files.createDirectories(outDir);
+        final var result = new BatchResult();
+        final var session = createSession();
+        final var startTime = System.nanoTime();
+        try (final var pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors())) {
+            // @formatter:off
+            final var tasks = outPaths.entrySet().stream()
+                .map(entry -> pool.submit(() -> {
+                    try {
+                        transpile(entry.getKey(), entry.getValue(), generator, session.fork());
+                        result.recordOutput(entry.getKey(), entry.getValue());
+                    }
+                    catch (Throwable error) {
+                        result.recordFailure(entry.getKey(), error);
+                    }
+                }))
+                .toList();
+            // @formatter:on
+            tasks.forEach(ForkJoinTask::join);
+        }
+        result.setTime(System.nanoTime() - startTime);
+        return result;
+    }
+
+    public BatchResult transpileAll(final List<Path> inPaths, final Path outDir,
+                                    final String generator) throws IOException {
+        return transpileAll(inPaths, outDir, getGenerator(generator));
+    }
 }
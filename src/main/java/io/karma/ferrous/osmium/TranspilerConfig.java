@@ -17,7 +17,9 @@ package io.karma.ferrous.osmium;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
 import io.karma.ferrous.osmium.util.JSONUtils;
+import io.karma.ferrous.osmium.util.TokenType;
 import org.apiguardian.api.API;
+import org.jetbrains.annotations.Nullable;
 
 import java.io.IOException;
 import java.nio.channels.Channels;
@@ -26,6 +28,7 @@ import java.nio.channels.WritableByteChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.HashMap;
+import java.util.Locale;
 
 /**
  * @author Alexander Hinze
@@ -54,6 +57,34 @@ public final class TranspilerConfig {
         JSONUtils.writeValue(this, channel);
     }
 
+    /**
+     * @return the configured namespace, or the lower case name of the given grammar if there is none.
+     */
+    public String getNamespace(final String grammarName) {
+        return namespace != null ? namespace : grammarName.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * @return the token type configured for the given rule in the given lexer mode, or null if there is none.
+     */
+    public @Nullable TokenType getTokenType(final String mode, final String rule) {
+        final var lexerMode = modes.get(mode);
+        if (lexerMode == null) {
+            return null;
+        }
+        final var name = lexerMode.tokens.get(rule);
+        if (name == null) {
+            return null;
+        }
+        try {
+            return TokenType.valueOf(name.toUpperCase(Locale.ROOT));
+        }
+        catch (IllegalArgumentException error) {
+            System.err.println(STR."Unknown token type '\{name}' for rule \{rule} in mode \{mode}");
+            return null;
+        }
+    }
+
     public static final class LexerMode {
         @JsonProperty
         public final HashMap<String, String> tokens = new HashMap<>();
@@ -0,0 +1,59 @@
+/*
+ * Copyright 2023 Karma Krafts & associates
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.karma.ferrous.osmium;
+
+import org.antlr.v4.runtime.atn.PredictionMode;
+import org.apiguardian.api.API;
+
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Statistics collected over all grammars parsed by a {@link Transpiler}.
+ *
+ * @author Alexander Hinze
+ * @since 17/10/2026
+ */
+@API(status = API.Status.STABLE)
+public final class TranspilerStatistics {
+    private final ConcurrentHashMap<Path, PredictionMode> predictionModes = new ConcurrentHashMap<>();
+
+    public void recordPredictionMode(final Path path, final PredictionMode mode) {
+        predictionModes.put(path.toAbsolutePath().normalize(), mode);
+    }
+
+    /**
+     * @return the prediction mode in which each parsed grammar file was parsed successfully.
+     */
+    public Map<Path, PredictionMode> getPredictionModes() {
+        return Collections.unmodifiableMap(predictionModes);
+    }
+
+    public long getParseCount(final PredictionMode mode) {
+        return predictionModes.values().stream().filter(mode::equals).count();
+    }
+
+    @Override
+    public String toString() {
+        // @formatter:off
+        return STR."Parsed \{predictionModes.size()} grammar(s): "
+            + STR."\{getParseCount(PredictionMode.SLL)} in SLL mode, "
+            + STR."\{getParseCount(PredictionMode.LL)} in LL mode";
+        // @formatter:on
+    }
+}
@@ -0,0 +1,630 @@
+/*
+ * Copyright 2023 Karma Krafts & associates
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.karma.ferrous.osmium.cache;
+
+import io.karma.ferrous.antlr.ANTLRv4Lexer;
+import io.karma.ferrous.antlr.ANTLRv4Parser;
+import io.karma.ferrous.osmium.util.DataUtils;
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.RuntimeMetaData;
+import org.antlr.v4.runtime.atn.*;
+import org.antlr.v4.runtime.dfa.DFA;
+import org.antlr.v4.runtime.dfa.DFAState;
+import org.apiguardian.api.API;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+
+import static io.karma.ferrous.osmium.util.DataUtils.readVarInt;
+import static io.karma.ferrous.osmium.util.DataUtils.writeVarInt;
+
+/**
+ * Persists the prediction DFAs which the ANTLR simulators of the grammar frontend
+ * build up while parsing, so short-lived processes can start with a warm DFA.
+ * Snapshots are bound to the exact frontend and runtime they were taken with,
+ * DFAs which depend on semantic predicates or on non-greedy decisions which can't
+ * be traced back from their configs are not persisted.
+ *
+ * @author Alexander Hinze
+ * @since 17/10/2026
+ */
+@API(status = API.Status.INTERNAL)
+public final class DFASnapshot {
+    private static final int MAGIC = 0x4F534D44; // OSMD
+    private static final int VERSION = 2;
+    private static final int NULL_CONTEXT = 0;
+    private static final int EMPTY_CONTEXT = 1;
+    private static final int FIRST_CONTEXT = 2;
+    private static final int INDEXED_ACTION = 0;
+
+    // @formatter:off
+    private DFASnapshot() {}
+    // @formatter:on
+
+    private static ANTLRv4Parser createParser() {
+        return new ANTLRv4Parser(new CommonTokenStream(new ANTLRv4Lexer(CharStreams.fromString(""))));
+    }
+
+    private static byte[] getFrontendDigest() {
+        final var digest = DataUtils.createDigest();
+        digest.update(RuntimeMetaData.VERSION.getBytes(StandardCharsets.UTF_8));
+        final var frontendVersion = ANTLRv4Parser.class.getPackage().getImplementationVersion();
+        if (frontendVersion != null) {
+            digest.update(frontendVersion.getBytes(StandardCharsets.UTF_8));
+        }
+        digest.update(ANTLRv4Parser._serializedATN.getBytes(StandardCharsets.UTF_8));
+        digest.update(ANTLRv4Lexer._serializedATN.getBytes(StandardCharsets.UTF_8));
+        return digest.digest();
+    }
+
+    public static void save(final Path path) throws IOException {
+        final var parser = createParser();
+        final var lexer = (ANTLRv4Lexer) parser.getTokenStream().getTokenSource();
+        final var directory = path.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        final var tempPath = Files.createTempFile(directory, "dfa", ".tmp");
+        try {
+            try (final var out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempPath)))) {
+                out.writeInt(MAGIC);
+                out.writeShort(VERSION);
+                DataUtils.writeBytes(out, getFrontendDigest());
+                writeDFAs(out, parser.getInterpreter().atn, parser.getInterpreter().decisionToDFA);
+                writeDFAs(out, lexer.getInterpreter().atn, lexer.getInterpreter().decisionToDFA);
+            }
+            Files.move(tempPath, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+        finally {
+            Files.deleteIfExists(tempPath);
+        }
+    }
+
+    /**
+     * Preloads the DFAs of the grammar frontend from the given snapshot.
+     * DFAs which were already populated by this process are left untouched.
+     *
+     * @return true if the snapshot was applied, false if it is missing, outdated or corrupted.
+     */
+    public static boolean load(final Path path) {
+        if (!Files.exists(path)) {
+            return false;
+        }
+        final var parser = createParser();
+        final var lexer = (ANTLRv4Lexer) parser.getTokenStream().getTokenSource();
+        final var parserSimulator = parser.getInterpreter();
+        final var lexerSimulator = lexer.getInterpreter();
+        final List<RestoredDFA> parserDFAs;
+        final List<RestoredDFA> lexerDFAs;
+        try (final var in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            if (in.readInt() != MAGIC || in.readUnsignedShort() != VERSION) {
+                return false;
+            }
+            if (!Arrays.equals(DataUtils.readBytes(in), getFrontendDigest())) {
+                return false; // Snapshot was taken with a different frontend or runtime
+            }
+            parserDFAs = readDFAs(in, parserSimulator.atn, parserSimulator.decisionToDFA.length);
+            lexerDFAs = readDFAs(in, lexerSimulator.atn, lexerSimulator.decisionToDFA.length);
+        }
+        catch (IOException | RuntimeException error) {
+            System.err.println(STR."Ignoring DFA snapshot \{path}: \{error}");
+            return false;
+        }
+        install(parserSimulator.decisionToDFA, parserDFAs);
+        install(lexerSimulator.decisionToDFA, lexerDFAs);
+        return true;
+    }
+
+    private static void install(final DFA[] dfas, final List<RestoredDFA> restoredDFAs) {
+        for (final var restoredDFA : restoredDFAs) {
+            final var dfa = dfas[restoredDFA.index];
+            synchronized (dfa.states) {
+                if (!dfa.states.isEmpty()) {
+                    continue;
+                }
+                for (final var state : restoredDFA.states) {
+                    dfa.states.put(state, state);
+                }
+                final var startStates = restoredDFA.precedenceStartStates;
+                if (startStates == null) {
+                    dfa.s0 = restoredDFA.startState;
+                    continue;
+                }
+                for (var precedence = 0; precedence < startStates.length; precedence++) {
+                    final var startState = startStates[precedence];
+                    if (startState == null || startState == ATNSimulator.ERROR) {
+                        continue;
+                    }
+                    dfa.setPrecedenceStartState(precedence, startState);
+                }
+            }
+        }
+    }
+
+    private static List<DFAState> collectStates(final DFA dfa) {
+        final var states = new ArrayList<DFAState>();
+        final var visited = Collections.newSetFromMap(new IdentityHashMap<DFAState, Boolean>());
+        synchronized (dfa.states) {
+            for (final var state : dfa.states.values()) {
+                if (visited.add(state)) {
+                    states.add(state);
+                }
+            }
+        }
+        final var startState = dfa.s0;
+        if (!dfa.isPrecedenceDfa() && startState != null && visited.add(startState)) {
+            states.add(startState);
+        }
+        return states;
+    }
+
+    private static boolean isSerializable(final ATN atn, final List<DFAState> states) {
+        for (final var state : states) {
+            if (state.predicates != null || state.configs == null) {
+                return false;
+            }
+            for (final var config : state.configs.configs) {
+                if (config.semanticContext != SemanticContext.Empty.Instance) {
+                    return false;
+                }
+                if (!(config instanceof LexerATNConfig lexerConfig) || !lexerConfig.hasPassedThroughNonGreedyDecision()) {
+                    continue;
+                }
+                final var decisionState = findNonGreedyDecision(atn, lexerConfig);
+                if (decisionState == null) {
+                    return false;
+                }
+                // @formatter:off
+                final var restoredConfig = createNonGreedyConfig(decisionState, config.state, config.alt,
+                    config.context, lexerConfig.getLexerActionExecutor());
+                // @formatter:on
+                if (!restoredConfig.equals(lexerConfig)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private static void writeDFAs(final DataOutput out, final ATN atn, final DFA[] dfas) throws IOException {
+        final var contexts = new IdentityHashMap<PredictionContext, Integer>();
+        final var orderedContexts = new ArrayList<PredictionContext>();
+        final var executors = new HashMap<LexerActionExecutor, Integer>();
+        final var orderedExecutors = new ArrayList<LexerActionExecutor>();
+        final var dfaStates = new LinkedHashMap<Integer, List<DFAState>>();
+        for (var i = 0; i < dfas.length; i++) {
+            final var states = collectStates(dfas[i]);
+            if (states.isEmpty() || !isSerializable(atn, states)) {
+                continue;
+            }
+            dfaStates.put(i, states);
+            for (final var state : states) {
+                addExecutor(state.lexerActionExecutor, executors, orderedExecutors);
+                for (final var config : state.configs.configs) {
+                    addContext(config.context, contexts, orderedContexts);
+                    if (config instanceof LexerATNConfig lexerConfig) {
+                        addExecutor(lexerConfig.getLexerActionExecutor(), executors, orderedExecutors);
+                    }
+                }
+            }
+        }
+
+        writeVarInt(out, orderedContexts.size());
+        for (final var context : orderedContexts) {
+            final var size = context.size();
+            writeVarInt(out, size);
+            for (var i = 0; i < size; i++) {
+                writeVarInt(out, getContextId(context.getParent(i), contexts));
+                out.writeInt(context.getReturnState(i));
+            }
+        }
+        writeVarInt(out, orderedExecutors.size());
+        for (final var executor : orderedExecutors) {
+            final var actions = executor.getLexerActions();
+            writeVarInt(out, actions.length);
+            for (final var action : actions) {
+                writeAction(out, action);
+            }
+        }
+
+        writeVarInt(out, dfaStates.size());
+        for (final var entry : dfaStates.entrySet()) {
+            final var dfa = dfas[entry.getKey()];
+            final var states = entry.getValue();
+            final var stateIds = new IdentityHashMap<DFAState, Integer>();
+            for (final var state : states) {
+                stateIds.put(state, stateIds.size());
+            }
+            writeVarInt(out, entry.getKey());
+            out.writeBoolean(dfa.isPrecedenceDfa());
+            writeVarInt(out, states.size());
+            for (final var state : states) {
+                writeState(out, atn, state, contexts, executors);
+            }
+            for (final var state : states) {
+                writeEdges(out, state.edges, stateIds);
+            }
+            if (dfa.isPrecedenceDfa()) {
+                writeEdges(out, dfa.s0 == null ? null : dfa.s0.edges, stateIds);
+                continue;
+            }
+            writeVarInt(out, getStateId(dfa.s0, stateIds));
+        }
+    }
+
+    private static List<RestoredDFA> readDFAs(final DataInput in, final ATN atn, final int numDFAs) throws IOException {
+        final var numContexts = readVarInt(in);
+        final var contexts = new ArrayList<PredictionContext>(numContexts);
+        for (var i = 0; i < numContexts; i++) {
+            final var size = readVarInt(in);
+            final var parents = new PredictionContext[size];
+            final var returnStates = new int[size];
+            for (var j = 0; j < size; j++) {
+                parents[j] = getContext(readVarInt(in), contexts);
+                returnStates[j] = in.readInt();
+            }
+            contexts.add(size == 1
+                ? SingletonPredictionContext.create(parents[0], returnStates[0])
+                : new ArrayPredictionContext(parents, returnStates));
+        }
+        final var numExecutors = readVarInt(in);
+        final var executors = new ArrayList<LexerActionExecutor>(numExecutors);
+        for (var i = 0; i < numExecutors; i++) {
+            final var actions = new LexerAction[readVarInt(in)];
+            for (var j = 0; j < actions.length; j++) {
+                actions[j] = readAction(in);
+            }
+            executors.add(new LexerActionExecutor(actions));
+        }
+
+        final var numRestoredDFAs = readVarInt(in);
+        final var restoredDFAs = new ArrayList<RestoredDFA>(numRestoredDFAs);
+        for (var i = 0; i < numRestoredDFAs; i++) {
+            final var index = readVarInt(in);
+            if (index >= numDFAs) {
+                throw new IOException(STR."Invalid DFA index \{index}");
+            }
+            final var isPrecedenceDFA = in.readBoolean();
+            final var numStates = readVarInt(in);
+            final var states = new ArrayList<DFAState>(numStates);
+            for (var j = 0; j < numStates; j++) {
+                states.add(readState(in, atn, contexts, executors));
+            }
+            for (final var state : states) {
+                state.edges = readEdges(in, states);
+            }
+            if (isPrecedenceDFA) {
+                restoredDFAs.add(new RestoredDFA(index, states, null, readEdges(in, states)));
+                continue;
+            }
+            final var startStateId = readVarInt(in);
+            restoredDFAs.add(new RestoredDFA(index, states, startStateId == 0 ? null : getState(startStateId, states), null));
+        }
+        return restoredDFAs;
+    }
+
+    private static void writeState(final DataOutput out, final ATN atn, final DFAState state,
+                                   final IdentityHashMap<PredictionContext, Integer> contexts,
+                                   final HashMap<LexerActionExecutor, Integer> executors) throws IOException {
+        out.writeInt(state.stateNumber);
+        out.writeBoolean(state.isAcceptState);
+        out.writeBoolean(state.requiresFullContext);
+        out.writeInt(state.prediction);
+        writeVarInt(out, getExecutorId(state.lexerActionExecutor, executors));
+        final var configs = state.configs;
+        out.writeBoolean(configs.fullCtx);
+        out.writeInt(configs.uniqueAlt);
+        out.writeBoolean(configs.dipsIntoOuterContext);
+        writeVarInt(out, configs.configs.size());
+        for (final var config : configs.configs) {
+            final var isLexerConfig = config instanceof LexerATNConfig;
+            out.writeBoolean(isLexerConfig);
+            writeVarInt(out, config.state.stateNumber);
+            out.writeInt(config.alt);
+            writeVarInt(out, getContextId(config.context, contexts));
+            out.writeInt(config.reachesIntoOuterContext);
+            if (config instanceof LexerATNConfig lexerConfig) {
+                writeVarInt(out, getExecutorId(lexerConfig.getLexerActionExecutor(), executors));
+                final var isNonGreedy = lexerConfig.hasPassedThroughNonGreedyDecision();
+                out.writeBoolean(isNonGreedy);
+                if (isNonGreedy) { // Checked to exist by isSerializable
+                    writeVarInt(out, Objects.requireNonNull(findNonGreedyDecision(atn, lexerConfig)).stateNumber);
+                }
+            }
+        }
+    }
+
+    private static DFAState readState(final DataInput in, final ATN atn, final List<PredictionContext> contexts,
+                                      final List<LexerActionExecutor> executors) throws IOException {
+        final var stateNumber = in.readInt();
+        final var isAcceptState = in.readBoolean();
+        final var requiresFullContext = in.readBoolean();
+        final var prediction = in.readInt();
+        final var executor = getExecutor(readVarInt(in), executors);
+        final var configs = new RestoredConfigSet(in.readBoolean());
+        configs.uniqueAlt = in.readInt();
+        configs.dipsIntoOuterContext = in.readBoolean();
+        final var numConfigs = readVarInt(in);
+        for (var i = 0; i < numConfigs; i++) {
+            final var isLexerConfig = in.readBoolean();
+            final var atnStateNumber = readVarInt(in);
+            if (atnStateNumber >= atn.states.size()) {
+                throw new IOException(STR."Invalid ATN state \{atnStateNumber}");
+            }
+            final var atnState = atn.states.get(atnStateNumber);
+            final var alt = in.readInt();
+            final var context = getContext(readVarInt(in), contexts);
+            final var reachesIntoOuterContext = in.readInt();
+            final ATNConfig config;
+            if (isLexerConfig) {
+                final var configExecutor = getExecutor(readVarInt(in), executors);
+                config = in.readBoolean()
+                    ? createNonGreedyConfig(readNonGreedyDecision(in, atn), atnState, alt, context, configExecutor)
+                    : new LexerATNConfig(atnState, alt, context, configExecutor);
+            }
+            else {
+                config = new ATNConfig(atnState, alt, context);
+            }
+            config.reachesIntoOuterContext = reachesIntoOuterContext;
+            configs.configs.add(config); // Bypass the lookup, configs are known to be distinct
+        }
+        if (requiresFullContext) {
+            configs.setConflictingAlts(PredictionMode.getAlts(PredictionMode.getConflictingAltSubsets(configs)));
+        }
+        configs.setReadonly(true);
+        final var state = new DFAState(configs);
+        state.stateNumber = stateNumber;
+        state.isAcceptState = isAcceptState;
+        state.requiresFullContext = requiresFullContext;
+        state.prediction = prediction;
+        state.lexerActionExecutor = executor;
+        return state;
+    }
+
+    private static DecisionState readNonGreedyDecision(final DataInput in, final ATN atn) throws IOException {
+        final var stateNumber = readVarInt(in);
+        if (stateNumber >= atn.states.size() || !(atn.states.get(stateNumber) instanceof DecisionState decisionState)
+            || !decisionState.nonGreedy) {
+            throw new IOException(STR."Invalid non-greedy decision \{stateNumber}");
+        }
+        return decisionState;
+    }
+
+    private static LexerATNConfig createNonGreedyConfig(final DecisionState decisionState, final ATNState state,
+                                                        final int alt, final PredictionContext context,
+                                                        final @Nullable LexerActionExecutor executor) {
+        // The flag can only be set by moving a config through a non-greedy decision state
+        final var config = new LexerATNConfig(decisionState, alt, context, executor);
+        return new LexerATNConfig(new LexerATNConfig(config, decisionState), state, context);
+    }
+
+    /**
+     * Configs don't record which non-greedy decision they passed through, so this looks for one
+     * in the rule of the config or in the rules it returns to. Any of those yields an equal config,
+     * decisions in fragments which the config already returned from can't be traced back.
+     *
+     * @return a non-greedy decision the given config may have passed through, or null if there is none.
+     */
+    private static @Nullable DecisionState findNonGreedyDecision(final ATN atn, final LexerATNConfig config) {
+        final var ruleIndices = new HashSet<Integer>();
+        ruleIndices.add(config.state.ruleIndex);
+        collectRuleIndices(atn, config.context, ruleIndices, Collections.newSetFromMap(new IdentityHashMap<>()));
+        for (final var decisionState : atn.decisionToState) {
+            if (decisionState.nonGreedy && ruleIndices.contains(decisionState.ruleIndex)) {
+                return decisionState;
+            }
+        }
+        return null;
+    }
+
+    private static void collectRuleIndices(final ATN atn, final @Nullable PredictionContext context,
+                                           final Set<Integer> ruleIndices, final Set<PredictionContext> visited) {
+        if (context == null || !visited.add(context)) {
+            return;
+        }
+        final var size = context.size();
+        for (var i = 0; i < size; i++) {
+            final var returnState = context.getReturnState(i);
+            if (returnState != PredictionContext.EMPTY_RETURN_STATE) {
+                ruleIndices.add(atn.states.get(returnState).ruleIndex);
+            }
+            collectRuleIndices(atn, context.getParent(i), ruleIndices, visited);
+        }
+    }
+
+    private static void writeEdges(final DataOutput out, final DFAState @Nullable [] edges,
+                                   final IdentityHashMap<DFAState, Integer> stateIds) throws IOException {
+        if (edges == null) {
+            writeVarInt(out, 0);
+            return;
+        }
+        writeVarInt(out, edges.length + 1);
+        var numEdges = 0;
+        for (final var edge : edges) {
+            if (edge != null && (edge == ATNSimulator.ERROR || stateIds.containsKey(edge))) {
+                numEdges++;
+            }
+        }
+        writeVarInt(out, numEdges);
+        for (var i = 0; i < edges.length; i++) {
+            final var edge = edges[i];
+            if (edge == null || (edge != ATNSimulator.ERROR && !stateIds.containsKey(edge))) {
+                continue;
+            }
+            writeVarInt(out, i);
+            writeVarInt(out, edge == ATNSimulator.ERROR ? 0 : getStateId(edge, stateIds));
+        }
+    }
+
+    private static DFAState @Nullable [] readEdges(final DataInput in, final List<DFAState> states) throws IOException {
+        final var length = readVarInt(in);
+        if (length == 0) {
+            return null;
+        }
+        final var edges = new DFAState[length - 1];
+        final var numEdges = readVarInt(in);
+        for (var i = 0; i < numEdges; i++) {
+            final var index = readVarInt(in);
+            if (index >= edges.length) {
+                throw new IOException(STR."Invalid DFA edge \{index}");
+            }
+            final var stateId = readVarInt(in);
+            edges[index] = stateId == 0 ? ATNSimulator.ERROR : getState(stateId, states);
+        }
+        return edges;
+    }
+
+    private static void writeAction(final DataOutput out, final LexerAction action) throws IOException {
+        if (action instanceof LexerIndexedCustomAction indexedAction) {
+            out.writeByte(INDEXED_ACTION);
+            out.writeInt(indexedAction.getOffset());
+            writeAction(out, indexedAction.getAction());
+            return;
+        }
+        out.writeByte(action.getActionType().ordinal() + 1);
+        switch (action) {
+            case LexerChannelAction channelAction -> out.writeInt(channelAction.getChannel());
+            case LexerCustomAction customAction -> {
+                out.writeInt(customAction.getRuleIndex());
+                out.writeInt(customAction.getActionIndex());
+            }
+            case LexerModeAction modeAction -> out.writeInt(modeAction.getMode());
+            case LexerPushModeAction pushModeAction -> out.writeInt(pushModeAction.getMode());
+            case LexerTypeAction typeAction -> out.writeInt(typeAction.getType());
+            default -> {
+            }
+        }
+    }
+
+    private static LexerAction readAction(final DataInput in) throws IOException {
+        final var tag = in.readUnsignedByte();
+        if (tag == INDEXED_ACTION) {
+            final var offset = in.readInt();
+            return new LexerIndexedCustomAction(offset, readAction(in));
+        }
+        final var types = LexerActionType.values();
+        if (tag > types.length) {
+            throw new IOException(STR."Invalid lexer action type \{tag}");
+        }
+        return switch (types[tag - 1]) {
+            case CHANNEL -> new LexerChannelAction(in.readInt());
+            case CUSTOM -> new LexerCustomAction(in.readInt(), in.readInt());
+            case MODE -> new LexerModeAction(in.readInt());
+            case MORE -> LexerMoreAction.INSTANCE;
+            case POP_MODE -> LexerPopModeAction.INSTANCE;
+            case PUSH_MODE -> new LexerPushModeAction(in.readInt());
+            case SKIP -> LexerSkipAction.INSTANCE;
+            case TYPE -> new LexerTypeAction(in.readInt());
+        };
+    }
+
+    private static void addContext(final @Nullable PredictionContext context,
+                                   final IdentityHashMap<PredictionContext, Integer> contexts,
+                                   final ArrayList<PredictionContext> orderedContexts) {
+        if (context == null || context == EmptyPredictionContext.Instance || contexts.containsKey(context)) {
+            return;
+        }
+        final var size = context.size();
+        for (var i = 0; i < size; i++) { // Parents are always written first
+            addContext(context.getParent(i), contexts, orderedContexts);
+        }
+        contexts.put(context, orderedContexts.size() + FIRST_CONTEXT);
+        orderedContexts.add(context);
+    }
+
+    private static int getContextId(final @Nullable PredictionContext context,
+                                    final IdentityHashMap<PredictionContext, Integer> contexts) {
+        if (context == null) {
+            return NULL_CONTEXT;
+        }
+        if (context == EmptyPredictionContext.Instance) {
+            return EMPTY_CONTEXT;
+        }
+        return contexts.get(context);
+    }
+
+    private static @Nullable PredictionContext getContext(final int id, final List<PredictionContext> contexts) throws IOException {
+        return switch (id) {
+            case NULL_CONTEXT -> null;
+            case EMPTY_CONTEXT -> EmptyPredictionContext.Instance;
+            default -> {
+                if (id - FIRST_CONTEXT >= contexts.size()) {
+                    throw new IOException(STR."Invalid prediction context \{id}");
+                }
+                yield contexts.get(id - FIRST_CONTEXT);
+            }
+        };
+    }
+
+    private static void addExecutor(final @Nullable LexerActionExecutor executor,
+                                    final HashMap<LexerActionExecutor, Integer> executors,
+                                    final ArrayList<LexerActionExecutor> orderedExecutors) {
+        if (executor == null || executors.containsKey(executor)) {
+            return;
+        }
+        executors.put(executor, orderedExecutors.size());
+        orderedExecutors.add(executor);
+    }
+
+    private static int getExecutorId(final @Nullable LexerActionExecutor executor,
+                                     final HashMap<LexerActionExecutor, Integer> executors) {
+        return executor == null ? 0 : executors.get(executor) + 1;
+    }
+
+    private static @Nullable LexerActionExecutor getExecutor(final int id,
+                                                             final List<LexerActionExecutor> executors) throws IOException {
+        if (id == 0) {
+            return null;
+        }
+        if (id > executors.size()) {
+            throw new IOException(STR."Invalid lexer action executor \{id}");
+        }
+        return executors.get(id - 1);
+    }
+
+    private static int getStateId(final @Nullable DFAState state, final IdentityHashMap<DFAState, Integer> stateIds) {
+        if (state == null) {
+            return 0;
+        }
+        final var id = stateIds.get(state);
+        return id == null ? 0 : id + 1;
+    }
+
+    private static DFAState getState(final int id, final List<DFAState> states) throws IOException {
+        if (id > states.size()) {
+            throw new IOException(STR."Invalid DFA state \{id}");
+        }
+        return states.get(id - 1);
+    }
+
+    private record RestoredDFA(int index, List<DFAState> states, @Nullable DFAState startState,
+                               DFAState @Nullable [] precedenceStartStates) {
+    }
+
+    private static final class RestoredConfigSet extends ATNConfigSet {
+        RestoredConfigSet(final boolean fullCtx) {
+            super(fullCtx);
+        }
+
+        void setConflictingAlts(final BitSet conflictingAlts) {
+            this.conflictingAlts = conflictingAlts;
+        }
+    }
+}
@@ -0,0 +1,195 @@
+/*
+ * Copyright 2023 Karma Krafts & associates
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.karma.ferrous.osmium.cache;
+
+import io.karma.ferrous.osmium.grammar.Grammar;
+import io.karma.ferrous.osmium.util.DataUtils;
+import org.apiguardian.api.API;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.function.Consumer;
+
+/**
+ * On-disk cache of resolved grammars which allows skipping the ANTLR parse entirely.
+ * Entries are addressed by the digest of the root grammar file and record the digest
+ * of every grammar file reached through its imports, so a change anywhere in
+ * the import graph invalidates the entry. The cache is capped in size and evicts
+ * the least recently used entries first. Eviction is serialized within a process,
+ * entries which another process removes concurrently are simply skipped.
+ *
+ * @author Alexander Hinze
+ * @since 17/10/2026
+ */
+@API(status = API.Status.INTERNAL)
+public final class GrammarCache {
+    public static final long DEFAULT_MAX_SIZE = 64L * 1024 * 1024;
+    private static final String ENTRY_EXTENSION = ".bin";
+    private static final byte[] MISSING_DIGEST = new byte[0];
+
+    private final Path directory;
+    private final long maxSize;
+
+    public GrammarCache(final Path directory, final long maxSize) throws IOException {
+        this.directory = directory;
+        this.maxSize = maxSize;
+        Files.createDirectories(directory);
+    }
+
+    private static byte[] digest(final Path path) throws IOException {
+        if (!Files.exists(path)) {
+            return MISSING_DIGEST;
+        }
+        return DataUtils.createDigest().digest(Files.readAllBytes(path));
+    }
+
+    private static String getKey(final Path path) throws IOException {
+        final var digest = DataUtils.createDigest();
+        digest.update(path.toAbsolutePath().normalize().toString().getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+        digest.update(Files.readAllBytes(path));
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private Path getEntryPath(final Path path) throws IOException {
+        return directory.resolve(STR."\{getKey(path)}\{ENTRY_EXTENSION}");
+    }
+
+    public @Nullable Grammar get(final Path path) throws IOException {
+        return get(path, dependency -> {
+        });
+    }
+
+    /**
+     * @param dependencyConsumer receives every grammar file the entry was validated against if it is a hit,
+     *                           so callers which watch files can track them without parsing the grammar.
+     */
+    public @Nullable Grammar get(final Path path, final Consumer<Path> dependencyConsumer) throws IOException {
+        final var entryPath = getEntryPath(path);
+        if (!Files.exists(entryPath)) {
+            return null;
+        }
+        final Grammar grammar;
+        final var dependencies = new ArrayList<Path>();
+        try (final var in = new DataInputStream(new BufferedInputStream(Files.newInputStream(entryPath)))) {
+            final var numDependencies = in.readInt();
+            for (var i = 0; i < numDependencies; i++) {
+                final var dependency = Path.of(in.readUTF());
+                final var expectedDigest = new byte[in.readUnsignedShort()];
+                in.readFully(expectedDigest);
+                if (!Arrays.equals(expectedDigest, digest(dependency))) {
+                    return null; // An imported grammar changed, entry will age out eventually
+                }
+                dependencies.add(dependency);
+            }
+            grammar = GrammarSerializer.read(in);
+        }
+        catch (NoSuchFileException error) { // Evicted in the meantime
+            return null;
+        }
+        catch (IOException error) { // Treat corrupted entries like a miss
+            Files.deleteIfExists(entryPath);
+            return null;
+        }
+        try {
+            Files.setLastModifiedTime(entryPath, FileTime.from(Instant.now()));
+        }
+        catch (NoSuchFileException error) {
+            // Evicted after reading it, the grammar is still valid
+        }
+        dependencies.forEach(dependencyConsumer);
+        return grammar;
+    }
+
+    public void put(final Path path, final Collection<Path> dependencies, final Grammar grammar) throws IOException {
+        final var entryPath = getEntryPath(path);
+        final var tempPath = Files.createTempFile(directory, "entry", ".tmp");
+        try {
+            try (final var out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempPath)))) {
+                out.writeInt(dependencies.size());
+                for (final var dependency : dependencies) {
+                    final var digest = digest(dependency);
+                    out.writeUTF(dependency.toString());
+                    out.writeShort(digest.length);
+                    out.write(digest);
+                }
+                GrammarSerializer.write(out, grammar);
+            }
+            Files.move(tempPath, entryPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+        finally {
+            Files.deleteIfExists(tempPath);
+        }
+        evict();
+    }
+
+    private synchronized void evict() throws IOException {
+        final var entries = new ArrayList<Entry>();
+        var totalSize = 0L;
+        try (final var files = Files.list(directory)) {
+            for (final var file : (Iterable<Path>) files::iterator) {
+                if (!file.getFileName().toString().endsWith(ENTRY_EXTENSION)) {
+                    continue;
+                }
+                final BasicFileAttributes attributes;
+                try {
+                    attributes = Files.readAttributes(file, BasicFileAttributes.class);
+                }
+                catch (NoSuchFileException error) {
+                    continue; // Removed since it was listed
+                }
+                final var entry = new Entry(file, attributes.size(), attributes.lastModifiedTime());
+                totalSize += entry.size;
+                entries.add(entry);
+            }
+        }
+        if (totalSize <= maxSize) {
+            return;
+        }
+        entries.sort(Comparator.comparing(Entry::lastAccess));
+        for (final var entry : entries) {
+            if (totalSize <= maxSize) {
+                break;
+            }
+            Files.deleteIfExists(entry.path);
+            totalSize -= entry.size;
+        }
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    public long getMaxSize() {
+        return maxSize;
+    }
+
+    private record Entry(Path path, long size, FileTime lastAccess) {
+    }
+}
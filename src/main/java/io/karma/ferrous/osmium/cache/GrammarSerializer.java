@@ -0,0 +1,334 @@
+/*
+ * Copyright 2023 Karma Krafts & associates
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.karma.ferrous.osmium.cache;
+
+import io.karma.ferrous.osmium.grammar.AbstractGrammar;
+import io.karma.ferrous.osmium.grammar.Grammar;
+import io.karma.ferrous.osmium.grammar.GrammarType;
+import io.karma.ferrous.osmium.grammar.LexerGrammar;
+import io.karma.ferrous.osmium.grammar.ParserGrammar;
+import io.karma.ferrous.osmium.grammar.node.*;
+import io.karma.ferrous.osmium.util.CodePointSet;
+import org.apiguardian.api.API;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+
+import static io.karma.ferrous.osmium.util.DataUtils.readVarInt;
+import static io.karma.ferrous.osmium.util.DataUtils.writeVarInt;
+
+/**
+ * Compact binary encoding of resolved grammars.
+ * Resolved references to named nodes are written as plain references
+ * and are linked up again by {@link Grammar#resolve()} when reading,
+ * so every rule body is only stored once. Grammars which are imported
+ * multiple times are stored once and shared again when reading.
+ *
+ * @author Alexander Hinze
+ * @since 17/10/2026
+ */
+@API(status = API.Status.INTERNAL)
+public final class GrammarSerializer {
+    private static final int MAGIC = 0x4F534D43; // OSMC
+    private static final int VERSION = 4;
+
+    // @formatter:off
+    private GrammarSerializer() {}
+    // @formatter:on
+
+    public static void write(final DataOutput out, final Grammar grammar) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeShort(VERSION);
+        writeGrammar(out, grammar, new IdentityHashMap<>());
+    }
+
+    public static Grammar read(final DataInput in) throws IOException {
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Not a serialized grammar");
+        }
+        final var version = in.readUnsignedShort();
+        if (version != VERSION) {
+            throw new IOException(STR."Unsupported serialized grammar version \{version}");
+        }
+        return readGrammar(in, new ArrayList<>(), new NodeFactory()).resolve();
+    }
+
+    private static void writeGrammar(final DataOutput out, final Grammar grammar,
+                                     final IdentityHashMap<Grammar, Integer> written) throws IOException {
+        final var index = written.get(grammar);
+        if (index != null) { // Back-reference to an already written grammar
+            writeVarInt(out, index + 1);
+            return;
+        }
+        written.put(grammar, written.size());
+        writeVarInt(out, 0);
+        out.writeByte(grammar.getType().ordinal());
+        out.writeUTF(grammar.getName());
+        switch (grammar) {
+            case LexerGrammar lexerGrammar -> {
+                final var imports = lexerGrammar.getImports();
+                writeVarInt(out, imports.size());
+                for (final var _import : imports) {
+                    writeGrammar(out, _import, written);
+                }
+            }
+            case ParserGrammar parserGrammar -> {
+                final var lexerGrammar = parserGrammar.getLexerGrammar();
+                out.writeBoolean(lexerGrammar != null);
+                if (lexerGrammar != null) {
+                    writeGrammar(out, lexerGrammar, written);
+                }
+            }
+            default -> throw new IOException(STR."Cannot serialize grammar of type \{grammar.getClass()}");
+        }
+        final var nodes = grammar.getNodes();
+        writeVarInt(out, nodes.size());
+        for (final var node : nodes) {
+            writeNode(out, node, true);
+        }
+    }
+
+    private static AbstractGrammar readGrammar(final DataInput in, final ArrayList<AbstractGrammar> read,
+                                               final NodeFactory factory) throws IOException {
+        final var index = readVarInt(in);
+        if (index > 0) {
+            if (index > read.size()) {
+                throw new IOException(STR."Invalid grammar back-reference \{index}");
+            }
+            return read.get(index - 1);
+        }
+        final var type = readEnum(in, GrammarType.values());
+        final var name = in.readUTF();
+        final AbstractGrammar grammar = switch (type) {
+            case LEXER -> {
+                final var lexerGrammar = new LexerGrammar(name);
+                read.add(lexerGrammar);
+                final var numImports = readVarInt(in);
+                final var imports = new ArrayList<LexerGrammar>(numImports);
+                for (var i = 0; i < numImports; i++) {
+                    imports.add(readLexerGrammar(in, read, factory));
+                }
+                lexerGrammar.addImports(imports);
+                yield lexerGrammar;
+            }
+            case PARSER -> {
+                final var parserGrammar = new ParserGrammar(name);
+                read.add(parserGrammar);
+                if (in.readBoolean()) {
+                    parserGrammar.setLexerGrammar(readLexerGrammar(in, read, factory));
+                }
+                yield parserGrammar;
+            }
+        };
+        final var numNodes = readVarInt(in);
+        for (var i = 0; i < numNodes; i++) {
+            if (!(readNode(in, factory) instanceof NamedNode node)) {
+                throw new IOException(STR."Top level node in grammar \{name} is not named");
+            }
+            grammar.addNode(node);
+        }
+        return grammar;
+    }
+
+    private static LexerGrammar readLexerGrammar(final DataInput in,
+                                                 final ArrayList<AbstractGrammar> read,
+                                                 final NodeFactory factory) throws IOException {
+        if (!(readGrammar(in, read, factory) instanceof LexerGrammar lexerGrammar)) {
+            throw new IOException("Expected lexer grammar");
+        }
+        return lexerGrammar;
+    }
+
+    private static void writeNode(final DataOutput out, final Node node, final boolean isDefinition) throws IOException {
+        if (!isDefinition && node.isNamed() && node.getType() != NodeType.REFERENCE) {
+            out.writeByte(NodeType.REFERENCE.ordinal());
+            writeModeActions(out, Collections.emptyList());
+            out.writeUTF(((NamedNode) node).getName());
+            return;
+        }
+        if (node instanceof SelfReferenceNode selfRef && selfRef.getName() != null) {
+            out.writeByte(NodeType.REFERENCE.ordinal()); // Turns into a self reference again when resolving
+            writeModeActions(out, Collections.emptyList());
+            out.writeUTF(selfRef.getName());
+            return;
+        }
+        out.writeByte(node.getType().ordinal());
+        writeModeActions(out, node.getModeActions());
+        switch (node) {
+            case TextNode text -> out.writeUTF(text.getText());
+            case RangeNode range -> {
+                out.writeChar(range.getStart());
+                out.writeChar(range.getEnd());
+            }
+            case RawRangeNode range -> out.writeUTF(range.getPattern());
+            case CharSetNode set -> writeCodePointSet(out, set.getChars());
+            case ReferenceNode reference -> out.writeUTF(reference.getName());
+            case UnaryOpNode unaryOp -> {
+                out.writeByte(unaryOp.getOp().ordinal());
+                writeNode(out, unaryOp.getNode(), false);
+            }
+            case ContainerNode container -> {
+                if (container instanceof NamedNode named) {
+                    out.writeUTF(named.getName());
+                }
+                if (container instanceof LexerRuleNode rule) {
+                    out.writeUTF(rule.getMode());
+                }
+                final var children = container.getChildren();
+                writeVarInt(out, children.size());
+                for (final var child : children) {
+                    writeNode(out, child, false);
+                }
+            }
+            default -> {
+            }
+        }
+    }
+
+    private static Node readNode(final DataInput in, final NodeFactory factory) throws IOException {
+        final var type = readEnum(in, NodeType.values());
+        final var modeActions = readModeActions(in);
+        if (modeActions.isEmpty()) {
+            final var node = readSharedNode(in, type, factory);
+            if (node != null) {
+                return node;
+            }
+        }
+        final Node node = switch (type) {
+            case GRAMMAR -> new GrammarNode();
+            case TEXT -> new TextNode(in.readUTF());
+            case RANGE -> new RangeNode(in.readChar(), in.readChar());
+            case RAW_RANGE -> new RawRangeNode(in.readUTF());
+            case REFERENCE -> new ReferenceNode(in.readUTF());
+            case ANY_MATCH -> new AnyMatchNode();
+            case CHAR_SET -> new CharSetNode(readCodePointSet(in));
+            case SELF_REFERENCE -> new SelfReferenceNode();
+            case UNARY_OP -> {
+                final var op = readEnum(in, UnaryOpNode.Op.values());
+                yield new UnaryOpNode(op, readNode(in, factory));
+            }
+            case ALT_LIST -> new AltListNode(readChildren(in, factory));
+            case SEQUENCE -> new SequenceNode(readChildren(in, factory));
+            case NOT_SET -> new NotSetNode(readChildren(in, factory));
+            case FRAGMENT -> {
+                final var fragment = new FragmentNode(in.readUTF());
+                fragment.addChildren(readChildren(in, factory));
+                yield fragment;
+            }
+            case LEXER_RULE -> {
+                final var rule = new LexerRuleNode(in.readUTF());
+                rule.setMode(in.readUTF());
+                rule.addChildren(readChildren(in, factory));
+                yield rule;
+            }
+            case PARSER_RULE -> {
+                final var rule = new ParserRuleNode(in.readUTF());
+                rule.addChildren(readChildren(in, factory));
+                yield rule;
+            }
+        };
+        if (!modeActions.isEmpty() && node instanceof AbstractNode abstractNode) {
+            abstractNode.addModeActions(modeActions);
+        }
+        return node;
+    }
+
+    // Nodes with mode actions are never shared, since the actions are attached after creation
+    private static @Nullable Node readSharedNode(final DataInput in, final NodeType type,
+                                                 final NodeFactory factory) throws IOException {
+        return switch (type) {
+            case TEXT -> factory.text(in.readUTF());
+            case RANGE -> factory.range(in.readChar(), in.readChar());
+            case RAW_RANGE -> factory.rawRange(in.readUTF());
+            case ANY_MATCH -> factory.anyMatch();
+            case CHAR_SET -> factory.charSet(readCodePointSet(in));
+            case UNARY_OP -> {
+                final var op = readEnum(in, UnaryOpNode.Op.values());
+                yield factory.unaryOp(op, readNode(in, factory));
+            }
+            case ALT_LIST -> factory.altList(readChildren(in, factory));
+            case SEQUENCE -> factory.sequence(readChildren(in, factory));
+            case NOT_SET -> factory.notSet(readChildren(in, factory));
+            default -> null;
+        };
+    }
+
+    private static void writeCodePointSet(final DataOutput out, final CodePointSet set) throws IOException {
+        final var count = set.getIntervalCount();
+        writeVarInt(out, count);
+        for (var i = 0; i < count; i++) {
+            writeVarInt(out, set.getStart(i));
+            writeVarInt(out, set.getEnd(i));
+        }
+    }
+
+    private static CodePointSet readCodePointSet(final DataInput in) throws IOException {
+        final var count = readVarInt(in);
+        var set = CodePointSet.EMPTY;
+        for (var i = 0; i < count; i++) {
+            final var start = readVarInt(in);
+            final var end = readVarInt(in);
+            if (start > end || end > Character.MAX_CODE_POINT) {
+                throw new IOException(STR."Invalid code point interval \{start}..\{end}");
+            }
+            set = set.union(CodePointSet.of(start, end));
+        }
+        return set;
+    }
+
+    private static List<Node> readChildren(final DataInput in, final NodeFactory factory) throws IOException {
+        final var numChildren = readVarInt(in);
+        final var children = new ArrayList<Node>(numChildren);
+        for (var i = 0; i < numChildren; i++) {
+            children.add(readNode(in, factory));
+        }
+        return children;
+    }
+
+    private static void writeModeActions(final DataOutput out, final List<ModeAction> actions) throws IOException {
+        writeVarInt(out, actions.size());
+        for (final var action : actions) {
+            out.writeByte(action.type().ordinal());
+            out.writeUTF(action.name());
+        }
+    }
+
+    private static List<ModeAction> readModeActions(final DataInput in) throws IOException {
+        final var numActions = readVarInt(in);
+        if (numActions == 0) {
+            return Collections.emptyList();
+        }
+        final var actions = new ArrayList<ModeAction>(numActions);
+        for (var i = 0; i < numActions; i++) {
+            actions.add(new ModeAction(readEnum(in, ModeAction.Type.values()), in.readUTF()));
+        }
+        return actions;
+    }
+
+    private static <E extends Enum<E>> E readEnum(final DataInput in, final E[] values) throws IOException {
+        final var ordinal = in.readUnsignedByte();
+        if (ordinal >= values.length) {
+            throw new IOException(STR."Invalid ordinal \{ordinal}");
+        }
+        return values[ordinal];
+    }
+}
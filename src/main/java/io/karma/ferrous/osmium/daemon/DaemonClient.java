@@ -0,0 +1,48 @@
+/*
+ * Copyright 2023 Karma Krafts & associates
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.karma.ferrous.osmium.daemon;
+
+import io.karma.ferrous.osmium.util.DataUtils;
+import io.karma.ferrous.osmium.util.JSONUtils;
+import org.apiguardian.api.API;
+
+import java.io.IOException;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Path;
+
+/**
+ * Forwards a single {@link DaemonRequest} to a running {@link TranspilerDaemon}.
+ *
+ * @author Alexander Hinze
+ * @since 17/10/2026
+ */
+@API(status = API.Status.INTERNAL)
+public final class DaemonClient {
+    // @formatter:off
+    private DaemonClient() {}
+    // @formatter:on
+
+    public static DaemonResponse send(final Path socketPath, final DaemonRequest request) throws IOException {
+        try (final var channel = SocketChannel.open(StandardProtocolFamily.UNIX)) {
+            channel.connect(UnixDomainSocketAddress.of(socketPath));
+            DataUtils.writeFully(channel, JSONUtils.writeValueAsBytes(request));
+            channel.shutdownOutput();
+            return JSONUtils.readValue(DaemonResponse.class, TranspilerDaemon.readFully(channel));
+        }
+    }
+}
@@ -0,0 +1,37 @@
+/*
+ * Copyright 2023 Karma Krafts & associates
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.karma.ferrous.osmium.daemon;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import org.apiguardian.api.API;
+
+import java.util.ArrayList;
+
+/**
+ * The reply of a {@link TranspilerDaemon} to a single {@link DaemonRequest}.
+ *
+ * @author Alexander Hinze
+ * @since 17/10/2026
+ */
+@API(status = API.Status.INTERNAL)
+public final class DaemonResponse {
+    @JsonProperty
+    public final ArrayList<String> diagnostics = new ArrayList<>();
+    @JsonProperty
+    public boolean isSuccessful;
+    @JsonProperty
+    public long time;
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright 2023 Karma Krafts & associates
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.karma.ferrous.osmium.daemon;
+
+import io.karma.ferrous.osmium.util.DataUtils;
+import org.apiguardian.api.API;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+
+/**
+ * Identifies the state of a file at the time it was cached.
+ * The modification time is checked first, and the content digest
+ * is only compared if the file was touched since.
+ *
+ * @author Alexander Hinze
+ * @since 17/10/2026
+ */
+@API(status = API.Status.INTERNAL)
+public record FileStamp(FileTime lastModified, byte[] digest) {
+    private static final FileTime MISSING_TIME = FileTime.fromMillis(0);
+    private static final byte[] MISSING_DIGEST = new byte[0];
+
+    public static FileStamp of(final Path path) throws IOException {
+        if (!Files.exists(path)) {
+            return new FileStamp(MISSING_TIME, MISSING_DIGEST);
+        }
+        final var lastModified = Files.getLastModifiedTime(path);
+        return new FileStamp(lastModified, DataUtils.createDigest().digest(Files.readAllBytes(path)));
+    }
+
+    public boolean isCurrent(final Path path) throws IOException {
+        if (!Files.exists(path)) {
+            return digest.length == 0;
+        }
+        if (Files.getLastModifiedTime(path).equals(lastModified)) {
+            return true;
+        }
+        return Arrays.equals(digest, DataUtils.createDigest().digest(Files.readAllBytes(path)));
+    }
+}
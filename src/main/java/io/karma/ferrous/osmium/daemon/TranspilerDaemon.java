@@ -0,0 +1,212 @@
+/*
+ * Copyright 2023 Karma Krafts & associates
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.karma.ferrous.osmium.daemon;
+
+import io.karma.ferrous.osmium.Transpiler;
+import io.karma.ferrous.osmium.TranspilerConfig;
+import io.karma.ferrous.osmium.grammar.Grammar;
+import io.karma.ferrous.osmium.parser.ParseSession;
+import io.karma.ferrous.osmium.pass.PassContext;
+import io.karma.ferrous.osmium.util.DataUtils;
+import io.karma.ferrous.osmium.util.JSONUtils;
+import org.apiguardian.api.API;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Keeps warmed transpilers in memory and serves {@link DaemonRequest}s over a Unix domain socket,
+ * so repeated invocations don't pay for JVM startup. Every connection carries exactly one
+ * JSON encoded request, terminated by the client shutting down its output, and one JSON encoded response.
+ * Parsed configs, grammars and the pass results of every generator are kept between requests
+ * until one of their files changes, in which case the grammar and the pass results are updated in place,
+ * so only the rules affected by the change are processed again. Every grammar keeps the parse session
+ * it was parsed with, so imported lexer grammars whose files didn't change are never parsed again.
+ * Requests are served one at a time, since diagnostics are captured from {@link System#err}.
+ *
+ * @author Alexander Hinze
+ * @since 17/10/2026
+ */
+@API(status = API.Status.INTERNAL)
+public final class TranspilerDaemon implements AutoCloseable {
+    private final Path socketPath;
+    private final Function<TranspilerConfig, Transpiler> transpilerFactory;
+    private final HashMap<Path, ConfigEntry> configs = new HashMap<>();
+    private final HashMap<Path, GrammarEntry> grammars = new HashMap<>();
+    private final ServerSocketChannel serverChannel;
+
+    public TranspilerDaemon(final Path socketPath,
+                            final Function<TranspilerConfig, Transpiler> transpilerFactory) throws IOException {
+        this.socketPath = socketPath.toAbsolutePath().normalize();
+        this.transpilerFactory = transpilerFactory;
+        Files.deleteIfExists(this.socketPath); // Remove stale socket of a previous daemon
+        serverChannel = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+        serverChannel.bind(UnixDomainSocketAddress.of(this.socketPath));
+    }
+
+    static byte[] readFully(final SocketChannel channel) throws IOException {
+        final var out = new ByteArrayOutputStream();
+        final var buffer = ByteBuffer.allocate(8192);
+        while (channel.read(buffer) != -1) {
+            out.write(buffer.array(), 0, buffer.position());
+            buffer.clear();
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Serves requests until the daemon is closed or the current thread is interrupted.
+     */
+    public void run() throws IOException {
+        while (serverChannel.isOpen() && !Thread.currentThread().isInterrupted()) {
+            try (final var channel = serverChannel.accept()) {
+                final var request = JSONUtils.readValue(DaemonRequest.class, readFully(channel));
+                DataUtils.writeFully(channel, JSONUtils.writeValueAsBytes(handle(request)));
+            }
+            catch (IOException error) {
+                if (!serverChannel.isOpen()) {
+                    return; // Closed while waiting for a connection
+                }
+                System.err.println(STR."Could not serve request: \{error}");
+            }
+        }
+    }
+
+    private DaemonResponse handle(final DaemonRequest request) {
+        final var response = new DaemonResponse();
+        final var diagnostics = new ByteArrayOutputStream();
+        final var previousErr = System.err;
+        final var startTime = System.nanoTime();
+        System.setErr(new PrintStream(diagnostics, true, StandardCharsets.UTF_8));
+        try {
+            final var transpiler = getTranspiler(Path.of(request.configPath));
+            final var generator = transpiler.getGenerator(request.generator);
+            if (generator == null) {
+                throw new IllegalStateException(STR."No generator named '\{request.generator}'");
+            }
+            final var entry = getGrammar(transpiler, Path.of(request.inPath));
+            if (entry == null) {
+                throw new IllegalStateException("Could not parse grammar");
+            }
+            // @formatter:off
+            final var context = entry.contexts.computeIfAbsent(generator.getName(),
+                name -> generator.getPipeline().run(entry.grammar));
+            // @formatter:on
+            transpiler.generate(context, Path.of(request.outPath), generator);
+            response.isSuccessful = true;
+        }
+        catch (Throwable error) {
+            System.err.println(error);
+        }
+        finally {
+            System.setErr(previousErr);
+        }
+        response.time = System.nanoTime() - startTime;
+        diagnostics.toString(StandardCharsets.UTF_8).lines().forEach(response.diagnostics::add);
+        return response;
+    }
+
+    private Transpiler getTranspiler(final Path configPath) throws IOException {
+        final var key = configPath.toAbsolutePath().normalize();
+        final var entry = configs.get(key);
+        if (entry != null && entry.stamp.isCurrent(key)) {
+            return entry.transpiler;
+        }
+        if (!Files.exists(key)) {
+            throw new IllegalStateException("Configuration file does not exist");
+        }
+        final var stamp = FileStamp.of(key); // Stamp before reading, so concurrent edits invalidate the entry
+        final var transpiler = transpilerFactory.apply(TranspilerConfig.read(key));
+        configs.put(key, new ConfigEntry(stamp, transpiler));
+        return transpiler;
+    }
+
+    private @Nullable GrammarEntry getGrammar(final Transpiler transpiler, final Path path) throws IOException {
+        final var key = path.toAbsolutePath().normalize();
+        final var entry = grammars.get(key);
+        final var changedPaths = entry != null ? entry.getChangedPaths() : Set.<Path>of();
+        if (entry != null && changedPaths.isEmpty()) {
+            return entry;
+        }
+        grammars.remove(key);
+        if (!Files.exists(key) || Files.isDirectory(key)) {
+            throw new IllegalStateException("Input file does not exist or is not a file");
+        }
+        final var stamps = new LinkedHashMap<Path, FileStamp>();
+        stamps.put(key, FileStamp.of(key));
+        // @formatter:off
+        final var session = entry != null
+            ? entry.session.retain(file -> entry.stamps.containsKey(file) && !changedPaths.contains(file))
+            : transpiler.createSession();
+        // @formatter:on
+        final var contexts = entry != null ? entry.contexts : new HashMap<String, PassContext>();
+        final var grammar = entry != null // Only resolve and regenerate the rules affected by the edit
+            ? transpiler.updateGrammar(entry.grammar, key, session, contexts)
+            : transpiler.parseGrammar(key, session);
+        if (grammar == null) {
+            return null;
+        }
+        for (final var dependency : session.getDependencies()) {
+            stamps.put(dependency, FileStamp.of(dependency));
+        }
+        final var newEntry = new GrammarEntry(stamps, grammar, session, contexts);
+        grammars.put(key, newEntry);
+        return newEntry;
+    }
+
+    public Path getSocketPath() {
+        return socketPath;
+    }
+
+    @Override
+    public void close() throws IOException {
+        serverChannel.close();
+        Files.deleteIfExists(socketPath);
+    }
+
+    private record ConfigEntry(FileStamp stamp, Transpiler transpiler) {
+    }
+
+    // Contexts hold the results of every generator which already ran on the grammar, by generator name
+    private record GrammarEntry(Map<Path, FileStamp> stamps, Grammar grammar, ParseSession session,
+                                Map<String, PassContext> contexts) {
+        public Set<Path> getChangedPaths() throws IOException {
+            final var result = new HashSet<Path>();
+            for (final var stamp : stamps.entrySet()) {
+                if (!stamp.getValue().isCurrent(stamp.getKey())) {
+                    result.add(stamp.getKey());
+                }
+            }
+            return result;
+        }
+    }
+}
@@ -17,8 +17,11 @@ package io.karma.ferrous.osmium.generator;
 
 import io.karma.ferrous.osmium.TranspilerConfig;
 import io.karma.ferrous.osmium.grammar.Grammar;
+import io.karma.ferrous.osmium.pass.PassContext;
+import io.karma.ferrous.osmium.pass.PassPipeline;
 import org.apiguardian.api.API;
 
+import java.io.IOException;
 import java.nio.channels.WritableByteChannel;
 
 /**
@@ -29,5 +32,23 @@ import java.nio.channels.WritableByteChannel;
 public interface Generator {
     String getName();
 
-    void generate(final WritableByteChannel channel, final Grammar grammar, final TranspilerConfig config);
+    String getFileExtension();
+
+    /**
+     * @return the passes whose results this generator consumes. Callers which generate a grammar repeatedly
+     * can keep the context of a run and {@link PassPipeline#update update} it after the grammar changed in place.
+     */
+    PassPipeline getPipeline();
+
+    /**
+     * Generates a grammar from the results of running the {@link #getPipeline() pipeline} of this generator
+     * and writes it to the given channel, which stays open.
+     */
+    void generate(final WritableByteChannel channel, final PassContext context,
+                  final TranspilerConfig config) throws IOException;
+
+    default void generate(final WritableByteChannel channel, final Grammar grammar,
+                          final TranspilerConfig config) throws IOException {
+        generate(channel, getPipeline().run(grammar), config);
+    }
 }
@@ -16,12 +16,28 @@
 package io.karma.ferrous.osmium.generator;
 
 import io.karma.ferrous.osmium.TranspilerConfig;
-import io.karma.ferrous.osmium.grammar.Grammar;
+import io.karma.ferrous.osmium.grammar.node.LexerRuleNode;
+import io.karma.ferrous.osmium.pass.BacktrackingPass;
+import io.karma.ferrous.osmium.pass.EmitPass;
+import io.karma.ferrous.osmium.pass.LowerPass;
+import io.karma.ferrous.osmium.pass.ModePass;
+import io.karma.ferrous.osmium.pass.ModeTable;
+import io.karma.ferrous.osmium.pass.OptimizePass;
+import io.karma.ferrous.osmium.pass.PassContext;
+import io.karma.ferrous.osmium.pass.PassPipeline;
+import io.karma.ferrous.osmium.pass.ResolvePass;
+import io.karma.ferrous.osmium.pass.SimplifyPass;
+import io.karma.ferrous.osmium.util.DataUtils;
+import io.karma.ferrous.osmium.util.RegexDialect;
 import io.karma.ferrous.osmium.util.TokenType;
 import org.apiguardian.api.API;
 
+import java.io.IOException;
 import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.EnumMap;
+import java.util.TreeSet;
 
 /**
  * @author Alexander Hinze
@@ -31,6 +47,17 @@ import java.util.EnumMap;
 public final class PygmentsGenerator implements Generator {
     public static final String NAME = "pygments";
     private static final EnumMap<TokenType, String> TOKEN_TYPES = new EnumMap<>(TokenType.class);
+    // @formatter:off
+    private static final PassPipeline PIPELINE = PassPipeline.of(
+        new ResolvePass(),
+        new SimplifyPass(),
+        new BacktrackingPass(RegexDialect.PYTHON),
+        new ModePass(),
+        new OptimizePass(),
+        new LowerPass(),
+        new EmitPass(RegexDialect.PYTHON)
+    );
+    // @formatter:on
 
     static {
         // Implemented according to https://pygments.org/docs/tokens/
@@ -71,7 +98,88 @@ public final class PygmentsGenerator implements Generator {
     }
 
     @Override
-    public void generate(final WritableByteChannel channel, final Grammar grammar, final TranspilerConfig config) {
+    public String getFileExtension() {
+        return "py";
+    }
+
+    @Override
+    public PassPipeline getPipeline() {
+        return PIPELINE;
+    }
+
+    @Override
+    public void generate(final WritableByteChannel channel, final PassContext context,
+                         final TranspilerConfig config) throws IOException {
+        PIPELINE.run(context);
+        final var tables = context.get(ModePass.MODE_TABLES);
+        final var patterns = context.get(EmitPass.PATTERNS);
+        final var tokenNames = new TreeSet<String>();
+        final var states = new StringBuilder();
+        for (final var table : tables) { // Every mode becomes its own state, so only its rules are evaluated
+            states.append(STR."        '\{getStateName(table.name())}': [\n");
+            for (final var rule : table.rules()) {
+                final var pattern = patterns.get(rule.name());
+                if (pattern == null || pattern.isEmpty()) {
+                    continue; // Empty matches never advance, so the lexer would get stuck
+                }
+                final var type = config.getTokenType(table.name(), rule.name());
+                final var token = TOKEN_TYPES.get(type != null ? type : TokenType.TEXT);
+                final var separator = token.indexOf('.');
+                tokenNames.add(separator != -1 ? token.substring(0, separator) : token);
+                // @formatter:off
+                states.append(STR."            (r'\{pattern.replace("'", "\\'")}', "
+                    + STR."\{token}\{getStateActions(table, rule)}),\n");
+                // @formatter:on
+            }
+            states.append("        ],\n");
+        }
+        if (tables.isEmpty()) {
+            states.append("        'root': [],\n"); // Every lexer needs an initial state
+        }
+        final var name = context.getGrammar().getName();
+        final var builder = new StringBuilder();
+        builder.append("from pygments.lexer import RegexLexer\n");
+        if (!tokenNames.isEmpty()) {
+            builder.append(STR."from pygments.token import \{String.join(", ", tokenNames)}\n");
+        }
+        builder.append(STR."\n__all__ = ['\{name}Lexer']\n\n\n");
+        builder.append(STR."class \{name}Lexer(RegexLexer):\n");
+        builder.append(STR."    name = '\{name}'\n");
+        builder.append(STR."    aliases = ['\{config.getNamespace(name)}']\n\n");
+        builder.append("    tokens = {\n").append(states).append("    }\n");
+        DataUtils.writeFully(channel, builder.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String getStateName(final String mode) {
+        return mode.equals(LexerRuleNode.DEFAULT_MODE) ? "root" : mode;
+    }
 
+    // Multiple state changes have to be combined into a tuple.
+    // The root state can't be replaced, so setting a mode from it pushes that mode and setting
+    // the default mode pops back to it, which keeps set-style modes one state above the root.
+    private static String getStateActions(final ModeTable table, final ModeTable.Rule rule) {
+        final var states = new ArrayList<String>();
+        for (final var action : rule.actions()) {
+            switch (action.type()) {
+                case PUSH -> states.add(STR."'\{getStateName(action.name())}'");
+                case POP -> states.add("'#pop'");
+                case SET -> {
+                    if (action.name().equals(table.name())) {
+                        continue; // Stays in its mode
+                    }
+                    if (!table.isDefault()) {
+                        states.add("'#pop'");
+                    }
+                    if (!action.name().equals(LexerRuleNode.DEFAULT_MODE)) {
+                        states.add(STR."'\{getStateName(action.name())}'");
+                    }
+                }
+            }
+        }
+        return switch (states.size()) {
+            case 0 -> "";
+            case 1 -> STR.", \{states.getFirst()}";
+            default -> STR.", (\{String.join(", ", states)})";
+        };
     }
 }
@@ -16,15 +16,30 @@
 package io.karma.ferrous.osmium.generator;
 
 import io.karma.ferrous.osmium.TranspilerConfig;
-import io.karma.ferrous.osmium.grammar.Grammar;
 import io.karma.ferrous.osmium.grammar.ParserGrammar;
-import io.karma.ferrous.osmium.grammar.node.NamedNode;
+import io.karma.ferrous.osmium.grammar.node.LexerRuleNode;
+import io.karma.ferrous.osmium.pass.BacktrackingPass;
+import io.karma.ferrous.osmium.pass.EmitPass;
+import io.karma.ferrous.osmium.pass.LowerPass;
+import io.karma.ferrous.osmium.pass.ModePass;
+import io.karma.ferrous.osmium.pass.ModeTable;
+import io.karma.ferrous.osmium.pass.OptimizePass;
+import io.karma.ferrous.osmium.pass.PassContext;
+import io.karma.ferrous.osmium.pass.PassPipeline;
+import io.karma.ferrous.osmium.pass.ResolvePass;
+import io.karma.ferrous.osmium.pass.SimplifyPass;
+import io.karma.ferrous.osmium.util.DataUtils;
+import io.karma.ferrous.osmium.util.JSONUtils;
+import io.karma.ferrous.osmium.util.RegexDialect;
 import io.karma.ferrous.osmium.util.TokenType;
 import org.apiguardian.api.API;
 
+import java.io.IOException;
 import java.nio.channels.WritableByteChannel;
 import java.util.EnumMap;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 
 /**
@@ -35,6 +50,17 @@ import java.util.Objects;
 public final class TextMateGenerator implements Generator {
     public static final String NAME = "textmate";
     private static final EnumMap<TokenType, String> TOKEN_TYPES = new EnumMap<>(TokenType.class);
+    // @formatter:off
+    private static final PassPipeline PIPELINE = PassPipeline.of(
+        new ResolvePass(),
+        new SimplifyPass(),
+        new BacktrackingPass(RegexDialect.ONIGURUMA),
+        new ModePass(),
+        new OptimizePass(),
+        new LowerPass(),
+        new EmitPass(RegexDialect.ONIGURUMA)
+    );
+    // @formatter:on
 
     static {
         // Implemented according to https://macromates.com/manual/en/language_grammars
@@ -75,18 +101,72 @@ public final class TextMateGenerator implements Generator {
     }
 
     @Override
-    public void generate(final WritableByteChannel channel, final Grammar grammar, final TranspilerConfig config) {
-        if (!(grammar instanceof ParserGrammar parserGrammar)) {
+    public String getFileExtension() {
+        return "tmLanguage.json";
+    }
+
+    @Override
+    public PassPipeline getPipeline() {
+        return PIPELINE;
+    }
+
+    @Override
+    public void generate(final WritableByteChannel channel, final PassContext context,
+                         final TranspilerConfig config) throws IOException {
+        if (!(context.getGrammar() instanceof ParserGrammar parserGrammar)) {
             return;
         }
-        final List<NamedNode> nodes = Objects.requireNonNull(parserGrammar.getLexerGrammar()).getNodes();
-        if (nodes.isEmpty()) {
-            return;
+        Objects.requireNonNull(parserGrammar.getLexerGrammar());
+        PIPELINE.run(context);
+        final var tables = context.get(ModePass.MODE_TABLES);
+        final var patterns = context.get(EmitPass.PATTERNS);
+        final var tablesByName = new HashMap<String, ModeTable>();
+        for (final var table : tables) {
+            tablesByName.put(table.name(), table);
+        }
+        final var namespace = config.getNamespace(parserGrammar.getName());
+        final var root = JSONUtils.createObject();
+        root.put("name", parserGrammar.getName());
+        root.put("scopeName", STR."source.\{namespace}");
+        root.putArray("patterns").addObject().put("include", STR."#\{LexerRuleNode.DEFAULT_MODE}");
+        final var repository = root.putObject("repository");
+        for (final var table : tables) { // Every mode becomes a repository entry, which is only included where needed
+            final var tablePatterns = repository.putObject(table.name()).putArray("patterns");
+            for (final var rule : table.getInnerRules()) {
+                final var pattern = patterns.get(rule.name());
+                if (pattern == null || pattern.isEmpty()) {
+                    continue; // Empty matches never advance, so the highlighter would get stuck
+                }
+                final var type = config.getTokenType(table.name(), rule.name());
+                final var entry = tablePatterns.addObject();
+                entry.put("name", STR."\{TOKEN_TYPES.get(type != null ? type : TokenType.TEXT)}.\{namespace}");
+                final var action = rule.getTargetAction();
+                final var target = action != null ? tablesByName.get(action.name()) : null;
+                if (target == null || target == table || target.getEndRules().isEmpty()) {
+                    entry.put("match", pattern);
+                    continue;
+                }
+                // Entering a mode and leaving it again, by popping it or by setting the mode back,
+                // maps to a begin/end pair which only includes that mode
+                entry.put("begin", pattern);
+                entry.put("end", joinPatterns(patterns, target.getEndRules()));
+                entry.putArray("patterns").addObject().put("include", STR."#\{target.name()}");
+            }
+        }
+        DataUtils.writeFully(channel, JSONUtils.writeValueAsPrettyBytes(root));
+    }
+
+    private static String joinPatterns(final Map<String, String> patterns, final List<ModeTable.Rule> rules) {
+        if (rules.size() == 1) {
+            return patterns.get(rules.getFirst().name());
         }
-        for (final NamedNode node : nodes) {
-            final var builder = new StringBuilder();
-            node.compileRegex(builder);
-            System.out.println(STR."\{node.getName()}: \{builder}");
+        final var builder = new StringBuilder("(?:");
+        for (var i = 0; i < rules.size(); i++) {
+            if (i > 0) {
+                builder.append('|');
+            }
+            builder.append(patterns.get(rules.get(i).name()));
         }
+        return builder.append(')').toString();
     }
 }
@@ -15,15 +15,13 @@
 
 package io.karma.ferrous.osmium.grammar;
 
-import io.karma.ferrous.osmium.grammar.node.GrammarNode;
-import io.karma.ferrous.osmium.grammar.node.NamedNode;
+import io.karma.ferrous.osmium.grammar.node.*;
+import it.unimi.dsi.fastutil.ints.IntOpenHashSet;
+import it.unimi.dsi.fastutil.ints.IntSet;
 import org.apiguardian.api.API;
 import org.jetbrains.annotations.Nullable;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.LinkedHashMap;
-import java.util.List;
+import java.util.*;
 
 /**
  * @author Alexander Hinze
@@ -32,8 +30,12 @@ import java.util.List;
 @API(status = API.Status.INTERNAL)
 public abstract class AbstractGrammar implements Grammar {
     protected final String name;
-    protected final LinkedHashMap<String, NamedNode> nodes = new LinkedHashMap<>();
+    protected final SymbolTable symbols = new SymbolTable();
     protected final GrammarNode rootNode = new GrammarNode();
+    protected final DependencyIndex dependencyIndex = new DependencyIndex(symbols);
+    private final ArrayList<NamedNode> nodesById = new ArrayList<>(); // Null for names which aren't defined
+    private final ArrayList<NamedNode> nodes = new ArrayList<>(); // In order of definition
+    private final List<NamedNode> nodeView = Collections.unmodifiableList(nodes);
 
     protected AbstractGrammar(final String name) {
         this.name = name;
@@ -41,20 +43,139 @@ public abstract class AbstractGrammar implements Grammar {
 
     public void addNodes(final List<? extends NamedNode> nodes) {
         for (final var node : nodes) {
-            this.nodes.put(node.getName(), node);
+            putNode(node);
         }
     }
 
     public void addNode(final NamedNode node) {
-        nodes.put(node.getName(), node);
+        putNode(node);
     }
 
     public void removeNode(final NamedNode node) {
-        nodes.remove(node.getName());
+        final var id = symbols.getId(node.getName());
+        if (id == -1 || id >= nodesById.size()) {
+            return;
+        }
+        final var removedNode = nodesById.set(id, null);
+        if (removedNode == null) {
+            return;
+        }
+        nodes.remove(removedNode);
+        dependencyIndex.remove(id);
+    }
+
+    /**
+     * Replaces all nodes of this grammar with the given ones, in their given order.
+     */
+    protected void setNodes(final List<? extends NamedNode> nodes) {
+        this.nodes.clear();
+        Collections.fill(nodesById, null);
+        dependencyIndex.clear();
+        for (final var node : nodes) {
+            putNode(node);
+        }
+    }
+
+    private void putNode(final NamedNode node) {
+        final var id = symbols.getOrCreateId(node.getName());
+        while (nodesById.size() <= id) {
+            nodesById.add(null);
+        }
+        final var replacedNode = nodesById.set(id, node);
+        if (replacedNode != null) {
+            nodes.set(nodes.indexOf(replacedNode), node);
+        }
+        else {
+            nodes.add(node);
+        }
+        dependencyIndex.put(id, bindReferences(node));
+    }
+
+    /**
+     * Assigns the id of the referenced rule to every reference in the given rule, so references can be
+     * resolved without looking up their name. Works on resolved rules as well, since resolving only
+     * replaces references with the rules they refer to, or with self references which keep the name of the rule.
+     *
+     * @return the ids of all rules referenced by the given rule, without descending into other rules.
+     */
+    private IntSet bindReferences(final NamedNode rule) {
+        final var ids = new IntOpenHashSet();
+        final var visited = Collections.newSetFromMap(new IdentityHashMap<Node, Boolean>());
+        final var queue = new ArrayDeque<Node>();
+        queue.add(rule);
+        while (!queue.isEmpty()) {
+            final var node = queue.poll();
+            if (!visited.add(node) || !(node instanceof ContainerNode container)) {
+                continue;
+            }
+            for (final var child : container.getChildren()) {
+                if (child instanceof ReferenceNode reference) {
+                    reference.setId(symbols.getOrCreateId(reference.getName()));
+                    ids.add(reference.getId());
+                    continue;
+                }
+                if (child.isNamed()) {
+                    ids.add(symbols.getOrCreateId(((NamedNode) child).getName()));
+                    continue;
+                }
+                if (child instanceof SelfReferenceNode selfRef && selfRef.getName() != null) {
+                    ids.add(symbols.getOrCreateId(selfRef.getName()));
+                    continue;
+                }
+                queue.add(child);
+            }
+        }
+        return ids;
+    }
+
+    public SymbolTable getSymbols() {
+        return symbols;
+    }
+
+    public DependencyIndex getDependencyIndex() {
+        return dependencyIndex;
+    }
+
+    /**
+     * @return the names of all rules of this grammar which refer to the given rule directly.
+     */
+    public Set<String> getDependents(final String name) {
+        return dependencyIndex.getDependents(name);
+    }
+
+    /**
+     * @return the given rules and all rules of this grammar which refer to one of them, directly or transitively.
+     */
+    public Set<String> getTransitiveDependents(final Collection<String> names) {
+        return dependencyIndex.getTransitiveDependents(names);
+    }
+
+    /**
+     * @return all fragments which are not referred to by any rule of this grammar.
+     */
+    public List<NamedNode> getUnusedFragments() {
+        final var result = new ArrayList<NamedNode>();
+        for (final var node : nodes) {
+            if (node.getType() == NodeType.FRAGMENT && !dependencyIndex.isReferenced(symbols.getId(node.getName()))) {
+                result.add(node);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return the node with the given id in the symbol table of this grammar, or null if it isn't defined.
+     */
+    public @Nullable NamedNode getNode(final int id) {
+        return id >= 0 && id < nodesById.size() ? nodesById.get(id) : null;
     }
 
     public @Nullable NamedNode getNode(final String name) {
-        return nodes.get(name);
+        return getNode(symbols.getId(name));
+    }
+
+    public boolean hasNode(final String name) {
+        return getNode(name) != null;
     }
 
     @Override
@@ -64,7 +185,7 @@ public abstract class AbstractGrammar implements Grammar {
 
     @Override
     public List<NamedNode> getNodes() {
-        return new ArrayList<>(nodes.values());
+        return nodeView;
     }
 
     @Override
@@ -0,0 +1,405 @@
+/*
+ * Copyright 2023 Karma Krafts & associates
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.karma.ferrous.osmium.grammar;
+
+import io.karma.ferrous.osmium.grammar.node.*;
+import io.karma.ferrous.osmium.util.CodePointSet;
+import io.karma.ferrous.osmium.util.RegexDialect;
+import org.apiguardian.api.API;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Finds repeated nodes which may backtrack catastrophically, because their body
+ * can match the empty string, is repeated itself, or consists of alternatives
+ * which can start with the same character, like {@code (a*)*} or {@code (a|ab)*}.
+ * <p>
+ * A possessive repetition never gives characters back, which is only equivalent
+ * to the original repetition if giving characters back can never let the rest of the pattern match.
+ * That is proven for repetitions whose body only matches runs of single characters,
+ * none of which can follow the repetition in any place the node is used at.
+ * If the target dialect supports possessive quantifiers, those repetitions are reported as possessive,
+ * a warning is emitted for all other risky repetitions. The node tree is never modified,
+ * since its nodes are shared between rules, grammars and the pipelines of all generators.
+ *
+ * @author Alexander Hinze
+ * @since 17/10/2026
+ */
+@API(status = API.Status.INTERNAL)
+public final class BacktrackingAnalyzer {
+    private final RegexDialect dialect;
+    private final Set<Node> visitedNodes = Collections.newSetFromMap(new IdentityHashMap<>());
+    private final Set<Node> activeNullableNodes = Collections.newSetFromMap(new IdentityHashMap<>());
+    private final Set<Node> activeFirstNodes = Collections.newSetFromMap(new IdentityHashMap<>());
+    private final IdentityHashMap<Node, Boolean> nullableNodes = new IdentityHashMap<>();
+    private final IdentityHashMap<Node, CodePointSet> firstChars = new IdentityHashMap<>();
+    private final IdentityHashMap<Node, CodePointSet> followChars = new IdentityHashMap<>();
+    private final ArrayList<UnaryOpNode> riskyNodes = new ArrayList<>();
+    private final ArrayList<NamedNode> riskyRules = new ArrayList<>();
+
+    private BacktrackingAnalyzer(final RegexDialect dialect) {
+        this.dialect = dialect;
+    }
+
+    /**
+     * Analyzes all rules of the given grammar and the rules of other grammars they refer to.
+     * For parser grammars, their lexer grammar is analyzed, since only lexer rules become patterns.
+     *
+     * @param grammar the resolved grammar to analyze.
+     * @param dialect the dialect the patterns of the grammar are emitted for.
+     * @return the risky repetitions and the ones among them which can be made possessive.
+     */
+    public static Result analyze(final Grammar grammar, final RegexDialect dialect) {
+        var lexerGrammar = grammar;
+        if (grammar instanceof ParserGrammar parserGrammar) {
+            lexerGrammar = parserGrammar.getLexerGrammar();
+            if (lexerGrammar == null) {
+                return new Result(0, Set.of());
+            }
+        }
+        final var analyzer = new BacktrackingAnalyzer(dialect);
+        for (final var node : lexerGrammar.getNodes()) {
+            if (node instanceof ContainerNode container) {
+                for (final var child : container.getChildren()) {
+                    analyzer.findRiskyNodes(node, child);
+                }
+            }
+        }
+        return new Result(analyzer.riskyNodes.size(), analyzer.findPossessiveNodes(lexerGrammar));
+    }
+
+    /**
+     * Finds the rules which have to be emitted again if the given nodes are emitted differently,
+     * like repetitions which are no longer possessive after another rule using them changed.
+     *
+     * @return the names of all rules of the given grammar whose own body contains one of the given nodes,
+     * not counting the bodies of other rules they refer to.
+     */
+    public static Set<String> findRules(final Grammar grammar, final Set<? extends Node> nodes) {
+        final var result = new LinkedHashSet<String>();
+        final var queue = new ArrayDeque<Node>();
+        for (final var rule : grammar.getNodes()) {
+            final var visited = Collections.newSetFromMap(new IdentityHashMap<Node, Boolean>());
+            queue.add(rule);
+            while (!queue.isEmpty()) {
+                final var node = queue.poll();
+                if (nodes.contains(node)) {
+                    result.add(rule.getName());
+                    queue.clear();
+                    break;
+                }
+                if (!(node instanceof ContainerNode container) || !visited.add(node)) {
+                    continue;
+                }
+                for (final var child : container.getChildren()) {
+                    if (!child.isNamed()) {
+                        queue.add(child);
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    // Walks the body of a single rule, other rules are analyzed on their own
+    private void findRiskyNodes(final NamedNode rule, final Node node) {
+        if (node.isNamed() || !(node instanceof ContainerNode container) || !visitedNodes.add(node)) {
+            return;
+        }
+        for (final var child : container.getChildren()) {
+            findRiskyNodes(rule, child);
+        }
+        if (node instanceof UnaryOpNode unaryOp && isRisky(unaryOp)) {
+            riskyNodes.add(unaryOp);
+            riskyRules.add(rule);
+        }
+    }
+
+    private Set<UnaryOpNode> findPossessiveNodes(final Grammar grammar) {
+        final var possessiveNodes = Collections.newSetFromMap(new IdentityHashMap<UnaryOpNode, Boolean>());
+        if (dialect.isPossessiveSupported() && !riskyNodes.isEmpty()) {
+            computeFollowChars(grammar);
+        }
+        for (var i = 0; i < riskyNodes.size(); i++) {
+            final var node = riskyNodes.get(i);
+            if (dialect.isPossessiveSupported() && isPossessiveSafe(node)) {
+                possessiveNodes.add(node);
+                continue;
+            }
+            // @formatter:off
+            System.err.println(STR."Rule \{riskyRules.get(i).getName()} contains a repetition "
+                + "which may backtrack catastrophically");
+            // @formatter:on
+        }
+        return Collections.unmodifiableSet(possessiveNodes);
+    }
+
+    private boolean isPossessiveSafe(final UnaryOpNode node) {
+        final var chars = getRunChars(node.getNode());
+        final var follow = followChars.get(node);
+        return chars != null && follow != null && chars.intersection(follow).isEmpty();
+    }
+
+    /**
+     * Computes the characters which may directly follow every container node in any place it is used at,
+     * until no set grows anymore. The end of a top level rule is followed by nothing,
+     * the end of any other rule by everything which follows it where it is referenced.
+     */
+    private void computeFollowChars(final Grammar grammar) {
+        final var queue = new ArrayDeque<Node>();
+        for (final var node : grammar.getNodes()) {
+            addFollowChars(queue, node, CodePointSet.EMPTY);
+        }
+        while (!queue.isEmpty()) {
+            final var node = queue.poll();
+            final var follow = followChars.get(node);
+            switch (node) {
+                case UnaryOpNode unaryOp -> {
+                    final var body = unaryOp.getNode();
+                    addFollowChars(queue, body, switch (unaryOp.getOp()) {
+                        case ZERO_OR_MORE, ONE_OR_MORE -> getFirstChars(body).union(follow); // The next iteration
+                        case ZERO_OR_ONE -> follow;
+                        case MATCH_UNTIL -> CodePointSet.ALL; // Never contains repetitions of its own
+                    });
+                }
+                case AltListNode altList -> {
+                    for (final var child : altList.getChildren()) {
+                        addFollowChars(queue, child, follow);
+                    }
+                }
+                case NotSetNode ignored -> {
+                }
+                case ContainerNode container -> { // Sequences and named nodes match their children in order
+                    final var children = container.getChildren();
+                    var next = follow;
+                    for (var i = children.size() - 1; i >= 0; i--) {
+                        final var child = children.get(i);
+                        addFollowChars(queue, child, next);
+                        final var childFirst = getFirstChars(child);
+                        next = isNullable(child) ? childFirst.union(next) : childFirst;
+                    }
+                }
+                default -> {
+                }
+            }
+        }
+    }
+
+    private void addFollowChars(final ArrayDeque<Node> queue, final Node node, final CodePointSet chars) {
+        if (!(node instanceof ContainerNode)) {
+            return;
+        }
+        final var current = followChars.get(node);
+        final var follow = current == null ? chars : current.union(chars);
+        if (current == null || !current.equals(follow)) {
+            followChars.put(node, follow);
+            queue.add(node);
+        }
+    }
+
+    /**
+     * @return the characters matched by the given repetition body if every match of it
+     * is a run of single characters, which a greedy repetition always extends as far as possible,
+     * otherwise null.
+     */
+    private static @Nullable CodePointSet getRunChars(final Node node) {
+        final var body = unwrap(node);
+        final var chars = getSingleChars(body);
+        if (chars != null || !(body instanceof UnaryOpNode unaryOp) || !body.getModeActions().isEmpty()) {
+            return chars;
+        }
+        return switch (unaryOp.getOp()) {
+            case ZERO_OR_MORE, ONE_OR_MORE -> getRunChars(unaryOp.getNode());
+            default -> null;
+        };
+    }
+
+    // Returns the characters of a node which always matches exactly one character, or null
+    private static @Nullable CodePointSet getSingleChars(final Node node) {
+        if (!node.getModeActions().isEmpty()) {
+            return null;
+        }
+        final var chars = CharSets.toSet(node);
+        if (chars != null) {
+            return chars;
+        }
+        return switch (node) {
+            case AnyMatchNode ignored -> CodePointSet.ALL;
+            case RawRangeNode ignored -> CodePointSet.ALL; // Sets like unicode properties
+            case UnaryOpNode unaryOp when unaryOp.getOp() == UnaryOpNode.Op.MATCH_UNTIL -> CodePointSet.ALL;
+            case AltListNode altList -> {
+                var result = CodePointSet.EMPTY;
+                for (final var child : altList.getChildren()) {
+                    final var childChars = getSingleChars(unwrap(child));
+                    if (childChars == null) {
+                        yield null;
+                    }
+                    result = result.union(childChars);
+                }
+                yield result;
+            }
+            default -> null;
+        };
+    }
+
+    private boolean isRisky(final UnaryOpNode node) {
+        final var op = node.getOp();
+        if (op != UnaryOpNode.Op.ZERO_OR_MORE && op != UnaryOpNode.Op.ONE_OR_MORE) {
+            return false;
+        }
+        final var body = unwrap(node.getNode());
+        if (isNullable(body)) {
+            return true; // The loop may match the empty string in many different ways
+        }
+        if (body instanceof UnaryOpNode nested && nested.getOp() != UnaryOpNode.Op.MATCH_UNTIL) {
+            return true; // Nested quantifier like (a+)+
+        }
+        if (!(body instanceof AltListNode altList)) {
+            return false;
+        }
+        // Alternatives which can start with the same character can split the input in many ways
+        var firstChars = CodePointSet.EMPTY;
+        for (final var alternative : altList.getChildren()) {
+            final var alternativeChars = getFirstChars(alternative);
+            if (!firstChars.intersection(alternativeChars).isEmpty()) {
+                return true;
+            }
+            firstChars = firstChars.union(alternativeChars);
+        }
+        return false;
+    }
+
+    // Strips containers which only wrap a single node and add nothing to the pattern
+    private static Node unwrap(Node node) {
+        while ((node instanceof SequenceNode || node instanceof AltListNode || node instanceof FragmentNode)
+            && ((ContainerNode) node).getChildCount() == 1) {
+            node = ((ContainerNode) node).getChildren().getFirst();
+        }
+        return node;
+    }
+
+    private boolean isNullable(final Node node) {
+        final var cached = nullableNodes.get(node);
+        if (cached != null) {
+            return cached;
+        }
+        final var isOutermost = activeNullableNodes.isEmpty();
+        if (!activeNullableNodes.add(node)) {
+            return false; // Recursive rules are assumed to consume input
+        }
+        try {
+            final var result = switch (node) {
+                case TextNode text -> text.getText().isEmpty();
+                case UnaryOpNode unaryOp -> switch (unaryOp.getOp()) {
+                    case ZERO_OR_MORE, ZERO_OR_ONE -> true;
+                    case ONE_OR_MORE -> isNullable(unaryOp.getNode());
+                    case MATCH_UNTIL -> false;
+                };
+                case AltListNode altList -> {
+                    for (final var child : altList.getChildren()) {
+                        if (isNullable(child)) {
+                            yield true;
+                        }
+                    }
+                    yield false;
+                }
+                case NotSetNode ignored -> false;
+                case ContainerNode container -> { // Sequences and named nodes match their children in order
+                    for (final var child : container.getChildren()) {
+                        if (!isNullable(child)) {
+                            yield false;
+                        }
+                    }
+                    yield true;
+                }
+                // References which could not be resolved compile to nothing
+                case ReferenceNode ignored -> true;
+                case SelfReferenceNode ignored -> true;
+                default -> false;
+            };
+            if (isOutermost) { // Results within a cycle depend on the node the cycle was entered at
+                nullableNodes.put(node, result);
+            }
+            return result;
+        }
+        finally {
+            activeNullableNodes.remove(node);
+        }
+    }
+
+    private CodePointSet getFirstChars(final Node node) {
+        final var cached = firstChars.get(node);
+        if (cached != null) {
+            return cached;
+        }
+        final var isOutermost = activeFirstNodes.isEmpty();
+        if (!activeFirstNodes.add(node)) {
+            return CodePointSet.ALL; // Recursive rules could start with anything
+        }
+        try {
+            final var singleChars = CharSets.toSet(node);
+            final var result = singleChars != null ? singleChars : switch (node) {
+                case TextNode text -> {
+                    final var literal = CharSets.decodeLiteral(text.getText());
+                    yield literal == null || literal.isEmpty()
+                        ? CodePointSet.ALL
+                        : CodePointSet.of(literal.codePointAt(0));
+                }
+                case UnaryOpNode unaryOp -> unaryOp.getOp() == UnaryOpNode.Op.MATCH_UNTIL
+                    ? CodePointSet.ALL
+                    : getFirstChars(unaryOp.getNode());
+                case AltListNode altList -> {
+                    var chars = CodePointSet.EMPTY;
+                    for (final var child : altList.getChildren()) {
+                        chars = chars.union(getFirstChars(child));
+                    }
+                    yield chars;
+                }
+                case ContainerNode container -> {
+                    var chars = CodePointSet.EMPTY;
+                    for (final var child : container.getChildren()) {
+                        chars = chars.union(getFirstChars(child));
+                        if (!isNullable(child)) {
+                            break;
+                        }
+                    }
+                    yield chars;
+                }
+                default -> CodePointSet.ALL;
+            };
+            if (isOutermost) {
+                firstChars.put(node, result);
+            }
+            return result;
+        }
+        finally {
+            activeFirstNodes.remove(node);
+        }
+    }
+
+    /**
+     * @param riskyCount      the number of repetitions which may backtrack catastrophically.
+     * @param possessiveNodes the risky repetitions which can be emitted as possessive repetitions.
+     */
+    public record Result(int riskyCount, Set<UnaryOpNode> possessiveNodes) {
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ * Copyright 2023 Karma Krafts & associates
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.karma.ferrous.osmium.grammar;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.ints.IntCollection;
+import it.unimi.dsi.fastutil.ints.IntOpenHashSet;
+import it.unimi.dsi.fastutil.ints.IntSet;
+import it.unimi.dsi.fastutil.ints.IntSets;
+import org.apiguardian.api.API;
+
+import java.util.*;
+
+/**
+ * Index of the references between the rules of a grammar in both directions,
+ * so the rules using a given rule can be looked up without scanning any node tree.
+ * Rules are identified by their id in the {@link SymbolTable} of the grammar.
+ *
+ * @author Alexander Hinze
+ * @since 17/10/2026
+ */
+@API(status = API.Status.INTERNAL)
+public final class DependencyIndex {
+    private final SymbolTable symbols;
+    private final ArrayList<IntOpenHashSet> dependencies = new ArrayList<>();
+    private final ArrayList<IntOpenHashSet> dependents = new ArrayList<>();
+
+    public DependencyIndex(final SymbolTable symbols) {
+        this.symbols = symbols;
+    }
+
+    private void ensureCapacity(final int id) {
+        while (dependencies.size() <= id) {
+            dependencies.add(new IntOpenHashSet());
+            dependents.add(new IntOpenHashSet());
+        }
+    }
+
+    /**
+     * Replaces all references of the given rule with the given ones.
+     */
+    public void put(final int id, final IntCollection refIds) {
+        ensureCapacity(id);
+        remove(id);
+        final var ruleDependencies = dependencies.get(id);
+        final var iterator = refIds.iterator();
+        while (iterator.hasNext()) {
+            final var refId = iterator.nextInt();
+            ensureCapacity(refId);
+            ruleDependencies.add(refId);
+            dependents.get(refId).add(id);
+        }
+    }
+
+    public void remove(final int id) {
+        if (id >= dependencies.size()) {
+            return;
+        }
+        final var ruleDependencies = dependencies.get(id);
+        final var iterator = ruleDependencies.iterator();
+        while (iterator.hasNext()) {
+            dependents.get(iterator.nextInt()).remove(id);
+        }
+        ruleDependencies.clear();
+    }
+
+    public void clear() {
+        for (final var ruleDependencies : dependencies) {
+            ruleDependencies.clear();
+        }
+        for (final var ruleDependents : dependents) {
+            ruleDependents.clear();
+        }
+    }
+
+    /**
+     * @return the ids of all rules which the given rule refers to directly.
+     */
+    public IntSet getDependencies(final int id) {
+        return id < dependencies.size() ? IntSets.unmodifiable(dependencies.get(id)) : IntSets.EMPTY_SET;
+    }
+
+    /**
+     * @return the ids of all rules which refer to the given rule directly.
+     */
+    public IntSet getDependents(final int id) {
+        return id < dependents.size() ? IntSets.unmodifiable(dependents.get(id)) : IntSets.EMPTY_SET;
+    }
+
+    public Set<String> getDependencies(final String name) {
+        final var id = symbols.getId(name);
+        return id == -1 ? Collections.emptySet() : toNames(getDependencies(id));
+    }
+
+    public Set<String> getDependents(final String name) {
+        final var id = symbols.getId(name);
+        return id == -1 ? Collections.emptySet() : toNames(getDependents(id));
+    }
+
+    public boolean isReferenced(final int id) {
+        return !getDependents(id).isEmpty();
+    }
+
+    /**
+     * @return the given rules and all rules which refer to one of them, directly or transitively.
+     */
+    public Set<String> getTransitiveDependents(final Collection<String> names) {
+        final var visited = new IntOpenHashSet();
+        final var queue = new IntArrayList();
+        final var result = new LinkedHashSet<>(names);
+        for (final var name : names) {
+            final var id = symbols.getId(name);
+            if (id != -1 && visited.add(id)) {
+                queue.add(id);
+            }
+        }
+        while (!queue.isEmpty()) {
+            final var id = queue.removeInt(queue.size() - 1);
+            final var iterator = getDependents(id).iterator();
+            while (iterator.hasNext()) {
+                final var dependent = iterator.nextInt();
+                if (visited.add(dependent)) {
+                    result.add(symbols.getName(dependent));
+                    queue.add(dependent);
+                }
+            }
+        }
+        return result;
+    }
+
+    private Set<String> toNames(final IntSet ids) {
+        final var result = new LinkedHashSet<String>(ids.size());
+        final var iterator = ids.iterator();
+        while (iterator.hasNext()) {
+            result.add(symbols.getName(iterator.nextInt()));
+        }
+        return result;
+    }
+}
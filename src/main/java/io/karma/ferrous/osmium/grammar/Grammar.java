@@ -17,8 +17,10 @@ package io.karma.ferrous.osmium.grammar;
 
 import io.karma.ferrous.osmium.grammar.node.NamedNode;
 import org.apiguardian.api.API;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.List;
+import java.util.Set;
 
 /**
  * @author Alexander Hinze
@@ -30,11 +32,26 @@ public interface Grammar {
         return this;
     }
 
+    /**
+     * Applies the given, newly parsed version of this resolved grammar in place,
+     * so only rules which changed and the rules depending on them have to be resolved again.
+     *
+     * @param edited the newly parsed, unresolved version of this grammar.
+     * @return the names of all rules whose pattern may have changed,
+     * or null if the edit can't be applied and the new version has to be used as a whole.
+     */
+    default @Nullable Set<String> update(final Grammar edited) {
+        return null;
+    }
+
     String getName();
 
     GrammarType getType();
 
     List<Grammar> getImports();
 
+    /**
+     * @return an unmodifiable view of all named nodes of this grammar, in order of their definition.
+     */
     List<NamedNode> getNodes();
 }
@@ -16,10 +16,13 @@
 package io.karma.ferrous.osmium.grammar;
 
 import io.karma.ferrous.osmium.grammar.node.ContainerNode;
+import io.karma.ferrous.osmium.grammar.node.LexerRuleNode;
+import io.karma.ferrous.osmium.grammar.node.NamedNode;
+import io.karma.ferrous.osmium.grammar.node.SelfReferenceNode;
 import org.apiguardian.api.API;
+import org.jetbrains.annotations.Nullable;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.*;
 
 /**
  * @author Alexander Hinze
@@ -28,6 +31,8 @@ import java.util.List;
 @API(status = API.Status.INTERNAL)
 public final class LexerGrammar extends AbstractGrammar {
     private final ArrayList<Grammar> imports = new ArrayList<>();
+    private final HashMap<String, String> ruleSources = new HashMap<>();
+    private final RuleScope scope = new RuleScope(this);
     private boolean isResolved;
 
     public LexerGrammar(final String name) {
@@ -42,19 +47,138 @@ public final class LexerGrammar extends AbstractGrammar {
         for (final var _import : imports) { // First resolve all imported grammars
             _import.resolve();
         }
-        final var nodes = this.nodes.values();
-        for (final var node : nodes) {
-            if (!(node instanceof ContainerNode container)) {
+        scope.invalidate();
+        resolveRules(getNodes());
+        isResolved = true;
+        return this;
+    }
+
+    /**
+     * Diffs the given grammar against this one at the rule level, using the source text of every rule.
+     * Changed rules and all rules which depend on them, directly or transitively, are taken
+     * from the given grammar and resolved again, all other rules stay as they are.
+     * Imported grammars are updated the same way.
+     */
+    @Override
+    public @Nullable Set<String> update(final Grammar edited) {
+        if (!isResolved || !(edited instanceof LexerGrammar lexerGrammar) || !name.equals(edited.getName())) {
+            return null;
+        }
+        if (edited == this) {
+            return Set.of(); // Handed out again by a session which kept it, since its file didn't change
+        }
+        if (!hasRuleSources() || !lexerGrammar.hasRuleSources() || imports.size() != lexerGrammar.imports.size()) {
+            return null; // Grammars read from the cache don't know the sources of their rules
+        }
+        final var changedRules = new LinkedHashSet<String>();
+        for (var i = 0; i < imports.size(); i++) {
+            final var _import = imports.get(i);
+            final var importChangedRules = _import.update(lexerGrammar.imports.get(i));
+            if (importChangedRules == null) {
+                return null;
+            }
+            changedRules.addAll(importChangedRules);
+        }
+        scope.invalidate(); // Imported rules may have been replaced
+        for (final var node : lexerGrammar.getNodes()) {
+            final var ruleName = node.getName();
+            if (!lexerGrammar.ruleSources.get(ruleName).equals(ruleSources.get(ruleName))) {
+                changedRules.add(ruleName);
+            }
+        }
+        for (final var node : getNodes()) {
+            if (!lexerGrammar.hasNode(node.getName())) {
+                changedRules.add(node.getName()); // Rules referring to removed rules can't be resolved anymore
+            }
+        }
+        // Unchanged rules refer to the same rules in both versions, so the edited version knows all dependents
+        final var affectedRules = lexerGrammar.getTransitiveDependents(changedRules);
+        final var mergedNodes = new ArrayList<NamedNode>(lexerGrammar.getNodes().size());
+        for (final var node : lexerGrammar.getNodes()) {
+            final var ruleName = node.getName();
+            final var previousNode = getNode(ruleName);
+            mergedNodes.add(affectedRules.contains(ruleName) || previousNode == null ? node : previousNode);
+        }
+        setNodes(mergedNodes);
+        ruleSources.clear();
+        ruleSources.putAll(lexerGrammar.ruleSources);
+        // @formatter:off
+        resolveRules(affectedRules.stream()
+            .map(this::getNode)
+            .filter(Objects::nonNull)
+            .toList());
+        // @formatter:on
+        return affectedRules;
+    }
+
+    // Resolves components level by level, where every component only depends on earlier levels
+    private void resolveRules(final Collection<NamedNode> rules) {
+        final var graph = new RuleGraph(rules, symbols, dependencyIndex);
+        for (final var level : graph.getLevels()) {
+            final var components = level.size() > 1 ? level.parallelStream() : level.stream();
+            components.forEach(component -> resolveComponent(graph, component));
+        }
+    }
+
+    private void resolveComponent(final RuleGraph graph, final List<NamedNode> component) {
+        for (final var rule : component) {
+            if (!(rule instanceof ContainerNode container)) {
                 continue;
             }
-            container.resolve(node, this.nodes);
+            final var ruleId = symbols.getId(rule.getName());
+            container.resolve(reference -> {
+                final var refId = reference.getId();
+                final var refNode = getNode(refId);
+                if (refNode == null) {
+                    return scope.lookupImported(reference.getName()); // Imports can't refer back to this grammar
+                }
+                if (graph.isBackReference(ruleId, refId)) {
+                    // Direct and mutual recursion can't be expressed in a regex, so cut the cycle
+                    return new SelfReferenceNode(reference.getName());
+                }
+                return refNode;
+            });
         }
-        isResolved = true;
-        return this;
+    }
+
+    private boolean hasRuleSources() {
+        for (final var node : getNodes()) {
+            if (!ruleSources.containsKey(node.getName())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public void setRuleSource(final String ruleName, final String source) {
+        ruleSources.put(ruleName, source);
     }
 
     public void addImports(final List<LexerGrammar> imports) {
         this.imports.addAll(imports);
+        scope.invalidate();
+    }
+
+    /**
+     * @return all lexer rules of this grammar grouped by the mode they are defined in,
+     * starting with the default mode, in order of their definition.
+     */
+    public Map<String, List<LexerRuleNode>> getModes() {
+        final var modes = new LinkedHashMap<String, List<LexerRuleNode>>();
+        modes.put(LexerRuleNode.DEFAULT_MODE, new ArrayList<>());
+        for (final var node : getNodes()) {
+            if (node instanceof LexerRuleNode rule) {
+                modes.computeIfAbsent(rule.getMode(), key -> new ArrayList<>()).add(rule);
+            }
+        }
+        return modes;
+    }
+
+    /**
+     * @return the scope of all rules visible to this grammar, including the ones of its imports.
+     */
+    public RuleScope getScope() {
+        return scope;
     }
 
     @Override
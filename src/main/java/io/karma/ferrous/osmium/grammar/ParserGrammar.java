@@ -18,6 +18,8 @@ package io.karma.ferrous.osmium.grammar;
 import org.apiguardian.api.API;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.Set;
+
 /**
  * @author Alexander Hinze
  * @since 20/12/2023
@@ -41,6 +43,23 @@ public final class ParserGrammar extends AbstractGrammar {
         return this;
     }
 
+    @Override
+    public @Nullable Set<String> update(final Grammar edited) {
+        if (!isResolved || !(edited instanceof ParserGrammar parserGrammar) || !name.equals(edited.getName())) {
+            return null;
+        }
+        final var editedLexerGrammar = parserGrammar.lexerGrammar;
+        if (lexerGrammar == null || editedLexerGrammar == null) {
+            return null;
+        }
+        final var changedRules = lexerGrammar.update(editedLexerGrammar);
+        if (changedRules == null) {
+            return null;
+        }
+        setNodes(parserGrammar.getNodes()); // Parser rules are never resolved, so they are simply replaced
+        return changedRules;
+    }
+
     public @Nullable LexerGrammar getLexerGrammar() {
         return lexerGrammar;
     }
@@ -0,0 +1,194 @@
+/*
+ * Copyright 2023 Karma Krafts & associates
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.karma.ferrous.osmium.grammar;
+
+import io.karma.ferrous.osmium.grammar.node.NamedNode;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import org.apiguardian.api.API;
+
+import java.util.*;
+
+/**
+ * Dependency graph between the given rules of a single grammar, built from its {@link DependencyIndex}.
+ * References to rules which aren't part of the graph are ignored.
+ * Rules are grouped into strongly connected components, so every component is either a single
+ * non-recursive rule or a set of rules which (mutually) refer to each other. Components are
+ * grouped into levels in topological order, so every component only depends on components
+ * of earlier levels and all components of a level can be resolved independently.
+ * Everything is computed iteratively, so deep rule chains can't overflow the stack.
+ *
+ * @author Alexander Hinze
+ * @since 17/10/2026
+ */
+@API(status = API.Status.INTERNAL)
+public final class RuleGraph {
+    private final List<NamedNode> rules;
+    private final int[] ruleIndices; // Index of every rule in this graph by its symbol id, or -1
+    private final int[][] edges;
+    private final int[] components;
+    private final int[] positions; // Depth-first discovery order of every rule, which orders each component
+    private final ArrayList<List<NamedNode>> componentRules = new ArrayList<>();
+    private final ArrayList<IntArrayList> componentMembers = new ArrayList<>();
+    private final ArrayList<List<List<NamedNode>>> levels = new ArrayList<>();
+
+    public RuleGraph(final Collection<NamedNode> rules, final SymbolTable symbols, final DependencyIndex index) {
+        this.rules = List.copyOf(rules);
+        final var ruleIds = new int[this.rules.size()];
+        ruleIndices = new int[symbols.size()];
+        Arrays.fill(ruleIndices, -1);
+        for (var i = 0; i < ruleIds.length; i++) {
+            ruleIds[i] = symbols.getId(this.rules.get(i).getName());
+            if (ruleIds[i] == -1) {
+                throw new IllegalStateException(STR."Rule \{this.rules.get(i).getName()} is not part of the grammar");
+            }
+            ruleIndices[ruleIds[i]] = i;
+        }
+        edges = new int[this.rules.size()][];
+        for (var i = 0; i < edges.length; i++) {
+            final var targets = new IntArrayList();
+            final var iterator = index.getDependencies(ruleIds[i]).iterator();
+            while (iterator.hasNext()) {
+                final var target = getIndex(iterator.nextInt());
+                if (target != -1) {
+                    targets.add(target);
+                }
+            }
+            edges[i] = targets.toIntArray();
+        }
+        components = new int[edges.length];
+        positions = new int[edges.length];
+        computeComponents();
+        computeLevels();
+    }
+
+    private int getIndex(final int id) {
+        return id >= 0 && id < ruleIndices.length ? ruleIndices[id] : -1;
+    }
+
+    // Iterative variant of Tarjan's algorithm, which emits components in reverse topological order
+    private void computeComponents() {
+        final var count = edges.length;
+        final var indices = new int[count];
+        final var lowLinks = new int[count];
+        final var isOnStack = new boolean[count];
+        final var stack = new IntArrayList();
+        final var callStack = new IntArrayList(); // Pairs of rule and next edge
+        Arrays.fill(indices, -1);
+        var nextIndex = 0;
+        for (var root = 0; root < count; root++) {
+            if (indices[root] != -1) {
+                continue;
+            }
+            callStack.add(root);
+            callStack.add(0);
+            while (!callStack.isEmpty()) {
+                final var top = callStack.size() - 2;
+                final var rule = callStack.getInt(top);
+                final var edge = callStack.getInt(top + 1);
+                if (edge == 0 && indices[rule] == -1) {
+                    indices[rule] = lowLinks[rule] = nextIndex++;
+                    stack.add(rule);
+                    isOnStack[rule] = true;
+                }
+                if (edge < edges[rule].length) {
+                    callStack.set(top + 1, edge + 1);
+                    final var target = edges[rule][edge];
+                    if (indices[target] == -1) {
+                        callStack.add(target);
+                        callStack.add(0);
+                    }
+                    else if (isOnStack[target]) {
+                        lowLinks[rule] = Math.min(lowLinks[rule], indices[target]);
+                    }
+                    continue;
+                }
+                callStack.removeElements(top, top + 2);
+                if (!callStack.isEmpty()) {
+                    final var parent = callStack.getInt(callStack.size() - 2);
+                    lowLinks[parent] = Math.min(lowLinks[parent], lowLinks[rule]);
+                }
+                if (lowLinks[rule] != indices[rule]) {
+                    continue;
+                }
+                final var component = componentRules.size();
+                final var members = new ArrayList<NamedNode>();
+                final var memberIndices = new IntArrayList();
+                int member;
+                do {
+                    member = stack.removeInt(stack.size() - 1);
+                    isOnStack[member] = false;
+                    components[member] = component;
+                    positions[member] = indices[member];
+                    members.add(rules.get(member));
+                    memberIndices.add(member);
+                }
+                while (member != rule);
+                componentRules.add(members);
+                componentMembers.add(memberIndices);
+            }
+        }
+    }
+
+    // Components are numbered in reverse topological order, so all dependencies have smaller numbers
+    private void computeLevels() {
+        final var componentLevels = new int[componentRules.size()];
+        for (var component = 0; component < componentRules.size(); component++) {
+            var level = 0;
+            final var members = componentMembers.get(component);
+            for (var i = 0; i < members.size(); i++) {
+                for (final var target : edges[members.getInt(i)]) {
+                    final var targetComponent = components[target];
+                    if (targetComponent != component) {
+                        level = Math.max(level, componentLevels[targetComponent] + 1);
+                    }
+                }
+            }
+            componentLevels[component] = level;
+            while (levels.size() <= level) {
+                levels.add(new ArrayList<>());
+            }
+            levels.get(level).add(componentRules.get(component));
+        }
+    }
+
+    /**
+     * A reference closes a cycle if it points to a rule of the same component which wasn't
+     * discovered after the referencing rule, including the rule itself. Cutting exactly these
+     * references keeps all others acyclic, while every reference along the depth-first path
+     * through the component is kept, so every cycle is expanded once before it is cut.
+     *
+     * @return true if the reference from the given rule to the given target closes a cycle.
+     */
+    public boolean isBackReference(final int ruleId, final int targetId) {
+        final var ruleIndex = getIndex(ruleId);
+        final var targetIndex = getIndex(targetId);
+        if (ruleIndex == -1 || targetIndex == -1 || components[ruleIndex] != components[targetIndex]) {
+            return false;
+        }
+        return positions[targetIndex] <= positions[ruleIndex];
+    }
+
+    public List<List<NamedNode>> getComponents() {
+        return Collections.unmodifiableList(componentRules);
+    }
+
+    /**
+     * @return all components grouped by level, where every component only depends on earlier levels.
+     */
+    public List<List<List<NamedNode>>> getLevels() {
+        return Collections.unmodifiableList(levels);
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2023 Karma Krafts & associates
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.karma.ferrous.osmium.grammar;
+
+import io.karma.ferrous.osmium.grammar.node.NamedNode;
+import org.apiguardian.api.API;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Read-only, layered view of all rules visible to a lexer grammar, following the import semantics of ANTLR.
+ * Rules of the grammar itself override imported ones, and if multiple imports define the same rule,
+ * the first definition in depth-first import order wins. Rules of the grammar itself are looked up
+ * through its symbol table, while imported rules are looked up once per name through the scopes of
+ * the imported grammars and memoized. Rule maps are never copied, and since every grammar owns exactly
+ * one scope, grammars imported by many others are only held once no matter how many grammars import them.
+ * Imported grammars are resolved on their own, so their rules never see overrides of an importer.
+ * Scopes may be used from multiple threads at once.
+ *
+ * @author Alexander Hinze
+ * @since 17/10/2026
+ */
+@API(status = API.Status.INTERNAL)
+public final class RuleScope {
+    private final AbstractGrammar grammar;
+    private final ConcurrentHashMap<String, Optional<NamedNode>> importedRules = new ConcurrentHashMap<>();
+
+    public RuleScope(final AbstractGrammar grammar) {
+        this.grammar = grammar;
+    }
+
+    /**
+     * @return the rule with the given name defined by the grammar itself or any of its imports.
+     */
+    public @Nullable NamedNode lookup(final String name) {
+        final var node = grammar.getNode(name);
+        return node != null ? node : lookupImported(name);
+    }
+
+    /**
+     * @param id the id of the rule name in the symbol table of the grammar.
+     * @return the rule with the given id defined by the grammar itself or any of its imports.
+     */
+    public @Nullable NamedNode lookup(final int id) {
+        final var node = grammar.getNode(id);
+        return node != null ? node : lookupImported(grammar.getSymbols().getName(id));
+    }
+
+    /**
+     * @return the rule with the given name defined by any of the imports, ignoring the grammar itself.
+     */
+    public @Nullable NamedNode lookupImported(final String name) {
+        if (grammar.getImports().isEmpty()) {
+            return null;
+        }
+        return importedRules.computeIfAbsent(name, this::findImported).orElse(null);
+    }
+
+    private Optional<NamedNode> findImported(final String name) {
+        for (final var _import : grammar.getImports()) {
+            if (!(_import instanceof LexerGrammar lexerGrammar)) {
+                continue;
+            }
+            final var node = lexerGrammar.getScope().lookup(name);
+            if (node != null) {
+                return Optional.of(node);
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Forgets all memoized imported rules, which is required after any imported grammar changed.
+     */
+    public void invalidate() {
+        importedRules.clear();
+    }
+}
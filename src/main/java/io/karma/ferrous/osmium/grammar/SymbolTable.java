@@ -0,0 +1,64 @@
+/*
+ * Copyright 2023 Karma Krafts & associates
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.karma.ferrous.osmium.grammar;
+
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import org.apiguardian.api.API;
+
+import java.util.ArrayList;
+
+/**
+ * Interns the rule names of a grammar and assigns every one of them a dense int id,
+ * including names which are referenced but never defined. Ids are never reused,
+ * so they stay valid when a rule is removed and added again.
+ *
+ * @author Alexander Hinze
+ * @since 17/10/2026
+ */
+@API(status = API.Status.INTERNAL)
+public final class SymbolTable {
+    private final Object2IntOpenHashMap<String> ids = new Object2IntOpenHashMap<>();
+    private final ArrayList<String> names = new ArrayList<>();
+
+    public SymbolTable() {
+        ids.defaultReturnValue(-1);
+    }
+
+    public int getOrCreateId(final String name) {
+        var id = ids.getInt(name);
+        if (id == -1) {
+            id = names.size();
+            ids.put(name, id);
+            names.add(name);
+        }
+        return id;
+    }
+
+    /**
+     * @return the id of the given name, or -1 if it was never interned.
+     */
+    public int getId(final String name) {
+        return ids.getInt(name);
+    }
+
+    public String getName(final int id) {
+        return names.get(id);
+    }
+
+    public int size() {
+        return names.size();
+    }
+}
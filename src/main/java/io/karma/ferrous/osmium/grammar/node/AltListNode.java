@@ -32,24 +32,6 @@ public final class AltListNode extends AbstractContainerNode {
         addChildren(children);
     }
 
-    @Override
-    public void compileRegex(final StringBuilder builder) {
-        final var numChildren = children.size();
-        final var isGroup = numChildren > 1;
-        if (isGroup) {
-            builder.append('(');
-        }
-        for (var i = 0; i < numChildren; i++) {
-            children.get(i).compileRegex(builder);
-            if (i < numChildren - 1) {
-                builder.append('|');
-            }
-        }
-        if (isGroup) {
-            builder.append(')');
-        }
-    }
-
     @Override
     public NodeType getType() {
         return NodeType.ALT_LIST;
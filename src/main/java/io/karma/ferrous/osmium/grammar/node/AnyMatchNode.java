@@ -23,11 +23,6 @@ import org.apiguardian.api.API;
  */
 @API(status = API.Status.INTERNAL)
 public final class AnyMatchNode extends AbstractNode {
-    @Override
-    public void compileRegex(final StringBuilder builder) {
-        builder.append("([\\n\\t\\r\\s]|.)");
-    }
-
     @Override
     public NodeType getType() {
         return NodeType.ANY_MATCH;
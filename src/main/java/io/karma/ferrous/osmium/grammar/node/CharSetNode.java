@@ -0,0 +1,43 @@
+/*
+ * Copyright 2023 Karma Krafts & associates
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.karma.ferrous.osmium.grammar.node;
+
+import io.karma.ferrous.osmium.util.CodePointSet;
+import org.apiguardian.api.API;
+
+/**
+ * A canonical character class, produced by merging single character alternatives.
+ *
+ * @author Alexander Hinze
+ * @since 17/10/2026
+ */
+@API(status = API.Status.INTERNAL)
+public final class CharSetNode extends AbstractNode {
+    private final CodePointSet chars;
+
+    public CharSetNode(final CodePointSet chars) {
+        this.chars = chars;
+    }
+
+    public CodePointSet getChars() {
+        return chars;
+    }
+
+    @Override
+    public NodeType getType() {
+        return NodeType.CHAR_SET;
+    }
+}
@@ -0,0 +1,264 @@
+/*
+ * Copyright 2023 Karma Krafts & associates
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.karma.ferrous.osmium.grammar.node;
+
+import io.karma.ferrous.osmium.util.CodePointSet;
+import org.apiguardian.api.API;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Character class algebra over lexer nodes. Alternatives which match exactly one character
+ * are merged into a single canonical {@link CharSetNode}, so the regex engine
+ * can test one class instead of backtracking through every branch.
+ * Merging is done by the {@link io.karma.ferrous.osmium.pass.SimplifyPass} on resolved grammars.
+ *
+ * @author Alexander Hinze
+ * @since 17/10/2026
+ */
+@API(status = API.Status.INTERNAL)
+public final class CharSets {
+    // @formatter:off
+    private CharSets() {}
+    // @formatter:on
+
+    /**
+     * Merges every run of consecutive single character alternatives into one character class.
+     * Only consecutive alternatives are merged, since each of them matches exactly one character
+     * and reordering them can't change the match, so the order of all other alternatives is preserved.
+     *
+     * @return the merged alternatives, or the given list if nothing could be merged.
+     */
+    public static List<Node> mergeAlternatives(final List<Node> alternatives) {
+        final var count = alternatives.size();
+        if (count < 2) {
+            return alternatives;
+        }
+        final var result = new ArrayList<Node>(count);
+        var hasMerged = false;
+        var i = 0;
+        while (i < count) {
+            final var first = alternatives.get(i);
+            var chars = toSet(first);
+            if (chars == null) {
+                result.add(first);
+                i++;
+                continue;
+            }
+            var end = i + 1;
+            while (end < count) {
+                final var next = toSet(alternatives.get(end));
+                if (next == null) {
+                    break;
+                }
+                chars = chars.union(next);
+                end++;
+            }
+            if (end - i > 1) {
+                result.add(new CharSetNode(chars));
+                hasMerged = true;
+            }
+            else {
+                result.add(first);
+            }
+            i = end;
+        }
+        return hasMerged ? result : alternatives;
+    }
+
+    /**
+     * Sees through resolved rules, sequences with a single element and alternatives of single characters,
+     * so a reference to a fragment like {@code LETTER : [a-z] | [A-Z] ;} is a set of its own.
+     *
+     * @return the set of characters matched by the given node if it always matches
+     * exactly one character, otherwise null.
+     */
+    public static @Nullable CodePointSet toSet(final Node node) {
+        return toSet(node, null);
+    }
+
+    // Every path enters a rule at most once, so rules which only consist of each other can't recurse forever
+    private static @Nullable CodePointSet toSet(final Node node, final @Nullable Set<Node> enteredRules) {
+        if (!node.getModeActions().isEmpty()) {
+            return null; // Merging would lose the actions
+        }
+        return switch (node) {
+            case TextNode text -> {
+                final var value = decodeLiteral(text.getText());
+                yield value != null && value.codePointCount(0, value.length()) == 1
+                    ? CodePointSet.of(value.codePointAt(0))
+                    : null;
+            }
+            case RangeNode range -> range.getChars();
+            case RawRangeNode range -> parseCharSet(range.getPattern());
+            case CharSetNode set -> set.getChars();
+            case NotSetNode notSet -> {
+                final var chars = union(notSet.getChildren(), enteredRules);
+                yield chars != null ? chars.complement() : null;
+            }
+            case AltListNode altList -> union(altList.getChildren(), enteredRules);
+            case SequenceNode sequence when sequence.getChildCount() == 1 ->
+                toSet(sequence.getChildren().getFirst(), enteredRules);
+            case ContainerNode rule when rule.isNamed() && rule.getChildCount() == 1 -> toRuleSet(rule, enteredRules);
+            default -> null;
+        };
+    }
+
+    private static @Nullable CodePointSet toRuleSet(final ContainerNode rule, @Nullable Set<Node> enteredRules) {
+        if (enteredRules == null) {
+            enteredRules = Collections.newSetFromMap(new IdentityHashMap<>());
+        }
+        if (!enteredRules.add(rule)) {
+            return null;
+        }
+        final var chars = toSet(rule.getChildren().getFirst(), enteredRules);
+        enteredRules.remove(rule);
+        return chars;
+    }
+
+    private static @Nullable CodePointSet union(final List<Node> nodes, final @Nullable Set<Node> enteredRules) {
+        if (nodes.isEmpty()) {
+            return null;
+        }
+        var chars = CodePointSet.EMPTY;
+        for (final var node : nodes) {
+            final var nodeChars = toSet(node, enteredRules);
+            if (nodeChars == null) {
+                return null;
+            }
+            chars = chars.union(nodeChars);
+        }
+        return chars;
+    }
+
+    /**
+     * Parses the contents of an ANTLR lexer character set like {@code a-z_\u0000}.
+     *
+     * @return the parsed set, or null if the set uses unsupported syntax like unicode properties.
+     */
+    public static @Nullable CodePointSet parseCharSet(final String pattern) {
+        final var cursor = new Cursor(pattern);
+        var chars = CodePointSet.EMPTY;
+        while (cursor.hasNext()) {
+            final var start = cursor.next();
+            if (start == -1) {
+                return null;
+            }
+            if (cursor.peek() != '-' || cursor.index + 1 >= pattern.length()) {
+                chars = chars.union(CodePointSet.of(start));
+                continue;
+            }
+            cursor.index++; // Skip range separator
+            final var end = cursor.next();
+            if (end == -1 || end < start) {
+                return null;
+            }
+            chars = chars.union(CodePointSet.of(start, end));
+        }
+        return chars;
+    }
+
+    /**
+     * Decodes the escape sequences of the contents of an ANTLR string literal.
+     *
+     * @return the decoded string, or null if the literal contains an invalid escape sequence.
+     */
+    public static @Nullable String decodeLiteral(final String literal) {
+        final var cursor = new Cursor(literal);
+        final var builder = new StringBuilder();
+        while (cursor.hasNext()) {
+            final var codePoint = cursor.next();
+            if (codePoint == -1) {
+                return null;
+            }
+            builder.appendCodePoint(codePoint);
+        }
+        return builder.toString();
+    }
+
+    private static final class Cursor {
+        private final String value;
+        private int index;
+
+        Cursor(final String value) {
+            this.value = value;
+        }
+
+        boolean hasNext() {
+            return index < value.length();
+        }
+
+        int peek() {
+            return hasNext() ? value.charAt(index) : -1;
+        }
+
+        // Returns the next code point with all escapes applied, or -1 for unsupported escapes
+        int next() {
+            final var c = value.codePointAt(index);
+            index += Character.charCount(c);
+            if (c != '\\') {
+                return c;
+            }
+            if (!hasNext()) {
+                return -1;
+            }
+            final var escaped = value.charAt(index++);
+            return switch (escaped) {
+                case 'n' -> '\n';
+                case 'r' -> '\r';
+                case 't' -> '\t';
+                case 'b' -> '\b';
+                case 'f' -> '\f';
+                case 'u' -> nextUnicode();
+                case 'p', 'P' -> -1;
+                default -> escaped;
+            };
+        }
+
+        private int nextUnicode() {
+            final int start;
+            final int end;
+            if (peek() == '{') {
+                start = index + 1;
+                end = value.indexOf('}', start);
+                if (end == -1) {
+                    return -1;
+                }
+                index = end + 1;
+            }
+            else {
+                start = index;
+                end = index + 4;
+                if (end > value.length()) {
+                    return -1;
+                }
+                index = end;
+            }
+            try {
+                final var codePoint = Integer.parseInt(value, start, end, 16);
+                return Character.isValidCodePoint(codePoint) ? codePoint : -1;
+            }
+            catch (NumberFormatException error) {
+                return -1;
+            }
+        }
+    }
+}
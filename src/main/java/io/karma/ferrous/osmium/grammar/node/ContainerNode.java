@@ -15,8 +15,10 @@
 
 package io.karma.ferrous.osmium.grammar.node;
 
-import java.util.List;
-import java.util.Map;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+import java.util.function.Function;
 
 /**
  * @author Alexander Hinze
@@ -28,47 +30,46 @@ public interface ContainerNode extends Node {
         return true;
     }
 
-    @Override
-    default void compileRegex(final StringBuilder builder) {
-        final var children = getChildren();
-        final var isGroup = children.size() > 1;
-        if (isGroup) {
-            builder.append('(');
-        }
-        for (final var child : children) {
-            child.compileRegex(builder);
-        }
-        if (isGroup) {
-            builder.append(')');
-        }
-    }
-
     default void resolve(final NamedNode rootNode, final Map<String, NamedNode> nodes) {
-        final var children = getChildren();
-        for (final var child : children) {
-            if (!(child instanceof ContainerNode container)) {
-                continue;
-            }
-            container.resolve(rootNode, nodes); // Resolve from inside out
-        }
-        final var count = children.size();
-        for (var i = 0; i < count; i++) {
-            final var child = children.get(i);
-            if (child.getType() != NodeType.REFERENCE) {
-                continue;
+        resolve(reference -> {
+            final var refNode = nodes.get(reference.getName());
+            if (refNode == rootNode) { // Substitute self-ref node to prevent infinite recursion in compiler
+                return new SelfReferenceNode(reference.getName());
             }
-            final var refName = ((ReferenceNode) child).getName();
-            final var refNode = nodes.get(refName);
-            if (refNode == null) {
-                continue;
+            return refNode;
+        });
+    }
+
+    /**
+     * Replaces all references in this subtree with the node returned by the given resolver,
+     * or leaves them untouched if it returns null. Other named nodes are never descended into,
+     * and the tree is walked iteratively, so arbitrarily deep trees can't overflow the stack.
+     */
+    default void resolve(final Function<ReferenceNode, @Nullable Node> resolver) {
+        final var visited = Collections.newSetFromMap(new IdentityHashMap<ContainerNode, Boolean>());
+        final var queue = new ArrayDeque<ContainerNode>();
+        queue.add(this);
+        while (!queue.isEmpty()) {
+            final var container = queue.poll();
+            if (!visited.add(container)) {
+                continue; // Shared subtrees only need to be walked once
             }
-            if (refNode == rootNode) { // Substitute self-ref node to prevent infinite recursion in compiler
-                setChild(i, new SelfReferenceNode());
-                continue;
+            final var children = container.getChildren();
+            final var count = children.size();
+            for (var i = 0; i < count; i++) {
+                final var child = children.get(i);
+                if (child.getType() == NodeType.REFERENCE) {
+                    final var refNode = resolver.apply((ReferenceNode) child);
+                    if (refNode != null) {
+                        container.setChild(i, refNode);
+                    }
+                    continue;
+                }
+                if (child instanceof ContainerNode nested && !child.isNamed()) {
+                    queue.add(nested);
+                }
             }
-            setChild(i, refNode);
         }
-
     }
 
     Node removeChild(final int index);
@@ -22,16 +22,9 @@ import org.apiguardian.api.API;
  * @since 24/12/2023
  */
 @API(status = API.Status.INTERNAL)
-public final class FragmentNode extends AbstractContainerNode implements NamedNode {
-    private final String name;
-
+public final class FragmentNode extends AbstractNamedContainerNode {
     public FragmentNode(final String name) {
-        this.name = name;
-    }
-
-    @Override
-    public String getName() {
-        return name;
+        super(name);
     }
 
     @Override
@@ -23,10 +23,6 @@ import org.apiguardian.api.API;
  */
 @API(status = API.Status.INTERNAL)
 public final class GrammarNode extends AbstractNode {
-    @Override
-    public void compileRegex(final StringBuilder builder) {
-    }
-
     @Override
     public NodeType getType() {
         return NodeType.GRAMMAR;
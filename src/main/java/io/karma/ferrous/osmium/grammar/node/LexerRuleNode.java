@@ -22,16 +22,23 @@ import org.apiguardian.api.API;
  * @since 24/12/2023
  */
 @API(status = API.Status.INTERNAL)
-public final class LexerRuleNode extends AbstractContainerNode implements NamedNode {
-    private final String name;
+public final class LexerRuleNode extends AbstractNamedContainerNode {
+    public static final String DEFAULT_MODE = "DEFAULT_MODE";
+    private String mode = DEFAULT_MODE;
 
     public LexerRuleNode(final String name) {
-        this.name = name;
+        super(name);
     }
 
-    @Override
-    public String getName() {
-        return name;
+    /**
+     * @return the name of the lexer mode this rule is defined in.
+     */
+    public String getMode() {
+        return mode;
+    }
+
+    public void setMode(final String mode) {
+        this.mode = mode;
     }
 
     @Override
@@ -0,0 +1,136 @@
+/*
+ * Copyright 2023 Karma Krafts & associates
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.karma.ferrous.osmium.grammar.node;
+
+import io.karma.ferrous.osmium.util.RegexDialect;
+import io.karma.ferrous.osmium.util.RegexUtils;
+import org.apiguardian.api.API;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * Compiles alternatives which only consist of literals into a prefix-factored pattern,
+ * so {@code 'abstract' | 'assert' | 'break'} becomes {@code (?:a(?:bstract|ssert)|break)}.
+ * The regex engine then only has to test every shared prefix once instead of once per branch.
+ * Literals which are a prefix of another literal are made optional and greedy,
+ * so the longest literal wins just like in the ANTLR lexer.
+ *
+ * @author Alexander Hinze
+ * @since 17/10/2026
+ */
+@API(status = API.Status.INTERNAL)
+public final class LiteralTrie {
+    // Sorted by code points without duplicates, so every node of the trie is a contiguous range of literals
+    private final String[] literals;
+
+    private LiteralTrie(final String[] literals) {
+        this.literals = literals;
+    }
+
+    /**
+     * @param literals the contents of ANTLR string literals, with their escape sequences.
+     * @return the trie of the given literals, or null if any of them could not be decoded.
+     */
+    public static @Nullable LiteralTrie ofLiterals(final List<String> literals) {
+        final var decodedLiterals = new TreeSet<>(LiteralTrie::compareCodePoints);
+        for (final var rawLiteral : literals) {
+            final var literal = CharSets.decodeLiteral(rawLiteral);
+            if (literal == null) {
+                return null;
+            }
+            decodedLiterals.add(literal);
+        }
+        return new LiteralTrie(decodedLiterals.toArray(String[]::new));
+    }
+
+    // Unlike String#compareTo, this orders supplementary code points after all other code points
+    private static int compareCodePoints(final String a, final String b) {
+        var i = 0;
+        while (i < a.length() && i < b.length()) {
+            final var codePointA = a.codePointAt(i);
+            final var codePointB = b.codePointAt(i);
+            if (codePointA != codePointB) {
+                return Integer.compare(codePointA, codePointB);
+            }
+            i += Character.charCount(codePointA);
+        }
+        return Integer.compare(a.length(), b.length());
+    }
+
+    public void appendPattern(final StringBuilder builder, final RegexDialect dialect) {
+        if (literals.length == 0) {
+            return;
+        }
+        appendPattern(builder, dialect, 0, literals.length, 0);
+    }
+
+    // All literals in the given range share their first offset chars, the shortest one comes first
+    private void appendPattern(final StringBuilder builder, final RegexDialect dialect, final int from,
+                               final int to, final int offset) {
+        final var isTerminal = literals[from].length() == offset;
+        final var childrenFrom = isTerminal ? from + 1 : from;
+        if (childrenFrom == to) {
+            return;
+        }
+        final var firstChildTo = findChildEnd(childrenFrom, to, offset);
+        if (firstChildTo == to && !isTerminal) { // Chains without branches are emitted as plain text
+            appendChild(builder, dialect, childrenFrom, to, offset);
+            return;
+        }
+        builder.append("(?:");
+        for (var child = childrenFrom; child < to; ) {
+            if (child > childrenFrom) {
+                builder.append('|');
+            }
+            final var childTo = findChildEnd(child, to, offset);
+            appendChild(builder, dialect, child, childTo, offset);
+            child = childTo;
+        }
+        builder.append(')');
+        if (isTerminal) { // Greedy, so the longer literal is preferred
+            builder.append('?');
+        }
+    }
+
+    private void appendChild(final StringBuilder builder, final RegexDialect dialect, final int from,
+                             final int to, final int offset) {
+        final var codePoint = literals[from].codePointAt(offset);
+        RegexUtils.appendEscapedCodePoint(builder, codePoint, dialect);
+        appendPattern(builder, dialect, from, to, offset + Character.charCount(codePoint));
+    }
+
+    private int findChildEnd(final int from, final int to, final int offset) {
+        final var codePoint = literals[from].codePointAt(offset);
+        var end = from + 1;
+        while (end < to && literals[end].codePointAt(offset) == codePoint) {
+            end++;
+        }
+        return end;
+    }
+
+    /**
+     * @return the approximate number of bytes retained by this trie, including its literals.
+     */
+    public long estimateSize() {
+        var size = 32L + 4L * literals.length; // Header and the array of literals
+        for (final var literal : literals) {
+            size += 40L + literal.length(); // Header, hash and compact Latin-1 contents
+        }
+        return size;
+    }
+}
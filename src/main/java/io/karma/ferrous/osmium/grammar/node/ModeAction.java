@@ -18,9 +18,29 @@ package io.karma.ferrous.osmium.grammar.node;
 import org.apiguardian.api.API;
 
 /**
+ * A lexer command which changes the lexer mode after the rule it belongs to matched,
+ * like {@code pushMode(STRING)}, {@code popMode} or {@code mode(STRING)}.
+ *
  * @author Alexander Hinze
  * @since 27/12/2023
  */
 @API(status = API.Status.INTERNAL)
-public record ModeAction(boolean isPush, String name) {
+public record ModeAction(Type type, String name) {
+    public static final ModeAction POP = new ModeAction(Type.POP, "");
+
+    public static ModeAction push(final String name) {
+        return new ModeAction(Type.PUSH, name);
+    }
+
+    public static ModeAction set(final String name) {
+        return new ModeAction(Type.SET, name);
+    }
+
+    public enum Type {
+        // @formatter:off
+        PUSH,
+        POP,
+        SET
+        // @formatter:on
+    }
 }
@@ -32,8 +32,6 @@ public interface Node {
 
     NodeType getType();
 
-    void compileRegex(final StringBuilder builder);
-
     default boolean isContainer() {
         return false;
     }
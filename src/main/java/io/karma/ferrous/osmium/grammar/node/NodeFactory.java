@@ -0,0 +1,124 @@
+/*
+ * Copyright 2023 Karma Krafts & associates
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.karma.ferrous.osmium.grammar.node;
+
+import io.karma.ferrous.osmium.util.CodePointSet;
+import org.apiguardian.api.API;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Creates grammar nodes and hash-conses structurally identical subtrees,
+ * so every distinct literal, range or reference-free subtree exists once per factory.
+ * Containers are only shared if all of their children are shared, which guarantees
+ * that they contain no references and are never modified by {@link ContainerNode#resolve}.
+ * Shared nodes must not be modified, {@link #isShared(Node)} may be used to check for them.
+ * Since shared nodes have a stable identity, they may be used as keys by later passes.
+ * Factories may be used from multiple threads at once.
+ *
+ * @author Alexander Hinze
+ * @since 17/10/2026
+ */
+@API(status = API.Status.INTERNAL)
+public final class NodeFactory {
+    private final ConcurrentHashMap<Key, Node> nodes = new ConcurrentHashMap<>();
+    private final Set<Node> sharedNodes = ConcurrentHashMap.newKeySet();
+
+    @SuppressWarnings("unchecked")
+    private <N extends Node> N intern(final Key key, final N node) {
+        final var existingNode = nodes.computeIfAbsent(key, k -> {
+            sharedNodes.add(node);
+            return node;
+        });
+        return (N) existingNode;
+    }
+
+    private boolean areShared(final List<Node> children) {
+        for (final var child : children) {
+            if (!isShared(child)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public boolean isShared(final Node node) {
+        return sharedNodes.contains(node);
+    }
+
+    public TextNode text(final String text) {
+        return intern(new Key(NodeType.TEXT, text, List.of()), new TextNode(text));
+    }
+
+    public RangeNode range(final char start, final char end) {
+        return intern(new Key(NodeType.RANGE, STR."\{start}-\{end}", List.of()), new RangeNode(start, end));
+    }
+
+    public RawRangeNode rawRange(final String pattern) {
+        return intern(new Key(NodeType.RAW_RANGE, pattern, List.of()), new RawRangeNode(pattern));
+    }
+
+    public CharSetNode charSet(final CodePointSet chars) {
+        return intern(new Key(NodeType.CHAR_SET, chars, List.of()), new CharSetNode(chars));
+    }
+
+    public AnyMatchNode anyMatch() {
+        return intern(new Key(NodeType.ANY_MATCH, null, List.of()), new AnyMatchNode());
+    }
+
+    public UnaryOpNode unaryOp(final UnaryOpNode.Op op, final Node node) {
+        final var unaryOp = new UnaryOpNode(op, node);
+        if (!isShared(node)) {
+            return unaryOp;
+        }
+        return intern(new Key(NodeType.UNARY_OP, op, List.of(node)), unaryOp);
+    }
+
+    public SequenceNode sequence(final List<Node> children) {
+        final var sequence = new SequenceNode(children);
+        if (!areShared(children)) {
+            return sequence;
+        }
+        return intern(new Key(NodeType.SEQUENCE, null, List.copyOf(children)), sequence);
+    }
+
+    public AltListNode altList(final List<Node> alternatives) {
+        final var altList = new AltListNode(alternatives);
+        if (!areShared(alternatives)) {
+            return altList;
+        }
+        return intern(new Key(NodeType.ALT_LIST, null, List.copyOf(alternatives)), altList);
+    }
+
+    public NotSetNode notSet(final List<Node> children) {
+        final var notSet = new NotSetNode(children);
+        if (!areShared(children)) {
+            return notSet;
+        }
+        return intern(new Key(NodeType.NOT_SET, null, List.copyOf(children)), notSet);
+    }
+
+    public int getSharedNodeCount() {
+        return sharedNodes.size();
+    }
+
+    // Children are shared themselves, so comparing them by identity compares them structurally
+    private record Key(NodeType type, @Nullable Object value, List<Node> children) {
+    }
+}
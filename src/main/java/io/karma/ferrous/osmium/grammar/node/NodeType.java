@@ -37,10 +37,11 @@ public enum NodeType {
     ANY_MATCH,
     SELF_REFERENCE,
     SEQUENCE,
-    NOT_SET;
+    NOT_SET,
+    CHAR_SET;
     // @formatter:on
 
     public boolean isRange() {
-        return this == RANGE || this == RAW_RANGE;
+        return this == RANGE || this == RAW_RANGE || this == CHAR_SET;
     }
 }
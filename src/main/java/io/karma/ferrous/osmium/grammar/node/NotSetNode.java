@@ -32,32 +32,6 @@ public final class NotSetNode extends AbstractContainerNode {
         addChildren(children);
     }
 
-    private static String fillRange(final RangeNode node) {
-        final var builder = new StringBuilder();
-        for (var c = node.getStart(); c <= node.getEnd(); c++) {
-            builder.append(c);
-        }
-        return builder.toString();
-    }
-
-    @Override
-    public void compileRegex(final StringBuilder builder) {
-        builder.append("[^");
-        for (final var child : getChildren()) {
-            if (child.getType().isRange()) {
-                switch (child) {
-                    case RangeNode range -> builder.append(fillRange(range));
-                    case RawRangeNode range -> builder.append(range.getPattern());
-                    default -> {
-                    }
-                }
-                continue;
-            }
-            child.compileRegex(builder);
-        }
-        builder.append(']');
-    }
-
     @Override
     public NodeType getType() {
         return NodeType.NOT_SET;
@@ -22,16 +22,9 @@ import org.apiguardian.api.API;
  * @since 24/12/2023
  */
 @API(status = API.Status.INTERNAL)
-public final class ParserRuleNode extends AbstractContainerNode implements NamedNode {
-    private final String name;
-
+public final class ParserRuleNode extends AbstractNamedContainerNode {
     public ParserRuleNode(final String name) {
-        this.name = name;
-    }
-
-    @Override
-    public String getName() {
-        return name;
+        super(name);
     }
 
     @Override
@@ -15,7 +15,7 @@
 
 package io.karma.ferrous.osmium.grammar.node;
 
-import it.unimi.dsi.fastutil.chars.CharOpenHashSet;
+import io.karma.ferrous.osmium.util.CodePointSet;
 import org.apiguardian.api.API;
 
 /**
@@ -26,14 +26,12 @@ import org.apiguardian.api.API;
 public final class RangeNode extends AbstractNode {
     private final char start;
     private final char end;
-    private final CharOpenHashSet chars = new CharOpenHashSet();
+    private final CodePointSet chars;
 
     public RangeNode(final char start, final char end) {
         this.start = start;
         this.end = end;
-        for (char c = start; c <= end; c++) {
-            chars.add(c);
-        }
+        chars = CodePointSet.of(start, end);
     }
 
     public char getStart() {
@@ -44,15 +42,10 @@ public final class RangeNode extends AbstractNode {
         return end;
     }
 
-    public CharOpenHashSet getChars() {
+    public CodePointSet getChars() {
         return chars;
     }
 
-    @Override
-    public void compileRegex(final StringBuilder builder) {
-        builder.append(STR."[\{start}-\{end}]");
-    }
-
     @Override
     public NodeType getType() {
         return NodeType.RANGE;
@@ -33,11 +33,6 @@ public final class RawRangeNode extends AbstractNode {
         return pattern;
     }
 
-    @Override
-    public void compileRegex(final StringBuilder builder) {
-        builder.append(STR."[\{pattern}]");
-    }
-
     @Override
     public NodeType getType() {
         return NodeType.RAW_RANGE;
@@ -24,13 +24,22 @@ import org.apiguardian.api.API;
 @API(status = API.Status.INTERNAL)
 public final class ReferenceNode extends AbstractNode implements NamedNode {
     private final String name;
+    private int id = -1;
 
     public ReferenceNode(final String name) {
         this.name = name;
     }
 
-    @Override
-    public void compileRegex(final StringBuilder builder) {
+    /**
+     * @return the id of the referenced rule in the symbol table of the grammar
+     * this reference belongs to, or -1 if it wasn't added to a grammar yet.
+     */
+    public int getId() {
+        return id;
+    }
+
+    public void setId(final int id) {
+        this.id = id;
     }
 
     @Override
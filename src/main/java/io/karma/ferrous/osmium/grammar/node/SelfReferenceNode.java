@@ -16,6 +16,7 @@
 package io.karma.ferrous.osmium.grammar.node;
 
 import org.apiguardian.api.API;
+import org.jetbrains.annotations.Nullable;
 
 /**
  * @author Alexander Hinze
@@ -23,8 +24,21 @@ import org.apiguardian.api.API;
  */
 @API(status = API.Status.INTERNAL)
 public final class SelfReferenceNode extends AbstractNode {
-    @Override
-    public void compileRegex(final StringBuilder builder) {
+    private final String name;
+
+    public SelfReferenceNode() {
+        this(null);
+    }
+
+    /**
+     * @param name the name of the rule this node refers to, which is kept for dependency tracking.
+     */
+    public SelfReferenceNode(final @Nullable String name) {
+        this.name = name;
+    }
+
+    public @Nullable String getName() {
+        return name;
     }
 
     @Override
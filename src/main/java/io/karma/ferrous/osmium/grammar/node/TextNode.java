@@ -15,7 +15,6 @@
 
 package io.karma.ferrous.osmium.grammar.node;
 
-import io.karma.ferrous.osmium.util.RegexUtils;
 import org.apiguardian.api.API;
 
 /**
@@ -34,11 +33,6 @@ public final class TextNode extends AbstractNode {
         return text;
     }
 
-    @Override
-    public void compileRegex(final StringBuilder builder) {
-        builder.append(RegexUtils.escape(text));
-    }
-
     @Override
     public NodeType getType() {
         return NodeType.TEXT;
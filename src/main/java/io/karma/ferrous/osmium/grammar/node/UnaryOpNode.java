@@ -42,18 +42,6 @@ public final class UnaryOpNode extends AbstractContainerNode {
         return node;
     }
 
-    @Override
-    public void compileRegex(final StringBuilder builder) {
-        if (op == Op.MATCH_UNTIL) {
-            builder.append("[^");
-            node.compileRegex(builder);
-            builder.append(']');
-            return;
-        }
-        node.compileRegex(builder);
-        builder.append(op.getRegexPattern());
-    }
-
     @Override
     public void setChild(int index, Node child) {
         if (index != 0) {
@@ -0,0 +1,409 @@
+/*
+ * Copyright 2023 Karma Krafts & associates
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.karma.ferrous.osmium.ir;
+
+import io.karma.ferrous.osmium.grammar.Grammar;
+import io.karma.ferrous.osmium.grammar.node.*;
+import io.karma.ferrous.osmium.util.CodePointSet;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Reference2IntOpenHashMap;
+import org.apiguardian.api.API;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Compact struct-of-arrays form of the resolved lexer rules of a grammar.
+ * Every node is an index into parallel arrays of opcodes and operands,
+ * the children of a node are a contiguous slice of a single child array,
+ * and all literals are interned into one pool. References to named nodes
+ * become {@link #OP_RULE} leaves, so rules shared between many rules are lowered once.
+ * Subtrees which are shared in the node tree are shared in the IR as well.
+ * Mode actions are not lowered, since they do not take part in pattern emission.
+ *
+ * @author Alexander Hinze
+ * @since 17/10/2026
+ */
+@API(status = API.Status.INTERNAL)
+public final class LexerIR {
+    public static final int OP_EMPTY = 0;
+    public static final int OP_TEXT = 1; // Operand is a literal index, the literal is already decoded
+    public static final int OP_RAW_RANGE = 2; // Operand is a literal index
+    public static final int OP_CHAR_SET = 3; // Operand is a char set index, ranges are lowered to char sets too
+    public static final int OP_ANY_MATCH = 4;
+    public static final int OP_REPEAT = 5; // Operand is the op ordinal, with the possessive flag in bit 8
+    public static final int OP_SEQUENCE = 6;
+    public static final int OP_ALT_LIST = 7;
+    public static final int OP_NOT_SET = 8;
+    public static final int OP_RULE = 9; // Operand is a rule index
+    public static final int OP_RAW_TEXT = 10; // Operand is a literal index, for literals which can't be decoded
+    public static final int OP_LITERAL_TRIE = 11; // Operand is a trie index, for alternatives of plain literals
+    public static final int POSSESSIVE_FLAG = 1 << 8;
+
+    private final int[] opcodes;
+    private final int[] operands;
+    private final int[] childOffsets;
+    private final int[] children;
+    private final String[] literals;
+    private final CodePointSet[] charSets;
+    private final LiteralTrie[] tries;
+    private final String[] ruleNames;
+    private final int[] ruleRoots;
+    private final int topLevelRuleCount;
+    private final int baseNodeCount; // Number of nodes after the last lowering from scratch
+
+    private LexerIR(final Lowering lowering) {
+        opcodes = lowering.opcodes.toIntArray();
+        operands = lowering.operands.toIntArray();
+        lowering.childOffsets.add(lowering.children.size());
+        childOffsets = lowering.childOffsets.toIntArray();
+        children = lowering.children.toIntArray();
+        literals = lowering.literals.toArray(String[]::new);
+        charSets = lowering.charSets.toArray(CodePointSet[]::new);
+        tries = lowering.tries.toArray(LiteralTrie[]::new);
+        ruleNames = lowering.ruleNames.toArray(String[]::new);
+        ruleRoots = lowering.ruleRoots.toIntArray();
+        topLevelRuleCount = lowering.topLevelRuleCount;
+        baseNodeCount = lowering.baseNodeCount;
+    }
+
+    /**
+     * Lowers all named nodes of the given resolved grammar.
+     * Named nodes of other grammars which are referenced are lowered as additional rules.
+     *
+     * @param possessiveNodes the repetitions which are lowered with the {@link #POSSESSIVE_FLAG}.
+     */
+    public static LexerIR lower(final Grammar grammar, final Set<UnaryOpNode> possessiveNodes) {
+        return lower(grammar, possessiveNodes, Map.of(), Map.of());
+    }
+
+    /**
+     * @param mergedAlternatives the children which are lowered in place of the children of an alternative list.
+     * @param literalTries       the tries which are lowered in place of an alternative list.
+     */
+    public static LexerIR lower(final Grammar grammar, final Set<UnaryOpNode> possessiveNodes,
+                                final Map<AltListNode, List<Node>> mergedAlternatives,
+                                final Map<AltListNode, LiteralTrie> literalTries) {
+        final var lowering = new Lowering(possessiveNodes, mergedAlternatives, literalTries);
+        final var nodes = grammar.getNodes();
+        for (final var node : nodes) {
+            lowering.getRule(node);
+        }
+        lowering.topLevelRuleCount = nodes.size();
+        lowering.lowerPendingRules();
+        lowering.baseNodeCount = lowering.opcodes.size();
+        return new LexerIR(lowering);
+    }
+
+    /**
+     * Lowers the given rules of the given grammar again, which was lowered into the given IR before
+     * and changed in place since. All other rules keep their lowered form and their index,
+     * the nodes of the previous versions of the changed rules are left in place unused.
+     *
+     * @return the updated IR, or null if the grammar has to be lowered from scratch, because its rules
+     * were added, removed or reordered, rules of different grammars share a name,
+     * or the IR grew to twice the size it had after it was lowered from scratch.
+     */
+    public static @Nullable LexerIR update(final LexerIR previous, final Grammar grammar,
+                                           final Set<String> changedRules, final Set<UnaryOpNode> possessiveNodes,
+                                           final Map<AltListNode, List<Node>> mergedAlternatives,
+                                           final Map<AltListNode, LiteralTrie> literalTries) {
+        final var nodes = grammar.getNodes();
+        if (nodes.size() != previous.topLevelRuleCount || previous.opcodes.length > 2 * previous.baseNodeCount) {
+            return null;
+        }
+        for (var i = 0; i < nodes.size(); i++) {
+            if (!nodes.get(i).getName().equals(previous.ruleNames[i])) {
+                return null;
+            }
+        }
+        final var lowering = new Lowering(possessiveNodes, mergedAlternatives, literalTries);
+        if (!lowering.seed(previous, changedRules)) {
+            return null;
+        }
+        for (final var node : nodes) {
+            if (changedRules.contains(node.getName())) {
+                lowering.getRule(node);
+            }
+        }
+        lowering.lowerPendingRules();
+        return new LexerIR(lowering);
+    }
+
+    public int getNodeCount() {
+        return opcodes.length;
+    }
+
+    public int getOpcode(final int node) {
+        return opcodes[node];
+    }
+
+    public int getOperand(final int node) {
+        return operands[node];
+    }
+
+    public int getChildCount(final int node) {
+        return childOffsets[node + 1] - childOffsets[node];
+    }
+
+    public int getChild(final int node, final int index) {
+        return children[childOffsets[node] + index];
+    }
+
+    public String getLiteral(final int index) {
+        return literals[index];
+    }
+
+    public CodePointSet getCharSet(final int index) {
+        return charSets[index];
+    }
+
+    public LiteralTrie getTrie(final int index) {
+        return tries[index];
+    }
+
+    /**
+     * @return the number of rules, including rules of other grammars which are referenced.
+     */
+    public int getRuleCount() {
+        return ruleNames.length;
+    }
+
+    /**
+     * @return the number of rules which belong to the lowered grammar itself, which always come first.
+     */
+    public int getTopLevelRuleCount() {
+        return topLevelRuleCount;
+    }
+
+    public String getRuleName(final int rule) {
+        return ruleNames[rule];
+    }
+
+    public int getRuleRoot(final int rule) {
+        return ruleRoots[rule];
+    }
+
+    /**
+     * @return the approximate number of bytes retained by this IR, to compare it against the node tree.
+     */
+    public long estimateSize() {
+        var size = 4L * (opcodes.length + operands.length + childOffsets.length + children.length + ruleRoots.length);
+        for (final var literal : literals) {
+            size += 40L + literal.length(); // Header, hash and compact Latin-1 contents
+        }
+        for (final var ruleName : ruleNames) {
+            size += 40L + ruleName.length();
+        }
+        for (final var charSet : charSets) {
+            size += 32L + 8L * charSet.getIntervalCount();
+        }
+        for (final var trie : tries) {
+            size += trie.estimateSize();
+        }
+        return size + 8L * (literals.length + charSets.length + tries.length + ruleNames.length);
+    }
+
+    private static final class Lowering {
+        private final IntArrayList opcodes = new IntArrayList();
+        private final IntArrayList operands = new IntArrayList();
+        private final IntArrayList childOffsets = new IntArrayList();
+        private final IntArrayList children = new IntArrayList();
+        private final ArrayList<String> literals = new ArrayList<>();
+        private final Object2IntOpenHashMap<String> literalIndices = new Object2IntOpenHashMap<>();
+        private final ArrayList<CodePointSet> charSets = new ArrayList<>();
+        private final Object2IntOpenHashMap<CodePointSet> charSetIndices = new Object2IntOpenHashMap<>();
+        private final ArrayList<LiteralTrie> tries = new ArrayList<>();
+        private final ArrayList<String> ruleNames = new ArrayList<>();
+        private final IntArrayList ruleRoots = new IntArrayList();
+        private final Reference2IntOpenHashMap<Node> rules = new Reference2IntOpenHashMap<>();
+        private final Reference2IntOpenHashMap<Node> lowered = new Reference2IntOpenHashMap<>();
+        private final ArrayDeque<NamedNode> pendingRules = new ArrayDeque<>();
+        private final Set<UnaryOpNode> possessiveNodes;
+        private final Map<AltListNode, List<Node>> mergedAlternatives;
+        private final Map<AltListNode, LiteralTrie> literalTries;
+        private final Object2IntOpenHashMap<String> ruleIndices = new Object2IntOpenHashMap<>(); // Of seeded rules
+        private Set<String> changedRules = Set.of();
+        private int topLevelRuleCount;
+        private int baseNodeCount;
+
+        Lowering(final Set<UnaryOpNode> possessiveNodes, final Map<AltListNode, List<Node>> mergedAlternatives,
+                 final Map<AltListNode, LiteralTrie> literalTries) {
+            this.possessiveNodes = possessiveNodes;
+            this.mergedAlternatives = mergedAlternatives;
+            this.literalTries = literalTries;
+            ruleIndices.defaultReturnValue(-1);
+            literalIndices.defaultReturnValue(-1);
+            charSetIndices.defaultReturnValue(-1);
+            rules.defaultReturnValue(-1);
+            lowered.defaultReturnValue(-1);
+        }
+
+        // Takes over all nodes and rules of the given IR, rules are looked up by name from now on
+        boolean seed(final LexerIR ir, final Set<String> changedRules) {
+            for (var i = 0; i < ir.ruleNames.length; i++) {
+                if (ruleIndices.put(ir.ruleNames[i], i) != -1) {
+                    return false;
+                }
+            }
+            this.changedRules = changedRules;
+            opcodes.addElements(0, ir.opcodes);
+            operands.addElements(0, ir.operands);
+            childOffsets.addElements(0, ir.childOffsets, 0, ir.childOffsets.length - 1);
+            children.addElements(0, ir.children);
+            for (final var literal : ir.literals) {
+                getLiteral(literal);
+            }
+            for (final var charSet : ir.charSets) {
+                getCharSet(charSet);
+            }
+            tries.addAll(Arrays.asList(ir.tries));
+            ruleNames.addAll(Arrays.asList(ir.ruleNames));
+            ruleRoots.addElements(0, ir.ruleRoots);
+            topLevelRuleCount = ir.topLevelRuleCount;
+            baseNodeCount = ir.baseNodeCount;
+            return true;
+        }
+
+        int getRule(final NamedNode node) {
+            var rule = rules.getInt(node);
+            if (rule != -1) {
+                return rule;
+            }
+            final var name = node.getName();
+            rule = ruleIndices.getInt(name);
+            if (rule == -1) {
+                rule = ruleNames.size();
+                ruleNames.add(name);
+                ruleRoots.add(-1);
+                pendingRules.add(node);
+            }
+            else if (changedRules.contains(name)) {
+                pendingRules.add(node); // Seeded rule which is lowered again into its old index
+            }
+            rules.put(node, rule);
+            return rule;
+        }
+
+        void lowerPendingRules() {
+            while (!pendingRules.isEmpty()) {
+                final var node = pendingRules.poll();
+                final var rule = rules.getInt(node);
+                final var root = node instanceof ContainerNode container
+                    ? addNode(OP_SEQUENCE, 0, lowerAll(container))
+                    : addNode(OP_EMPTY, 0, IntArrayList.of());
+                ruleRoots.set(rule, root);
+            }
+        }
+
+        private int getLiteral(final String literal) {
+            var index = literalIndices.getInt(literal);
+            if (index == -1) {
+                index = literals.size();
+                literals.add(literal);
+                literalIndices.put(literal, index);
+            }
+            return index;
+        }
+
+        private int getCharSet(final CodePointSet charSet) {
+            var index = charSetIndices.getInt(charSet);
+            if (index == -1) {
+                index = charSets.size();
+                charSets.add(charSet);
+                charSetIndices.put(charSet, index);
+            }
+            return index;
+        }
+
+        // Literals are decoded once here, so emitting them doesn't have to decode them again
+        private int lowerText(final String literal) {
+            final var text = CharSets.decodeLiteral(literal);
+            return text != null
+                ? addNode(OP_TEXT, getLiteral(text), IntArrayList.of())
+                : addNode(OP_RAW_TEXT, getLiteral(literal), IntArrayList.of());
+        }
+
+        private int lowerAltList(final AltListNode altList) {
+            final var trie = literalTries.get(altList);
+            if (trie != null) {
+                tries.add(trie);
+                return addNode(OP_LITERAL_TRIE, tries.size() - 1, IntArrayList.of());
+            }
+            return addNode(OP_ALT_LIST, 0, lowerAll(mergedAlternatives.getOrDefault(altList, altList.getChildren())));
+        }
+
+        private int addNode(final int opcode, final int operand, final IntArrayList nodeChildren) {
+            final var index = opcodes.size();
+            opcodes.add(opcode);
+            operands.add(operand);
+            childOffsets.add(children.size());
+            children.addAll(nodeChildren);
+            return index;
+        }
+
+        private IntArrayList lowerAll(final ContainerNode container) {
+            return lowerAll(container.getChildren());
+        }
+
+        private IntArrayList lowerAll(final List<Node> nodeChildren) {
+            final var result = new IntArrayList(nodeChildren.size());
+            for (final var child : nodeChildren) {
+                result.add(lower(child));
+            }
+            return result;
+        }
+
+        // Children are lowered before their parent, so every slice of the child array is contiguous
+        private int lower(final Node node) {
+            var index = lowered.getInt(node);
+            if (index != -1) {
+                return index;
+            }
+            index = switch (node) {
+                case NamedNode named when named.getType() != NodeType.REFERENCE ->
+                    addNode(OP_RULE, getRule(named), IntArrayList.of());
+                case TextNode text -> lowerText(text.getText());
+                case RangeNode range -> addNode(OP_CHAR_SET, getCharSet(range.getChars()), IntArrayList.of());
+                case RawRangeNode range -> { // Only sets using syntax like unicode properties are kept as they are
+                    final var chars = CharSets.parseCharSet(range.getPattern());
+                    yield chars != null
+                        ? addNode(OP_CHAR_SET, getCharSet(chars), IntArrayList.of())
+                        : addNode(OP_RAW_RANGE, getLiteral(range.getPattern()), IntArrayList.of());
+                }
+                case CharSetNode set -> addNode(OP_CHAR_SET, getCharSet(set.getChars()), IntArrayList.of());
+                case AnyMatchNode ignored -> addNode(OP_ANY_MATCH, 0, IntArrayList.of());
+                case UnaryOpNode unaryOp -> {
+                    final var body = IntArrayList.of(lower(unaryOp.getNode()));
+                    final var flags = possessiveNodes.contains(unaryOp) ? POSSESSIVE_FLAG : 0;
+                    yield addNode(OP_REPEAT, unaryOp.getOp().ordinal() | flags, body);
+                }
+                case AltListNode altList -> lowerAltList(altList);
+                case NotSetNode notSet -> addNode(OP_NOT_SET, 0, lowerAll(notSet));
+                case ContainerNode container -> addNode(OP_SEQUENCE, 0, lowerAll(container));
+                default -> addNode(OP_EMPTY, 0, IntArrayList.of()); // References and grammar nodes emit nothing
+            };
+            lowered.put(node, index);
+            return index;
+        }
+    }
+}
@@ -0,0 +1,228 @@
+/*
+ * Copyright 2023 Karma Krafts & associates
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.karma.ferrous.osmium.ir;
+
+import io.karma.ferrous.osmium.grammar.node.UnaryOpNode;
+import io.karma.ferrous.osmium.util.CodePointSet;
+import io.karma.ferrous.osmium.util.RegexDialect;
+import io.karma.ferrous.osmium.util.RegexUtils;
+import org.apiguardian.api.API;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import static io.karma.ferrous.osmium.ir.LexerIR.*;
+
+/**
+ * Emits the patterns of all top level rules of a {@link LexerIR} by iterating its arrays.
+ * The pattern of every rule is emitted once and reused at every rule which refers to it,
+ * and across emissions of the same grammar through its {@link PatternCache}.
+ * This is the only place which turns lexer rules into patterns, nodes only describe the grammar.
+ *
+ * @author Alexander Hinze
+ * @since 17/10/2026
+ */
+@API(status = API.Status.INTERNAL)
+public final class LexerIREmitter {
+    public static final String ANY_MATCH_PATTERN = "([\\n\\t\\r\\s]|.)";
+    private static final UnaryOpNode.Op[] OPS = UnaryOpNode.Op.values();
+
+    private final LexerIR ir;
+    private final RegexDialect dialect;
+    private final String[] rulePatterns;
+    private final boolean[] activeRules;
+    private final StringBuilder buffer = new StringBuilder();
+
+    private LexerIREmitter(final LexerIR ir, final RegexDialect dialect) {
+        this.ir = ir;
+        this.dialect = dialect;
+        rulePatterns = new String[ir.getRuleCount()];
+        activeRules = new boolean[ir.getRuleCount()];
+    }
+
+    /**
+     * @return the pattern of every top level rule by its name, in the order of the rules.
+     */
+    public static Map<String, String> emit(final LexerIR ir, final RegexDialect dialect) {
+        return emit(ir, dialect, PatternCache.EMPTY, Set.of()).getPatterns();
+    }
+
+    /**
+     * Only emits the patterns of the given changed rules and of rules missing from the given cache
+     * of a previous emission of the same grammar. The patterns of all other rules are taken from the cache,
+     * including those of fragments and imported rules embedded into changed rules.
+     * Changed rules have to include all rules which depend on them.
+     *
+     * @return the cache holding the patterns of all rules of the given IR.
+     */
+    public static PatternCache emit(final LexerIR ir, final RegexDialect dialect, final PatternCache cache,
+                                    final Set<String> changedRules) {
+        final var emitter = new LexerIREmitter(ir, dialect);
+        final var ruleCount = ir.getRuleCount();
+        final var ruleNames = new String[ruleCount];
+        for (var rule = 0; rule < ruleCount; rule++) {
+            final var name = ir.getRuleName(rule);
+            ruleNames[rule] = name;
+            if (!changedRules.contains(name)) {
+                emitter.rulePatterns[rule] = cache.getRulePattern(rule, name);
+            }
+        }
+        final var count = ir.getTopLevelRuleCount();
+        final var patterns = new LinkedHashMap<String, String>(count);
+        for (var rule = 0; rule < count; rule++) {
+            patterns.put(ruleNames[rule], emitter.emitRule(rule));
+        }
+        return new PatternCache(ruleNames, emitter.rulePatterns, Collections.unmodifiableMap(patterns));
+    }
+
+    private String emitRule(final int rule) {
+        var pattern = rulePatterns[rule];
+        if (pattern != null) {
+            return pattern;
+        }
+        if (activeRules[rule]) {
+            return ""; // Recursive rules can't be expressed, just like self references
+        }
+        activeRules[rule] = true;
+        final var start = buffer.length(); // Referenced rules are emitted behind the current rule and cut off again
+        emitNode(buffer, ir.getRuleRoot(rule));
+        activeRules[rule] = false;
+        pattern = buffer.substring(start);
+        buffer.setLength(start);
+        rulePatterns[rule] = pattern;
+        return pattern;
+    }
+
+    private void emitNode(final StringBuilder builder, final int node) {
+        final var operand = ir.getOperand(node);
+        switch (ir.getOpcode(node)) {
+            case OP_TEXT -> emitText(builder, ir.getLiteral(operand));
+            case OP_RAW_TEXT -> RegexUtils.appendEscaped(builder, ir.getLiteral(operand));
+            case OP_LITERAL_TRIE -> ir.getTrie(operand).appendPattern(builder, dialect);
+            case OP_RAW_RANGE -> builder.append('[').append(ir.getLiteral(operand)).append(']');
+            case OP_CHAR_SET -> RegexUtils.appendCharSet(builder, ir.getCharSet(operand), dialect);
+            case OP_ANY_MATCH -> builder.append(ANY_MATCH_PATTERN);
+            case OP_REPEAT -> emitRepeat(builder, node, operand);
+            case OP_SEQUENCE -> emitSequence(builder, node);
+            case OP_ALT_LIST -> emitAltList(builder, node);
+            case OP_NOT_SET -> emitNotSet(builder, node);
+            case OP_RULE -> builder.append(emitRule(operand));
+            default -> {
+            }
+        }
+    }
+
+    // Literals are decoded while lowering, so their escape sequences are written in the syntax of the dialect
+    private void emitText(final StringBuilder builder, final String text) {
+        for (var i = 0; i < text.length(); ) {
+            final var codePoint = text.codePointAt(i);
+            RegexUtils.appendEscapedCodePoint(builder, codePoint, dialect);
+            i += Character.charCount(codePoint);
+        }
+    }
+
+    private void emitRepeat(final StringBuilder builder, final int node, final int operand) {
+        final var op = OPS[operand & 0xFF];
+        if (op == UnaryOpNode.Op.MATCH_UNTIL) {
+            builder.append("[^");
+            emitNode(builder, ir.getChild(node, 0));
+            builder.append(']');
+            return;
+        }
+        final var start = builder.length();
+        emitNode(builder, ir.getChild(node, 0));
+        appendQuantifier(builder, start, op, (operand & POSSESSIVE_FLAG) != 0);
+    }
+
+    // Quantifiers only apply to the last atom, so everything else has to be grouped
+    private static void appendQuantifier(final StringBuilder builder, final int start, final UnaryOpNode.Op op,
+                                         final boolean isPossessive) {
+        if (!RegexUtils.isAtom(builder, start)) {
+            builder.insert(start, "(?:").append(')');
+        }
+        builder.append(op.getRegexPattern());
+        if (isPossessive) {
+            builder.append('+');
+        }
+    }
+
+    private void emitSequence(final StringBuilder builder, final int node) {
+        final var count = ir.getChildCount(node);
+        final var isGroup = count > 1;
+        if (isGroup) {
+            builder.append('(');
+        }
+        for (var i = 0; i < count; i++) {
+            emitNode(builder, ir.getChild(node, i));
+        }
+        if (isGroup) {
+            builder.append(')');
+        }
+    }
+
+    private void emitAltList(final StringBuilder builder, final int node) {
+        final var count = ir.getChildCount(node);
+        final var isGroup = count > 1;
+        if (isGroup) {
+            builder.append('(');
+        }
+        for (var i = 0; i < count; i++) {
+            emitNode(builder, ir.getChild(node, i));
+            if (i < count - 1) {
+                builder.append('|');
+            }
+        }
+        if (isGroup) {
+            builder.append(')');
+        }
+    }
+
+    private void emitNotSet(final StringBuilder builder, final int node) {
+        final var count = ir.getChildCount(node);
+        if (hasOnlyCharSets(node, count)) { // Negating a set of all characters would emit an empty class
+            var chars = CodePointSet.EMPTY;
+            for (var i = 0; i < count; i++) {
+                chars = chars.union(ir.getCharSet(ir.getOperand(ir.getChild(node, i))));
+            }
+            RegexUtils.appendCharSet(builder, chars.complement(), dialect);
+            return;
+        }
+        builder.append("[^");
+        var ranges = CodePointSet.EMPTY; // Merge all ranges, so overlapping ones are only emitted once
+        for (var i = 0; i < count; i++) {
+            final var child = ir.getChild(node, i);
+            final var operand = ir.getOperand(child);
+            switch (ir.getOpcode(child)) {
+                case OP_RAW_RANGE -> builder.append(ir.getLiteral(operand));
+                case OP_CHAR_SET -> ranges = ranges.union(ir.getCharSet(operand));
+                default -> emitNode(builder, child);
+            }
+        }
+        RegexUtils.appendCharClass(builder, ranges, dialect);
+        builder.append(']');
+    }
+
+    private boolean hasOnlyCharSets(final int node, final int count) {
+        for (var i = 0; i < count; i++) {
+            if (ir.getOpcode(ir.getChild(node, i)) != OP_CHAR_SET) {
+                return false;
+            }
+        }
+        return count > 0;
+    }
+}
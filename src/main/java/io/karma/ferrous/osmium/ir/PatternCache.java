@@ -0,0 +1,63 @@
+/*
+ * Copyright 2023 Karma Krafts & associates
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.karma.ferrous.osmium.ir;
+
+import org.apiguardian.api.API;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Map;
+
+/**
+ * The patterns of all rules of a {@link LexerIR} by their rule index, as emitted by the {@link LexerIREmitter},
+ * including those of fragments and imported rules which are only embedded into other patterns.
+ * Emitting a changed grammar consults it before emitting a rule again, so shared rules which
+ * didn't change are emitted once per grammar instead of once per emission.
+ *
+ * @author Alexander Hinze
+ * @since 17/10/2026
+ */
+@API(status = API.Status.INTERNAL)
+public final class PatternCache {
+    public static final PatternCache EMPTY = new PatternCache(new String[0], new String[0], Map.of());
+
+    private final String[] ruleNames;
+    private final String[] rulePatterns;
+    private final Map<String, String> patterns;
+
+    PatternCache(final String[] ruleNames, final String[] rulePatterns, final Map<String, String> patterns) {
+        this.ruleNames = ruleNames;
+        this.rulePatterns = rulePatterns;
+        this.patterns = patterns;
+    }
+
+    /**
+     * @return the pattern of the given rule, or null if it wasn't emitted or a lowering from scratch
+     * gave its index to a rule of another name.
+     */
+    public @Nullable String getRulePattern(final int rule, final String name) {
+        if (rule >= ruleNames.length || !ruleNames[rule].equals(name)) {
+            return null;
+        }
+        return rulePatterns[rule];
+    }
+
+    /**
+     * @return the pattern of every top level rule by its name, in the order of the rules.
+     */
+    public Map<String, String> getPatterns() {
+        return patterns;
+    }
+}
@@ -17,55 +17,132 @@ package io.karma.ferrous.osmium.parser;
 
 import io.karma.ferrous.antlr.ANTLRv4Parser;
 import io.karma.ferrous.antlr.ANTLRv4Parser.LexerAltListContext;
+import io.karma.ferrous.antlr.ANTLRv4Parser.LexerCommandContext;
 import io.karma.ferrous.antlr.ANTLRv4Parser.LexerElementContext;
+import io.karma.ferrous.antlr.ANTLRv4Parser.LexerElementsContext;
 import io.karma.ferrous.osmium.grammar.node.*;
 import org.antlr.v4.runtime.ParserRuleContext;
-import org.antlr.v4.runtime.tree.ParseTree;
-import org.antlr.v4.runtime.tree.ParseTreeWalker;
 import org.apiguardian.api.API;
 import org.jetbrains.annotations.Nullable;
 
-import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
-import java.util.Objects;
 
 /**
+ * Builds the node tree of a lexer rule in a single descent over its parse tree,
+ * so every context is visited and every node is created exactly once.
+ * Identical subtrees are shared through the given {@link NodeFactory}.
+ *
  * @author Alexander Hinze
  * @since 25/12/2023
  */
 @API(status = API.Status.INTERNAL)
-public final class LexerElementParser extends ParseAdapter {
-    private Node node;
+public final class LexerElementParser {
+    // @formatter:off
+    private LexerElementParser() {}
+    // @formatter:on
 
-    public LexerElementParser(final Path parentDir) {
-        super(parentDir);
+    public static @Nullable Node parse(final NodeFactory factory, final @Nullable LexerAltListContext context) {
+        if (context == null) {
+            return null;
+        }
+        final var altContexts = context.lexerAlt();
+        final var elements = new ArrayList<Node>(altContexts.size());
+        for (final var altContext : altContexts) {
+            final var alts = parseAll(factory, altContext.lexerElements());
+            if (alts.size() == 1) {
+                elements.add(alts.getFirst());
+                continue;
+            }
+            elements.add(factory.sequence(alts));
+        }
+        return factory.altList(elements);
     }
 
-    public static @Nullable Node parse(final Path parentDir, final @Nullable ParseTree context) {
+    /**
+     * Parses the lexer commands of all alternatives which change the lexer mode,
+     * other commands like {@code skip} or {@code channel(HIDDEN)} are ignored.
+     */
+    public static List<ModeAction> parseModeActions(final @Nullable LexerAltListContext context) {
         if (context == null) {
-            return null;
+            return Collections.emptyList();
+        }
+        final var actions = new ArrayList<ModeAction>();
+        for (final var altContext : context.lexerAlt()) {
+            final var commandsContext = altContext.lexerCommands();
+            if (commandsContext == null) {
+                continue;
+            }
+            for (final var commandContext : commandsContext.lexerCommand()) {
+                final var action = parseModeAction(commandContext);
+                if (action != null && !actions.contains(action)) {
+                    actions.add(action);
+                }
+            }
         }
-        final var parser = new LexerElementParser(parentDir);
-        ParseTreeWalker.DEFAULT.walk(parser, context);
-        return parser.node;
+        return actions;
+    }
+
+    private static @Nullable ModeAction parseModeAction(final LexerCommandContext context) {
+        final var exprContext = context.lexerCommandExpr();
+        final var argument = exprContext != null ? exprContext.getText() : null;
+        return switch (context.lexerCommandName().getText()) {
+            case "pushMode" -> argument != null ? ModeAction.push(argument) : null;
+            case "popMode" -> ModeAction.POP;
+            case "mode" -> argument != null ? ModeAction.set(argument) : null;
+            default -> null;
+        };
     }
 
-    public static List<Node> parseAll(final Path parentDir, final @Nullable ParserRuleContext context) {
+    public static List<Node> parseAll(final NodeFactory factory, final @Nullable LexerElementsContext context) {
         if (context == null) {
             return Collections.emptyList();
         }
-        // @formatter:off
-        return context.children
-            .stream()
-            .map(element -> parse(parentDir, element))
-            .filter(Objects::nonNull)
-            .toList();
-        // @formatter:on
+        final var elementContexts = context.lexerElement();
+        final var elements = new ArrayList<Node>(elementContexts.size());
+        for (final var elementContext : elementContexts) {
+            final var element = parseElement(factory, elementContext);
+            if (element == null) {
+                continue;
+            }
+            elements.add(element);
+        }
+        return elements;
     }
 
-    private static @Nullable Node parseSetElement(final @Nullable ANTLRv4Parser.SetElementContext context) {
+    private static @Nullable Node parseElement(final NodeFactory factory, final LexerElementContext context) {
+        Node node = null;
+        final var blockContext = context.lexerBlock();
+        if (blockContext != null) {
+            node = parse(factory, blockContext.lexerAltList());
+        }
+        final var atomContext = context.lexerAtom();
+        if (atomContext != null) {
+            node = parseAtom(factory, atomContext);
+        }
+        if (node == null) {
+            System.err.println(STR."Could not parse node: \{context.getText()}");
+            return null;
+        }
+        final var suffixContext = context.ebnfSuffix();
+        if (suffixContext != null) {
+            final var op = ParseAdapter.parseUnaryOp(suffixContext);
+            node = factory.unaryOp(op, node);
+        }
+        return node;
+    }
+
+    private static int parseRangeBound(final String literal) {
+        final var value = CharSets.decodeLiteral(literal.substring(1, literal.length() - 1));
+        if (value == null || value.length() != 1) {
+            return -1;
+        }
+        return value.charAt(0);
+    }
+
+    private static @Nullable Node parseSetElement(final NodeFactory factory,
+                                                  final @Nullable ANTLRv4Parser.SetElementContext context) {
         if (context == null) {
             return null;
         }
@@ -76,12 +153,12 @@ public final class LexerElementParser extends ParseAdapter {
         final var literalContext = context.STRING_LITERAL();
         if (literalContext != null) {
             final var text = literalContext.getText();
-            return new TextNode(text.substring(1, text.length() - 1));
+            return factory.text(text.substring(1, text.length() - 1));
         }
-        return parseRawRange(context);
+        return parseRawRange(factory, context);
     }
 
-    private static @Nullable Node parseRawRange(final @Nullable ParserRuleContext context) {
+    private static @Nullable Node parseRawRange(final NodeFactory factory, final @Nullable ParserRuleContext context) {
         if (context == null) {
             return null;
         }
@@ -89,24 +166,29 @@ public final class LexerElementParser extends ParseAdapter {
         if (!text.startsWith("[") || !text.contains("]")) {
             return null;
         }
-        return new RawRangeNode(text.substring(1, text.lastIndexOf(']')));
+        return factory.rawRange(text.substring(1, text.lastIndexOf(']')));
     }
 
-    private static @Nullable Node parseAtom(final @Nullable ANTLRv4Parser.LexerAtomContext context) {
+    private static @Nullable Node parseAtom(final NodeFactory factory,
+                                            final @Nullable ANTLRv4Parser.LexerAtomContext context) {
         if (context == null) {
             return null;
         }
         // Any match
         if (context.DOT() != null) {
-            return new AnyMatchNode();
+            return factory.anyMatch();
         }
         // Ranges
         final var rangeContext = context.characterRange();
         if (rangeContext != null) {
             final var literals = rangeContext.STRING_LITERAL();
-            final var start = literals.getFirst().getText().charAt(0);
-            final var end = literals.getLast().getText().charAt(0);
-            return new RangeNode(start, end);
+            final var start = parseRangeBound(literals.getFirst().getText());
+            final var end = parseRangeBound(literals.getLast().getText());
+            if (start == -1 || end == -1) {
+                System.err.println(STR."Could not parse range: \{rangeContext.getText()}");
+                return null;
+            }
+            return factory.range((char) start, (char) end);
         }
         // Literal text and references
         final var terminalContext = context.terminalDef();
@@ -114,7 +196,7 @@ public final class LexerElementParser extends ParseAdapter {
             final var literal = terminalContext.STRING_LITERAL();
             if (literal != null) {
                 final var rawText = literal.getText();
-                return new TextNode(rawText.substring(1, rawText.length() - 1));
+                return factory.text(rawText.substring(1, rawText.length() - 1));
             }
             else {
                 return new ReferenceNode(terminalContext.TOKEN_REF().getText());
@@ -127,14 +209,14 @@ public final class LexerElementParser extends ParseAdapter {
                 final var elements = new ArrayList<Node>();
                 final var elementContexts = blockSetContext.setElement();
                 for (final var elementContext : elementContexts) {
-                    final var element = parseSetElement(elementContext);
+                    final var element = parseSetElement(factory, elementContext);
                     if (element == null) {
                         System.err.println(STR."Could not parse not-set element: \{elementContext.getText()}");
                         continue;
                     }
                     elements.add(element);
                 }
-                return new NotSetNode(elements);
+                return factory.notSet(elements);
             }
             else {
                 final var elementContext = notSetContext.setElement();
@@ -142,56 +224,14 @@ public final class LexerElementParser extends ParseAdapter {
                     System.err.println(STR."Could not parse not-set: \{context.getText()}");
                     return null;
                 }
-                final var element = parseSetElement(elementContext);
+                final var element = parseSetElement(factory, elementContext);
                 if (element == null) {
                     System.err.println(STR."Could not parse not-set element: \{elementContext.getText()}");
                     return null;
                 }
-                return new NotSetNode(Collections.singletonList(element));
+                return factory.notSet(Collections.singletonList(element));
             }
         }
-        return parseRawRange(context);
-    }
-
-    @Override
-    public void enterLexerAltList(final LexerAltListContext context) {
-        if (node != null) {
-            return;
-        }
-        final var altContexts = context.lexerAlt();
-        final var elements = new ArrayList<Node>();
-        for (final var altContext : altContexts) {
-            final var alts = parseAll(parentDir, altContext.lexerElements());
-            if (alts.size() == 1) {
-                elements.add(alts.getFirst());
-                continue;
-            }
-            elements.add(new SequenceNode(alts));
-        }
-        node = new AltListNode(elements);
-    }
-
-    @Override
-    public void enterLexerElement(final LexerElementContext context) {
-        if (node != null) {
-            return;
-        }
-        final var blockContext = context.lexerBlock();
-        if (blockContext != null) {
-            node = parse(parentDir, blockContext);
-        }
-        final var atomContext = context.lexerAtom();
-        if (atomContext != null) {
-            node = parseAtom(atomContext);
-        }
-        if (node == null) {
-            System.err.println(STR."Could not parse node: \{context.getText()}");
-            return;
-        }
-        final var suffixContext = context.ebnfSuffix();
-        if (suffixContext != null) {
-            final var op = parseUnaryOp(suffixContext);
-            node = new UnaryOpNode(op, node);
-        }
+        return parseRawRange(factory, context);
     }
 }
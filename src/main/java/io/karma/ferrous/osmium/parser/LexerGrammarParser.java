@@ -18,6 +18,7 @@ package io.karma.ferrous.osmium.parser;
 import io.karma.ferrous.antlr.ANTLRv4Parser.DelegateGrammarsContext;
 import io.karma.ferrous.antlr.ANTLRv4Parser.GrammarDeclContext;
 import io.karma.ferrous.antlr.ANTLRv4Parser.LexerRuleSpecContext;
+import io.karma.ferrous.antlr.ANTLRv4Parser.ModeSpecContext;
 import io.karma.ferrous.osmium.grammar.LexerGrammar;
 import io.karma.ferrous.osmium.grammar.node.FragmentNode;
 import io.karma.ferrous.osmium.grammar.node.LexerRuleNode;
@@ -34,17 +35,25 @@ import java.nio.file.Path;
  */
 @API(status = API.Status.INTERNAL)
 public final class LexerGrammarParser extends ParseAdapter {
+    private final Path path;
     private LexerGrammar grammar;
+    private String mode = LexerRuleNode.DEFAULT_MODE;
 
-    private LexerGrammarParser(final Path parentDir) {
-        super(parentDir);
+    private LexerGrammarParser(final ParseSession session, final Path path) {
+        super(session, path.getParent());
+        this.path = path;
     }
 
-    public static @Nullable LexerGrammar parse(final Path parentDir, final @Nullable ParseTree context) {
+    public static @Nullable LexerGrammar parse(final Path path, final @Nullable ParseTree context) {
+        return parse(new ParseSession(), path, context);
+    }
+
+    public static @Nullable LexerGrammar parse(final ParseSession session, final Path path,
+                                               final @Nullable ParseTree context) {
         if (context == null) {
             return null;
         }
-        final var parser = new LexerGrammarParser(parentDir);
+        final var parser = new LexerGrammarParser(session, path);
         ParseTreeWalker.DEFAULT.walk(parser, context);
         return parser.grammar;
     }
@@ -60,26 +69,45 @@ public final class LexerGrammarParser extends ParseAdapter {
     @Override
     public void enterDelegateGrammars(final DelegateGrammarsContext context) {
         // @formatter:off
-        grammar.addImports(context.delegateGrammar()
+        grammar.addImports(loadLexerGrammars(context.delegateGrammar()
             .stream()
-            .map(importContext -> loadLexerGrammar(importContext.identifier().getFirst().getText()))
-            .toList());
+            .map(importContext -> importContext.identifier().getFirst().getText())
+            .toList()));
         // @formatter:on
     }
 
+    @Override
+    protected Path getGrammarPath() {
+        return path;
+    }
+
+    @Override
+    public void enterModeSpec(final ModeSpecContext context) {
+        mode = context.identifier().getText();
+    }
+
+    @Override
+    public void exitModeSpec(final ModeSpecContext context) {
+        mode = LexerRuleNode.DEFAULT_MODE;
+    }
+
     @Override
     public void enterLexerRuleSpec(final LexerRuleSpecContext context) {
         final var name = context.TOKEN_REF().getText();
         final var altListContext = context.lexerRuleBlock().lexerAltList();
-        final var altList = LexerElementParser.parse(parentDir, altListContext);
+        final var altList = LexerElementParser.parse(session.getNodeFactory(), altListContext);
         if (context.FRAGMENT() != null) { // We are parsing a fragment
             final var fragment = new FragmentNode(name);
             fragment.addChild(altList);
             grammar.addNode(fragment);
+            grammar.setRuleSource(name, getSource(context));
             return;
         }
         final var rule = new LexerRuleNode(name);
+        rule.setMode(mode);
+        rule.addModeActions(LexerElementParser.parseModeActions(altListContext));
         rule.addChild(altList);
         grammar.addNode(rule);
+        grammar.setRuleSource(name, STR."\{mode}:\{getSource(context)}"); // Moving a rule to another mode changes it
     }
 }
@@ -23,12 +23,18 @@ import io.karma.ferrous.osmium.grammar.node.UnaryOpNode;
 import io.karma.kommons.function.Functions;
 import org.antlr.v4.runtime.ParserRuleContext;
 import org.antlr.v4.runtime.tree.ErrorNode;
+import org.antlr.v4.runtime.tree.ParseTree;
 import org.antlr.v4.runtime.tree.TerminalNode;
 import org.apiguardian.api.API;
 import org.jetbrains.annotations.Nullable;
 
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
 
 /**
  * @author Alexander Hinze
@@ -36,9 +42,11 @@ import java.nio.file.Path;
  */
 @API(status = API.Status.INTERNAL)
 public abstract class ParseAdapter implements ANTLRv4ParserListener {
+    protected final ParseSession session;
     protected final Path parentDir;
 
-    protected ParseAdapter(final Path parentDir) {
+    protected ParseAdapter(final ParseSession session, final Path parentDir) {
+        this.session = session;
         this.parentDir = parentDir;
     }
 
@@ -55,14 +63,90 @@ public abstract class ParseAdapter implements ANTLRv4ParserListener {
         return UnaryOpNode.Op.ZERO_OR_ONE;
     }
 
+    /**
+     * Same as {@link ParseTree#getText()}, but appends all tokens to a single buffer.
+     * The ANTLR implementation copies the text of every subtree into its parent,
+     * which is quadratic in the depth of deeply nested rules.
+     */
+    protected static String getSource(final ParseTree tree) {
+        final var builder = new StringBuilder();
+        final var stack = new ArrayDeque<ParseTree>();
+        stack.push(tree);
+        while (!stack.isEmpty()) {
+            final var current = stack.pop();
+            if (current instanceof TerminalNode terminal) {
+                builder.append(terminal.getText());
+                continue;
+            }
+            for (var i = current.getChildCount() - 1; i >= 0; i--) { // Reversed, so children are popped in order
+                stack.push(current.getChild(i));
+            }
+        }
+        return builder.toString();
+    }
+
     protected @Nullable LexerGrammar loadLexerGrammar(final String name) {
         final var path = parentDir.resolve(STR."\{name}.g4");
+        session.addDependency(getGrammarPath(), path);
         if (!Files.exists(path)) {
             System.err.println(STR."Lexer grammar file \{path} does not exist");
             return null;
         }
-        final var context = Functions.tryGet(() -> Transpiler.loadGrammar(path), null);
-        final var lexerGrammar = LexerGrammarParser.parse(parentDir, context);
+        return session.getLexerGrammar(getGrammarPath(), path, this::parseLexerGrammar);
+    }
+
+    /**
+     * Loads all given lexer grammars concurrently on virtual threads.
+     * The returned list preserves the order of the given names,
+     * and all grammars which could not be loaded are reported in a single exception.
+     */
+    protected List<LexerGrammar> loadLexerGrammars(final List<String> names) {
+        final var grammars = new ArrayList<LexerGrammar>(names.size());
+        final var failedNames = new ArrayList<String>();
+        final var errors = new ArrayList<Throwable>();
+        try (final var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            // @formatter:off
+            final var futures = names.stream()
+                .map(name -> executor.submit(() -> loadLexerGrammar(name)))
+                .toList();
+            // @formatter:on
+            for (var i = 0; i < futures.size(); i++) {
+                try {
+                    final var grammar = futures.get(i).get();
+                    if (grammar == null) {
+                        failedNames.add(names.get(i));
+                        continue;
+                    }
+                    grammars.add(grammar);
+                }
+                catch (ExecutionException error) {
+                    failedNames.add(names.get(i));
+                    errors.add(error.getCause());
+                }
+                catch (InterruptedException error) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted while loading lexer grammars", error);
+                }
+            }
+        }
+        if (!failedNames.isEmpty()) {
+            final var error = new IllegalStateException(STR."Could not load lexer grammars \{failedNames}");
+            errors.forEach(error::addSuppressed);
+            throw error;
+        }
+        return grammars;
+    }
+
+    /**
+     * @return the path of the grammar file parsed by this adapter, or null for the root grammar.
+     */
+    protected @Nullable Path getGrammarPath() {
+        return null;
+    }
+
+    private @Nullable LexerGrammar parseLexerGrammar(final Path path) {
+        final var context = Functions.tryGet(() -> Transpiler.loadGrammar(path, session), null);
+        final var lexerGrammar = LexerGrammarParser.parse(session, path, context);
         if (lexerGrammar == null) {
             System.err.println(STR."Failed to parse lexer grammar file \{path}");
             return null;
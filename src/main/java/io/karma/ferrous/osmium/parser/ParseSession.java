@@ -0,0 +1,290 @@
+/*
+ * Copyright 2023 Karma Krafts & associates
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.karma.ferrous.osmium.parser;
+
+import io.karma.ferrous.osmium.TranspilerStatistics;
+import io.karma.ferrous.osmium.grammar.LexerGrammar;
+import io.karma.ferrous.osmium.grammar.node.NodeFactory;
+import org.apiguardian.api.API;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * State shared by all parse adapters which take part in
+ * parsing a single root grammar and everything it imports.
+ * Imported lexer grammars are registered by their canonical path,
+ * so every lexer grammar is parsed and resolved exactly once per session
+ * and the same instance is handed to every importer.
+ * Sessions may be used from multiple threads at once, and may be {@link #fork() forked}
+ * to share imported lexer grammars and interned nodes between multiple root grammars.
+ * Long-lived sessions can be {@link #retain(Predicate) renewed} after files changed,
+ * keeping only the lexer grammars which are still current.
+ *
+ * @author Alexander Hinze
+ * @since 17/10/2026
+ */
+@API(status = API.Status.INTERNAL)
+public final class ParseSession {
+    private final TranspilerStatistics statistics;
+    private final boolean isStreamingTokens;
+    private final LinkedHashSet<Path> dependencies = new LinkedHashSet<>();
+    private final ConcurrentHashMap<Path, Set<Path>> importedDependencies;
+    private final ConcurrentHashMap<Path, CompletableFuture<LexerGrammar>> lexerGrammars;
+    private final HashMap<Path, List<Path>> pendingImports;
+    private final NodeFactory nodeFactory;
+    private boolean isResolving = true;
+
+    public ParseSession() {
+        this(new TranspilerStatistics(), false);
+    }
+
+    public ParseSession(final TranspilerStatistics statistics, final boolean isStreamingTokens) {
+        this.statistics = statistics;
+        this.isStreamingTokens = isStreamingTokens;
+        importedDependencies = new ConcurrentHashMap<>();
+        lexerGrammars = new ConcurrentHashMap<>();
+        pendingImports = new HashMap<>();
+        nodeFactory = new NodeFactory();
+    }
+
+    private ParseSession(final ParseSession parent) {
+        statistics = parent.statistics;
+        isStreamingTokens = parent.isStreamingTokens;
+        importedDependencies = parent.importedDependencies;
+        lexerGrammars = parent.lexerGrammars;
+        pendingImports = parent.pendingImports;
+        nodeFactory = parent.nodeFactory;
+        isResolving = parent.isResolving;
+    }
+
+    private static Path canonicalize(final Path path) {
+        try {
+            return path.toRealPath();
+        }
+        catch (IOException error) {
+            return path.toAbsolutePath().normalize();
+        }
+    }
+
+    public TranspilerStatistics getStatistics() {
+        return statistics;
+    }
+
+    public boolean isStreamingTokens() {
+        return isStreamingTokens;
+    }
+
+    /**
+     * @return false if parsed grammars are handed out without resolving them,
+     * so they can be {@link io.karma.ferrous.osmium.grammar.Grammar#update applied} to a previous version.
+     */
+    public boolean isResolving() {
+        return isResolving;
+    }
+
+    public void setResolving(final boolean isResolving) {
+        this.isResolving = isResolving;
+    }
+
+    /**
+     * @return the node factory shared by this session and all of its forks.
+     */
+    public NodeFactory getNodeFactory() {
+        return nodeFactory;
+    }
+
+    /**
+     * Creates a new session for another root grammar, which shares all
+     * imported lexer grammars with this session but tracks its own dependencies.
+     */
+    public ParseSession fork() {
+        return new ParseSession(this);
+    }
+
+    /**
+     * Creates a new session which still holds every lexer grammar of this session whose file and imported files
+     * are current, so they are handed out again instead of being parsed. Interned nodes are not carried over,
+     * so the new session doesn't keep the nodes of grammars which changed alive.
+     *
+     * @param isCurrent tests whether the file at the given path didn't change since it was parsed.
+     */
+    public ParseSession retain(final Predicate<Path> isCurrent) {
+        final var session = new ParseSession(statistics, isStreamingTokens);
+        for (final var entry : lexerGrammars.entrySet()) {
+            final var future = entry.getValue();
+            if (!future.isDone() || future.isCompletedExceptionally() || future.join() == null) {
+                continue; // Failed grammars are always parsed again
+            }
+            final var path = entry.getKey();
+            if (isCurrentWithImports(path, isCurrent)) {
+                session.lexerGrammars.put(path, future);
+                final var imports = importedDependencies.get(path);
+                if (imports != null) {
+                    session.importedDependencies.put(path, imports);
+                }
+            }
+        }
+        return session;
+    }
+
+    private boolean isCurrentWithImports(final Path path, final Predicate<Path> isCurrent) {
+        final var visited = new HashSet<Path>();
+        final var queue = new ArrayDeque<Path>();
+        queue.add(path);
+        while (!queue.isEmpty()) {
+            final var current = queue.poll();
+            if (!visited.add(current)) {
+                continue;
+            }
+            if (!isCurrent.test(current)) {
+                return false;
+            }
+            final var imports = importedDependencies.get(canonicalize(current));
+            if (imports != null) {
+                queue.addAll(imports);
+            }
+        }
+        return true;
+    }
+
+    public void addDependency(final @Nullable Path importer, final Path path) {
+        final var dependency = path.toAbsolutePath().normalize();
+        if (importer == null) {
+            synchronized (this) {
+                dependencies.add(dependency);
+            }
+            return;
+        }
+        // @formatter:off
+        importedDependencies.computeIfAbsent(canonicalize(importer), key -> ConcurrentHashMap.newKeySet())
+            .add(dependency);
+        // @formatter:on
+    }
+
+    /**
+     * @return all grammar files which were requested through
+     * {@link ParseAdapter#loadLexerGrammar(String)} by the root grammar of this session
+     * or any of its imports, including ones which did not exist.
+     */
+    public Set<Path> getDependencies() {
+        final LinkedHashSet<Path> result;
+        synchronized (this) {
+            result = new LinkedHashSet<>(dependencies);
+        }
+        final var queue = new ArrayDeque<>(result);
+        while (!queue.isEmpty()) {
+            final var imports = importedDependencies.get(canonicalize(queue.poll()));
+            if (imports == null) {
+                continue;
+            }
+            for (final var dependency : imports) {
+                if (result.add(dependency)) {
+                    queue.add(dependency);
+                }
+            }
+        }
+        return Collections.unmodifiableSet(result);
+    }
+
+    public @Nullable LexerGrammar getLexerGrammar(final @Nullable Path importer, final Path path,
+                                                  final Function<Path, @Nullable LexerGrammar> loader) {
+        final var key = canonicalize(path);
+        final var importerKey = importer == null ? null : canonicalize(importer);
+        final var future = new CompletableFuture<LexerGrammar>();
+        final var existingFuture = lexerGrammars.putIfAbsent(key, future);
+        if (!addPendingImport(importerKey, key, existingFuture != null && !existingFuture.isDone())) {
+            System.err.println(STR."Lexer grammar \{key} is part of an import cycle");
+            return null;
+        }
+        try {
+            if (existingFuture != null) {
+                return existingFuture.join(); // May be null if the grammar previously failed to load
+            }
+            try {
+                final var grammar = loader.apply(key);
+                if (grammar != null && isResolving) {
+                    grammar.resolve();
+                }
+                future.complete(grammar);
+                return grammar;
+            }
+            catch (Throwable error) {
+                future.completeExceptionally(error);
+                throw error;
+            }
+        }
+        catch (CompletionException error) {
+            throw error.getCause() instanceof RuntimeException cause ? cause : error;
+        }
+        finally {
+            removePendingImport(importerKey, key);
+        }
+    }
+
+    private boolean addPendingImport(final @Nullable Path importer, final Path path, final boolean isWaiting) {
+        if (importer == null) {
+            return true; // The root grammar can never be waited on
+        }
+        synchronized (pendingImports) {
+            if (importer.equals(path) || (isWaiting && isImportedBy(path, importer))) {
+                return false; // Waiting would never complete
+            }
+            pendingImports.computeIfAbsent(importer, key -> new ArrayList<>()).add(path);
+            return true;
+        }
+    }
+
+    private void removePendingImport(final @Nullable Path importer, final Path path) {
+        if (importer == null) {
+            return;
+        }
+        synchronized (pendingImports) {
+            final var imports = pendingImports.get(importer);
+            if (imports == null) {
+                return;
+            }
+            imports.remove(path);
+            if (imports.isEmpty()) {
+                pendingImports.remove(importer);
+            }
+        }
+    }
+
+    private boolean isImportedBy(final Path importer, final Path path) {
+        final var visited = new HashSet<Path>();
+        final var queue = new ArrayDeque<Path>();
+        queue.add(importer);
+        while (!queue.isEmpty()) {
+            final var current = queue.poll();
+            if (current.equals(path)) {
+                return true;
+            }
+            if (!visited.add(current)) {
+                continue;
+            }
+            queue.addAll(pendingImports.getOrDefault(current, Collections.emptyList()));
+        }
+        return false;
+    }
+}
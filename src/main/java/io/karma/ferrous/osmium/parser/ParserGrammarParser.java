@@ -34,17 +34,22 @@ import java.nio.file.Path;
 public final class ParserGrammarParser extends ParseAdapter {
     private ParserGrammar grammar;
 
-    private ParserGrammarParser(final Path parentDir) {
-        super(parentDir);
+    private ParserGrammarParser(final ParseSession session, final Path parentDir) {
+        super(session, parentDir);
     }
 
     public static @Nullable Grammar parse(final Path parentDir, final @Nullable ParseTree context) {
+        return parse(new ParseSession(), parentDir, context);
+    }
+
+    public static @Nullable Grammar parse(final ParseSession session, final Path parentDir,
+                                          final @Nullable ParseTree context) {
         if (context == null) {
             return null;
         }
-        final var parser = new ParserGrammarParser(parentDir);
+        final var parser = new ParserGrammarParser(session, parentDir);
         ParseTreeWalker.DEFAULT.walk(parser, context);
-        return parser.grammar.resolve();
+        return session.isResolving() ? parser.grammar.resolve() : parser.grammar;
     }
 
     @Override
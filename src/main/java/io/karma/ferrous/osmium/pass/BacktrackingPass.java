@@ -0,0 +1,104 @@
+/*
+ * Copyright 2023 Karma Krafts & associates
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.karma.ferrous.osmium.pass;
+
+import io.karma.ferrous.osmium.grammar.AbstractGrammar;
+import io.karma.ferrous.osmium.grammar.BacktrackingAnalyzer;
+import io.karma.ferrous.osmium.grammar.ParserGrammar;
+import io.karma.ferrous.osmium.grammar.node.UnaryOpNode;
+import io.karma.ferrous.osmium.util.RegexDialect;
+import org.apiguardian.api.API;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Set;
+
+/**
+ * Runs the {@link BacktrackingAnalyzer} over the resolved grammar, which finds
+ * the risky repetitions which can safely be emitted as possessive repetitions in the target dialect.
+ * The decision is a result of this pass, the shared node tree is left untouched.
+ *
+ * @author Alexander Hinze
+ * @since 17/10/2026
+ */
+@API(status = API.Status.INTERNAL)
+public final class BacktrackingPass implements Pass {
+    public static final PassKey<Integer> RISKY_REPETITIONS = new PassKey<>("risky_repetitions");
+    public static final PassKey<Set<UnaryOpNode>> POSSESSIVE_REPETITIONS = new PassKey<>("possessive_repetitions");
+
+    private final RegexDialect dialect;
+
+    public BacktrackingPass(final RegexDialect dialect) {
+        this.dialect = dialect;
+    }
+
+    @Override
+    public String getName() {
+        return "backtracking";
+    }
+
+    @Override
+    public Set<PassKey<?>> getReads() {
+        return Set.of(ResolvePass.RESOLVED_GRAMMAR);
+    }
+
+    @Override
+    public Set<PassKey<?>> getWrites() {
+        return Set.of(RISKY_REPETITIONS, POSSESSIVE_REPETITIONS);
+    }
+
+    @Override
+    public void run(final PassContext context) {
+        final var grammar = context.get(ResolvePass.RESOLVED_GRAMMAR);
+        final var result = BacktrackingAnalyzer.analyze(grammar, dialect);
+        context.put(RISKY_REPETITIONS, result.riskyCount());
+        context.put(POSSESSIVE_REPETITIONS, result.possessiveNodes());
+    }
+
+    /**
+     * Analyzes the whole grammar again, since the characters following a repetition depend on every
+     * rule using it, so editing one rule can decide differently for repetitions of rules which didn't change.
+     * Those rules and all rules referring to them are reported as changed as well.
+     */
+    @Override
+    public Set<String> update(final PassContext context, final Set<String> changedRules) {
+        final var previousNodes = context.get(POSSESSIVE_REPETITIONS);
+        run(context);
+        final var nodes = context.get(POSSESSIVE_REPETITIONS);
+        final var changedNodes = Collections.newSetFromMap(new IdentityHashMap<UnaryOpNode, Boolean>());
+        for (final var node : previousNodes) {
+            if (!nodes.contains(node)) {
+                changedNodes.add(node);
+            }
+        }
+        for (final var node : nodes) {
+            if (!previousNodes.contains(node)) {
+                changedNodes.add(node);
+            }
+        }
+        var grammar = context.get(ResolvePass.RESOLVED_GRAMMAR);
+        if (grammar instanceof ParserGrammar parserGrammar) {
+            grammar = parserGrammar.getLexerGrammar();
+        }
+        if (changedNodes.isEmpty() || !(grammar instanceof AbstractGrammar abstractGrammar)) {
+            return changedRules;
+        }
+        final var rules = new HashSet<>(changedRules);
+        rules.addAll(BacktrackingAnalyzer.findRules(abstractGrammar, changedNodes));
+        return abstractGrammar.getTransitiveDependents(rules);
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright 2023 Karma Krafts & associates
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.karma.ferrous.osmium.pass;
+
+import io.karma.ferrous.osmium.ir.LexerIREmitter;
+import io.karma.ferrous.osmium.ir.PatternCache;
+import io.karma.ferrous.osmium.util.RegexDialect;
+import org.apiguardian.api.API;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Emits the final pattern of every lexer rule from the {@link LowerPass lowered} rules,
+ * which is what generators consume instead of walking the node tree themselves.
+ * Patterns are written in the given dialect of the regex engine they are generated for.
+ * The patterns of all rules are kept in a {@link PatternCache}, so updates only emit the changed rules again.
+ *
+ * @author Alexander Hinze
+ * @since 17/10/2026
+ */
+@API(status = API.Status.INTERNAL)
+public final class EmitPass implements Pass {
+    public static final PassKey<Map<String, String>> PATTERNS = new PassKey<>("patterns");
+    public static final PassKey<PatternCache> PATTERN_CACHE = new PassKey<>("pattern_cache");
+
+    private final RegexDialect dialect;
+
+    public EmitPass(final RegexDialect dialect) {
+        this.dialect = dialect;
+    }
+
+    private void emit(final PassContext context, final PatternCache previousCache, final Set<String> changedRules) {
+        final var cache = LexerIREmitter.emit(context.get(LowerPass.LEXER_IR), dialect, previousCache, changedRules);
+        context.put(PATTERN_CACHE, cache);
+        context.put(PATTERNS, cache.getPatterns());
+    }
+
+    @Override
+    public String getName() {
+        return "emit";
+    }
+
+    @Override
+    public Set<PassKey<?>> getReads() {
+        return Set.of(LowerPass.LEXER_IR);
+    }
+
+    @Override
+    public Set<PassKey<?>> getWrites() {
+        return Set.of(PATTERNS, PATTERN_CACHE);
+    }
+
+    @Override
+    public void run(final PassContext context) {
+        emit(context, PatternCache.EMPTY, Set.of());
+    }
+
+    @Override
+    public Set<String> update(final PassContext context, final Set<String> changedRules) {
+        emit(context, context.get(PATTERN_CACHE), changedRules);
+        return changedRules;
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2023 Karma Krafts & associates
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.karma.ferrous.osmium.pass;
+
+import io.karma.ferrous.osmium.grammar.Grammar;
+import io.karma.ferrous.osmium.grammar.ParserGrammar;
+import io.karma.ferrous.osmium.grammar.node.AltListNode;
+import io.karma.ferrous.osmium.grammar.node.ContainerNode;
+import io.karma.ferrous.osmium.grammar.node.NamedNode;
+import io.karma.ferrous.osmium.grammar.node.Node;
+import io.karma.ferrous.osmium.grammar.node.NodeType;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Walks the resolved lexer rules the {@link LowerPass} lowers, for passes which compute
+ * per-node results the lowering picks up.
+ *
+ * @author Alexander Hinze
+ * @since 17/10/2026
+ */
+final class LexerRules {
+    // @formatter:off
+    private LexerRules() {}
+    // @formatter:on
+
+    /**
+     * @return the lexer grammar of the given parser grammar, or the given grammar itself.
+     */
+    static @Nullable Grammar getLexerGrammar(final Grammar grammar) {
+        return grammar instanceof ParserGrammar parserGrammar ? parserGrammar.getLexerGrammar() : grammar;
+    }
+
+    /**
+     * Maps every alternative list of the given grammar which the given function returns a result for.
+     * Results of the rules which didn't change are taken over from the given previous results,
+     * since those rules keep their nodes, and so do the rules they refer to.
+     *
+     * @param previousResults the results of a previous run, or null to map every alternative list.
+     */
+    static <T> Map<AltListNode, T> mapAltLists(final Grammar lexerGrammar,
+                                               final @Nullable Map<AltListNode, T> previousResults,
+                                               final Set<String> changedRules,
+                                               final Function<AltListNode, @Nullable T> function) {
+        final var results = new IdentityHashMap<AltListNode, T>();
+        forEachAltList(lexerGrammar, (rule, altList) -> {
+            final var result = previousResults != null && !changedRules.contains(rule.getName())
+                ? previousResults.get(altList)
+                : function.apply(altList);
+            if (result != null) {
+                results.put(altList, result);
+            }
+        });
+        return Collections.unmodifiableMap(results);
+    }
+
+    /**
+     * Passes every alternative list to the given consumer once, along with the first rule it was found in.
+     * Rules of other grammars which are referenced are walked as well.
+     */
+    static void forEachAltList(final Grammar lexerGrammar, final BiConsumer<NamedNode, AltListNode> consumer) {
+        final var visited = Collections.newSetFromMap(new IdentityHashMap<Node, Boolean>());
+        final var rules = new ArrayDeque<NamedNode>(lexerGrammar.getNodes());
+        final var queue = new ArrayDeque<Node>();
+        while (!rules.isEmpty()) {
+            final var rule = rules.poll();
+            if (!visited.add(rule) || !(rule instanceof ContainerNode ruleContainer)) {
+                continue;
+            }
+            queue.addAll(ruleContainer.getChildren());
+            while (!queue.isEmpty()) {
+                final var node = queue.poll();
+                if (node instanceof NamedNode named) {
+                    if (named.getType() != NodeType.REFERENCE) {
+                        rules.add(named); // Walked as a rule of its own, like it is lowered
+                    }
+                    continue;
+                }
+                if (!(node instanceof ContainerNode container) || !visited.add(node)) {
+                    continue;
+                }
+                if (node instanceof AltListNode altList) {
+                    consumer.accept(rule, altList);
+                }
+                queue.addAll(container.getChildren());
+            }
+        }
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2023 Karma Krafts & associates
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.karma.ferrous.osmium.pass;
+
+import io.karma.ferrous.osmium.grammar.Grammar;
+import io.karma.ferrous.osmium.grammar.LexerGrammar;
+import io.karma.ferrous.osmium.grammar.ParserGrammar;
+import io.karma.ferrous.osmium.ir.LexerIR;
+import org.apiguardian.api.API;
+
+import java.util.Set;
+
+/**
+ * Lowers the resolved lexer rules into a {@link LexerIR}, marking the repetitions
+ * found by the {@link BacktrackingPass} as possessive, lowering the alternatives
+ * merged by the {@link SimplifyPass} and the tries factored by the {@link OptimizePass}.
+ * For parser grammars, their lexer grammar is lowered.
+ *
+ * @author Alexander Hinze
+ * @since 17/10/2026
+ */
+@API(status = API.Status.INTERNAL)
+public final class LowerPass implements Pass {
+    public static final PassKey<LexerIR> LEXER_IR = new PassKey<>("lexer_ir");
+
+    private static Grammar getLexerGrammar(final PassContext context) {
+        final var grammar = context.get(ResolvePass.RESOLVED_GRAMMAR);
+        if (grammar instanceof ParserGrammar parserGrammar) {
+            final var lexerGrammar = parserGrammar.getLexerGrammar();
+            return lexerGrammar != null ? lexerGrammar : new LexerGrammar(parserGrammar.getName());
+        }
+        return grammar;
+    }
+
+    @Override
+    public String getName() {
+        return "lower";
+    }
+
+    @Override
+    public Set<PassKey<?>> getReads() {
+        return Set.of(ResolvePass.RESOLVED_GRAMMAR, BacktrackingPass.POSSESSIVE_REPETITIONS,
+            SimplifyPass.MERGED_ALTERNATIVES, OptimizePass.LITERAL_TRIES);
+    }
+
+    @Override
+    public Set<PassKey<?>> getWrites() {
+        return Set.of(LEXER_IR);
+    }
+
+    @Override
+    public void run(final PassContext context) {
+        // @formatter:off
+        context.put(LEXER_IR, LexerIR.lower(getLexerGrammar(context),
+            context.get(BacktrackingPass.POSSESSIVE_REPETITIONS),
+            context.get(SimplifyPass.MERGED_ALTERNATIVES),
+            context.get(OptimizePass.LITERAL_TRIES)));
+        // @formatter:on
+    }
+
+    /**
+     * Only lowers the changed rules again, see {@link LexerIR#update},
+     * and falls back to lowering the whole grammar where that is not possible.
+     */
+    @Override
+    public Set<String> update(final PassContext context, final Set<String> changedRules) {
+        // @formatter:off
+        final var lexerIR = LexerIR.update(context.get(LEXER_IR), getLexerGrammar(context), changedRules,
+            context.get(BacktrackingPass.POSSESSIVE_REPETITIONS),
+            context.get(SimplifyPass.MERGED_ALTERNATIVES),
+            context.get(OptimizePass.LITERAL_TRIES));
+        // @formatter:on
+        if (lexerIR != null) {
+            context.put(LEXER_IR, lexerIR);
+        }
+        else {
+            run(context);
+        }
+        return changedRules;
+    }
+}
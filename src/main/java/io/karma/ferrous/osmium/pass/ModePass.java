@@ -0,0 +1,76 @@
+/*
+ * Copyright 2023 Karma Krafts & associates
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.karma.ferrous.osmium.pass;
+
+import io.karma.ferrous.osmium.grammar.LexerGrammar;
+import io.karma.ferrous.osmium.grammar.ParserGrammar;
+import org.apiguardian.api.API;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Splits all lexer rules into one {@link ModeTable} per lexer mode,
+ * so generators can emit a separate, smaller set of patterns for every mode.
+ * Fragments are never matched on their own and are left out.
+ * Only the resolved grammar is read, so this pass runs concurrently with the passes producing
+ * the {@link EmitPass#PATTERNS patterns}, which generators look up by rule name.
+ *
+ * @author Alexander Hinze
+ * @since 17/10/2026
+ */
+@API(status = API.Status.INTERNAL)
+public final class ModePass implements Pass {
+    public static final PassKey<List<ModeTable>> MODE_TABLES = new PassKey<>("mode_tables");
+
+    @Override
+    public String getName() {
+        return "modes";
+    }
+
+    @Override
+    public Set<PassKey<?>> getReads() {
+        return Set.of(ResolvePass.RESOLVED_GRAMMAR);
+    }
+
+    @Override
+    public Set<PassKey<?>> getWrites() {
+        return Set.of(MODE_TABLES);
+    }
+
+    @Override
+    public void run(final PassContext context) {
+        final var grammar = context.get(ResolvePass.RESOLVED_GRAMMAR);
+        final var lexerGrammar = grammar instanceof ParserGrammar parserGrammar
+            ? parserGrammar.getLexerGrammar()
+            : grammar instanceof LexerGrammar ? (LexerGrammar) grammar : null;
+        if (lexerGrammar == null) {
+            context.put(MODE_TABLES, List.of());
+            return;
+        }
+        final var tables = new ArrayList<ModeTable>();
+        for (final var mode : lexerGrammar.getModes().entrySet()) {
+            // @formatter:off
+            final var rules = mode.getValue().stream()
+                .map(rule -> new ModeTable.Rule(rule.getName(), List.copyOf(rule.getModeActions())))
+                .toList();
+            // @formatter:on
+            tables.add(new ModeTable(mode.getKey(), rules));
+        }
+        context.put(MODE_TABLES, List.copyOf(tables));
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2023 Karma Krafts & associates
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.karma.ferrous.osmium.pass;
+
+import io.karma.ferrous.osmium.grammar.node.LexerRuleNode;
+import io.karma.ferrous.osmium.grammar.node.ModeAction;
+import org.apiguardian.api.API;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+
+/**
+ * The rules of a single lexer mode, which a highlighter only has to evaluate while it is in that mode.
+ *
+ * @author Alexander Hinze
+ * @since 17/10/2026
+ */
+@API(status = API.Status.INTERNAL)
+public record ModeTable(String name, List<Rule> rules) {
+    /**
+     * @return all rules which leave this mode again, either by popping it or by setting another mode,
+     * like {@code mode(DEFAULT_MODE)}. The default mode is never left, since it is the mode the lexer
+     * starts in, so its rules which set another mode enter that mode instead.
+     */
+    public List<Rule> getEndRules() {
+        if (isDefault()) {
+            return List.of();
+        }
+        return rules.stream().filter(rule -> rule.isLeaving(name)).toList();
+    }
+
+    /**
+     * @return all rules which don't leave this mode.
+     */
+    public List<Rule> getInnerRules() {
+        if (isDefault()) {
+            return rules;
+        }
+        return rules.stream().filter(rule -> !rule.isLeaving(name)).toList();
+    }
+
+    public boolean isDefault() {
+        return name.equals(LexerRuleNode.DEFAULT_MODE);
+    }
+
+    public record Rule(String name, List<ModeAction> actions) {
+        public boolean isPopping() {
+            return actions.contains(ModeAction.POP);
+        }
+
+        /**
+         * @return true if this rule pops the given mode or replaces it with another one.
+         */
+        public boolean isLeaving(final String mode) {
+            for (final var action : actions) {
+                if (action.type() == ModeAction.Type.POP
+                    || (action.type() == ModeAction.Type.SET && !action.name().equals(mode))) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * @return the mode which is entered after this rule matched, or null if it stays in its mode.
+         */
+        public @Nullable ModeAction getTargetAction() {
+            for (final var action : actions) {
+                if (action.type() != ModeAction.Type.POP) {
+                    return action;
+                }
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2023 Karma Krafts & associates
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.karma.ferrous.osmium.pass;
+
+import io.karma.ferrous.osmium.grammar.node.AltListNode;
+import io.karma.ferrous.osmium.grammar.node.LiteralTrie;
+import io.karma.ferrous.osmium.grammar.node.TextNode;
+import org.apiguardian.api.API;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Factors the common prefixes out of alternatives which only consist of literals, see {@link LiteralTrie}.
+ * Works on the alternatives as they were merged by the {@link SimplifyPass}, so alternatives
+ * whose single characters became a character class are not factored. The tries are a result of this pass,
+ * which the {@link LowerPass} lowers in place of the alternatives they were built from.
+ *
+ * @author Alexander Hinze
+ * @since 17/10/2026
+ */
+@API(status = API.Status.INTERNAL)
+public final class OptimizePass implements Pass {
+    public static final PassKey<Map<AltListNode, LiteralTrie>> LITERAL_TRIES = new PassKey<>("literal_tries");
+
+    private static Map<AltListNode, LiteralTrie> factor(final PassContext context,
+                                                        final @Nullable Map<AltListNode, LiteralTrie> previousResult,
+                                                        final Set<String> changedRules) {
+        final var grammar = LexerRules.getLexerGrammar(context.get(ResolvePass.RESOLVED_GRAMMAR));
+        if (grammar == null) {
+            return Map.of();
+        }
+        final var mergedAlternatives = context.get(SimplifyPass.MERGED_ALTERNATIVES);
+        return LexerRules.mapAltLists(grammar, previousResult, changedRules, altList -> {
+            final var children = mergedAlternatives.getOrDefault(altList, altList.getChildren());
+            if (children.size() < 2) {
+                return null;
+            }
+            final var literals = new ArrayList<String>(children.size());
+            for (final var child : children) {
+                if (!(child instanceof TextNode text)) {
+                    return null;
+                }
+                literals.add(text.getText());
+            }
+            return LiteralTrie.ofLiterals(literals);
+        });
+    }
+
+    @Override
+    public String getName() {
+        return "optimize";
+    }
+
+    @Override
+    public Set<PassKey<?>> getReads() {
+        return Set.of(ResolvePass.RESOLVED_GRAMMAR, SimplifyPass.MERGED_ALTERNATIVES);
+    }
+
+    @Override
+    public Set<PassKey<?>> getWrites() {
+        return Set.of(LITERAL_TRIES);
+    }
+
+    @Override
+    public void run(final PassContext context) {
+        context.put(LITERAL_TRIES, factor(context, null, Set.of()));
+    }
+
+    /**
+     * Only factors the alternatives of the changed rules again,
+     * the tries of all other rules are taken over from the previous run.
+     */
+    @Override
+    public Set<String> update(final PassContext context, final Set<String> changedRules) {
+        context.put(LITERAL_TRIES, factor(context, context.get(LITERAL_TRIES), changedRules));
+        return changedRules;
+    }
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright 2023 Karma Krafts & associates
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.karma.ferrous.osmium.pass;
+
+import org.apiguardian.api.API;
+
+import java.util.Set;
+
+/**
+ * A single step of a {@link PassPipeline}. Passes declare every result they read and write,
+ * so the pipeline can order them, run independent passes concurrently
+ * and skip passes whose results are still available from a previous run.
+ *
+ * @author Alexander Hinze
+ * @since 17/10/2026
+ */
+@API(status = API.Status.INTERNAL)
+public interface Pass {
+    String getName();
+
+    Set<PassKey<?>> getReads();
+
+    Set<PassKey<?>> getWrites();
+
+    /**
+     * Runs this pass, which has to put a result for every key it writes into the given context.
+     */
+    void run(final PassContext context);
+
+    /**
+     * Updates the results of a previous run after the given rules of the grammar changed in place.
+     * Passes which can't limit their work to the changed rules simply run again.
+     *
+     * @return the rules whose results later passes have to update, which includes the given rules
+     * and every rule whose result this pass changed although its source didn't change.
+     */
+    default Set<String> update(final PassContext context, final Set<String> changedRules) {
+        run(context);
+        return changedRules;
+    }
+}
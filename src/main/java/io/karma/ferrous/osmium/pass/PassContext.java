@@ -0,0 +1,62 @@
+/*
+ * Copyright 2023 Karma Krafts & associates
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.karma.ferrous.osmium.pass;
+
+import io.karma.ferrous.osmium.grammar.Grammar;
+import org.apiguardian.api.API;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Holds the results of all passes which ran on a single grammar.
+ *
+ * @author Alexander Hinze
+ * @since 17/10/2026
+ */
+@API(status = API.Status.INTERNAL)
+public final class PassContext {
+    private final Grammar grammar;
+    private final ConcurrentHashMap<PassKey<?>, Object> results = new ConcurrentHashMap<>();
+
+    public PassContext(final Grammar grammar) {
+        this.grammar = grammar;
+    }
+
+    public Grammar getGrammar() {
+        return grammar;
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T get(final PassKey<T> key) {
+        final var result = results.get(key);
+        if (result == null) {
+            throw new IllegalStateException(STR."No result for \{key}");
+        }
+        return (T) result;
+    }
+
+    public <T> void put(final PassKey<T> key, final T result) {
+        results.put(key, result);
+    }
+
+    public boolean has(final PassKey<?> key) {
+        return results.containsKey(key);
+    }
+
+    public void invalidate(final PassKey<?> key) {
+        results.remove(key);
+    }
+}
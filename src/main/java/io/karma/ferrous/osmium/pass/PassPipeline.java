@@ -0,0 +1,198 @@
+/*
+ * Copyright 2023 Karma Krafts & associates
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.karma.ferrous.osmium.pass;
+
+import io.karma.ferrous.osmium.grammar.Grammar;
+import org.apiguardian.api.API;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+/**
+ * Runs an ordered list of passes over a grammar. Consecutive passes which neither read nor write
+ * anything another one of them writes are grouped into stages and run concurrently on virtual threads.
+ * The pipeline itself holds no results, every run returns a {@link PassContext} owned by the caller.
+ * Running the pipeline on that context again only runs the passes whose results are missing,
+ * and the passes depending on them. A context whose grammar was modified afterwards has to be discarded,
+ * or {@link #update(PassContext, Set) updated} if only some of its rules changed.
+ *
+ * @author Alexander Hinze
+ * @since 17/10/2026
+ */
+@API(status = API.Status.INTERNAL)
+public final class PassPipeline {
+    private final List<Pass> passes;
+    private final ArrayList<List<Pass>> stages = new ArrayList<>();
+    private final IdentityHashMap<Pass, Set<Pass>> dependents = new IdentityHashMap<>();
+
+    public PassPipeline(final List<Pass> passes) {
+        this.passes = List.copyOf(passes);
+        final var written = new HashSet<PassKey<?>>();
+        var stage = new ArrayList<Pass>();
+        for (final var pass : this.passes) {
+            for (final var key : pass.getReads()) {
+                if (!written.contains(key)) {
+                    throw new IllegalStateException(STR."Pass \{pass.getName()} reads \{key} before it is written");
+                }
+            }
+            if (stage.stream().anyMatch(other -> isConflicting(pass, other))) {
+                stages.add(stage);
+                stage = new ArrayList<>();
+            }
+            stage.add(pass);
+            written.addAll(pass.getWrites());
+        }
+        if (!stage.isEmpty()) {
+            stages.add(stage);
+        }
+        for (var i = 0; i < this.passes.size(); i++) {
+            final var pass = this.passes.get(i);
+            final var passDependents = Collections.newSetFromMap(new IdentityHashMap<Pass, Boolean>());
+            final var invalidated = new HashSet<>(pass.getWrites());
+            for (final var other : this.passes.subList(i + 1, this.passes.size())) {
+                if (other.getReads().stream().anyMatch(invalidated::contains)) {
+                    passDependents.add(other);
+                    invalidated.addAll(other.getWrites());
+                }
+            }
+            dependents.put(pass, passDependents);
+        }
+    }
+
+    public static PassPipeline of(final Pass... passes) {
+        return new PassPipeline(Arrays.asList(passes));
+    }
+
+    private static boolean isConflicting(final Pass pass, final Pass other) {
+        for (final var key : pass.getWrites()) {
+            if (other.getReads().contains(key) || other.getWrites().contains(key)) {
+                return true;
+            }
+        }
+        for (final var key : other.getWrites()) {
+            if (pass.getReads().contains(key)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isCached(final PassContext context, final Pass pass) {
+        return pass.getWrites().stream().allMatch(context::has);
+    }
+
+    private static void runStage(final List<Pass> stage, final Consumer<Pass> runner) {
+        if (stage.size() == 1) {
+            runner.accept(stage.getFirst());
+            return;
+        }
+        final var failedNames = new ArrayList<String>();
+        final var errors = new ArrayList<Throwable>();
+        try (final var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            // @formatter:off
+            final var futures = stage.stream()
+                .map(pass -> executor.submit(() -> runner.accept(pass)))
+                .toList();
+            // @formatter:on
+            for (var i = 0; i < futures.size(); i++) {
+                try {
+                    futures.get(i).get();
+                }
+                catch (ExecutionException error) {
+                    failedNames.add(stage.get(i).getName());
+                    errors.add(error.getCause());
+                }
+                catch (InterruptedException error) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted while running passes", error);
+                }
+            }
+        }
+        if (!failedNames.isEmpty()) {
+            final var error = new IllegalStateException(STR."Could not run passes \{failedNames}");
+            errors.forEach(error::addSuppressed);
+            throw error;
+        }
+    }
+
+    /**
+     * @return a new context holding the results of all passes run on the given grammar.
+     */
+    public PassContext run(final Grammar grammar) {
+        return run(new PassContext(grammar));
+    }
+
+    /**
+     * Runs every pass whose results are missing from the given context.
+     *
+     * @return the given context.
+     */
+    public PassContext run(final PassContext context) {
+        synchronized (context) {
+            for (final var stage : stages) {
+                final var pendingPasses = stage.stream().filter(pass -> !isCached(context, pass)).toList();
+                if (pendingPasses.isEmpty()) {
+                    continue;
+                }
+                for (final var pass : pendingPasses) { // Everything depending on a pass which runs again is stale
+                    for (final var dependent : dependents.get(pass)) {
+                        dependent.getWrites().forEach(context::invalidate);
+                    }
+                }
+                runStage(pendingPasses, pass -> pass.run(context));
+            }
+        }
+        return context;
+    }
+
+    /**
+     * Updates all results in the given context after only the given rules of its grammar changed in place,
+     * so passes which support it only redo the work for those rules. Every stage updates the rules
+     * changed by the edit and all rules whose results were changed by the passes of earlier stages.
+     *
+     * @return all rules whose results were updated.
+     */
+    public Set<String> update(final PassContext context, final Set<String> changedRules) {
+        synchronized (context) {
+            var stageChangedRules = changedRules;
+            for (final var stage : stages) {
+                final var rules = stageChangedRules;
+                final var updatedRules = ConcurrentHashMap.<String>newKeySet();
+                updatedRules.addAll(rules);
+                runStage(stage, pass -> {
+                    if (isCached(context, pass)) {
+                        updatedRules.addAll(pass.update(context, rules));
+                        return;
+                    }
+                    pass.run(context);
+                });
+                stageChangedRules = Set.copyOf(updatedRules);
+            }
+            return stageChangedRules;
+        }
+    }
+
+    public List<Pass> getPasses() {
+        return passes;
+    }
+
+    public List<List<Pass>> getStages() {
+        return Collections.unmodifiableList(stages);
+    }
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright 2023 Karma Krafts & associates
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.karma.ferrous.osmium.pass;
+
+import io.karma.ferrous.osmium.grammar.Grammar;
+import org.apiguardian.api.API;
+
+import java.util.Set;
+
+/**
+ * Links up all references of a grammar and its imports.
+ *
+ * @author Alexander Hinze
+ * @since 17/10/2026
+ */
+@API(status = API.Status.INTERNAL)
+public final class ResolvePass implements Pass {
+    public static final PassKey<Grammar> RESOLVED_GRAMMAR = new PassKey<>("resolved_grammar");
+
+    @Override
+    public String getName() {
+        return "resolve";
+    }
+
+    @Override
+    public Set<PassKey<?>> getReads() {
+        return Set.of();
+    }
+
+    @Override
+    public Set<PassKey<?>> getWrites() {
+        return Set.of(RESOLVED_GRAMMAR);
+    }
+
+    @Override
+    public void run(final PassContext context) {
+        context.put(RESOLVED_GRAMMAR, context.getGrammar().resolve());
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2023 Karma Krafts & associates
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.karma.ferrous.osmium.pass;
+
+import io.karma.ferrous.osmium.grammar.node.AltListNode;
+import io.karma.ferrous.osmium.grammar.node.CharSets;
+import io.karma.ferrous.osmium.grammar.node.Node;
+import org.apiguardian.api.API;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Merges every run of single character alternatives into one character class, see
+ * {@link CharSets#mergeAlternatives(List)}. Runs on the resolved grammar, so alternatives referring
+ * to fragments which match a single character, like {@code LETTER | '_'}, are merged as well.
+ * The node tree is never modified, since its nodes are shared between rules, grammars and the pipelines
+ * of all generators. The merged children of every alternative list which changed are a result of this pass,
+ * which the {@link LowerPass} lowers in place of the original children.
+ *
+ * @author Alexander Hinze
+ * @since 17/10/2026
+ */
+@API(status = API.Status.INTERNAL)
+public final class SimplifyPass implements Pass {
+    public static final PassKey<Map<AltListNode, List<Node>>> MERGED_ALTERNATIVES = new PassKey<>("merged_alternatives");
+
+    private static Map<AltListNode, List<Node>> merge(final PassContext context,
+                                                      final @Nullable Map<AltListNode, List<Node>> previousResult,
+                                                      final Set<String> changedRules) {
+        final var grammar = LexerRules.getLexerGrammar(context.get(ResolvePass.RESOLVED_GRAMMAR));
+        if (grammar == null) {
+            return Map.of();
+        }
+        return LexerRules.mapAltLists(grammar, previousResult, changedRules, altList -> {
+            final var children = CharSets.mergeAlternatives(altList.getChildren());
+            return children != altList.getChildren() ? children : null;
+        });
+    }
+
+    @Override
+    public String getName() {
+        return "simplify";
+    }
+
+    @Override
+    public Set<PassKey<?>> getReads() {
+        return Set.of(ResolvePass.RESOLVED_GRAMMAR);
+    }
+
+    @Override
+    public Set<PassKey<?>> getWrites() {
+        return Set.of(MERGED_ALTERNATIVES);
+    }
+
+    @Override
+    public void run(final PassContext context) {
+        context.put(MERGED_ALTERNATIVES, merge(context, null, Set.of()));
+    }
+
+    /**
+     * Only merges the alternatives of the changed rules again,
+     * the results of all other rules are taken over from the previous run.
+     */
+    @Override
+    public Set<String> update(final PassContext context, final Set<String> changedRules) {
+        context.put(MERGED_ALTERNATIVES, merge(context, context.get(MERGED_ALTERNATIVES), changedRules));
+        return changedRules;
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2023 Karma Krafts & associates
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.karma.ferrous.osmium.util;
+
+import org.antlr.v4.runtime.CharStream;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.TokenFactory;
+import org.antlr.v4.runtime.TokenSource;
+import org.apiguardian.api.API;
+
+/**
+ * Only hands out the tokens of a single channel of another token source.
+ * {@link org.antlr.v4.runtime.UnbufferedTokenStream} passes every token on to the parser,
+ * unlike {@link org.antlr.v4.runtime.CommonTokenStream} which skips tokens of other channels,
+ * so whitespace and comments have to be dropped before they reach the stream.
+ *
+ * @author Alexander Hinze
+ * @since 17/10/2026
+ */
+@API(status = API.Status.INTERNAL)
+public final class ChannelTokenSource implements TokenSource {
+    private final TokenSource source;
+    private final int channel;
+
+    public ChannelTokenSource(final TokenSource source, final int channel) {
+        this.source = source;
+        this.channel = channel;
+    }
+
+    @Override
+    public Token nextToken() {
+        var token = source.nextToken();
+        while (token.getChannel() != channel && token.getType() != Token.EOF) {
+            token = source.nextToken();
+        }
+        return token;
+    }
+
+    @Override
+    public int getLine() {
+        return source.getLine();
+    }
+
+    @Override
+    public int getCharPositionInLine() {
+        return source.getCharPositionInLine();
+    }
+
+    @Override
+    public CharStream getInputStream() {
+        return source.getInputStream();
+    }
+
+    @Override
+    public String getSourceName() {
+        return source.getSourceName();
+    }
+
+    @Override
+    public TokenFactory<?> getTokenFactory() {
+        return source.getTokenFactory();
+    }
+
+    @Override
+    public void setTokenFactory(final TokenFactory<?> factory) {
+        source.setTokenFactory(factory);
+    }
+}
@@ -0,0 +1,201 @@
+/*
+ * Copyright 2023 Karma Krafts & associates
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.karma.ferrous.osmium.util;
+
+import org.apiguardian.api.API;
+
+import java.util.Arrays;
+
+/**
+ * Immutable set of code points, stored as a sorted array of disjoint,
+ * non-adjacent inclusive intervals. Memory use only depends on the number
+ * of intervals, so a set covering all of Unicode is as cheap as a single character.
+ *
+ * @author Alexander Hinze
+ * @since 17/10/2026
+ */
+@API(status = API.Status.INTERNAL)
+public final class CodePointSet {
+    public static final CodePointSet EMPTY = new CodePointSet(new int[0]);
+    public static final CodePointSet ALL = new CodePointSet(new int[]{0, Character.MAX_CODE_POINT});
+
+    // Pairs of inclusive start and end code points
+    private final int[] bounds;
+
+    private CodePointSet(final int[] bounds) {
+        this.bounds = bounds;
+    }
+
+    public static CodePointSet of(final int codePoint) {
+        return of(codePoint, codePoint);
+    }
+
+    public static CodePointSet of(final int start, final int end) {
+        if (start < 0 || end > Character.MAX_CODE_POINT) {
+            throw new IllegalArgumentException(STR."Invalid code point range \{start}..\{end}");
+        }
+        if (start > end) {
+            return EMPTY;
+        }
+        return new CodePointSet(new int[]{start, end});
+    }
+
+    public boolean contains(final int codePoint) {
+        var low = 0;
+        var high = getIntervalCount() - 1;
+        while (low <= high) {
+            final var mid = (low + high) >>> 1;
+            if (codePoint < bounds[mid << 1]) {
+                high = mid - 1;
+            }
+            else if (codePoint > bounds[(mid << 1) + 1]) {
+                low = mid + 1;
+            }
+            else {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public CodePointSet union(final CodePointSet other) {
+        if (isEmpty()) {
+            return other;
+        }
+        if (other.isEmpty()) {
+            return this;
+        }
+        final var result = new int[bounds.length + other.bounds.length];
+        var size = 0;
+        var i = 0;
+        var j = 0;
+        while (i < bounds.length || j < other.bounds.length) {
+            final int start;
+            final int end;
+            // Always merge the interval which starts first
+            if (j >= other.bounds.length || (i < bounds.length && bounds[i] <= other.bounds[j])) {
+                start = bounds[i];
+                end = bounds[i + 1];
+                i += 2;
+            }
+            else {
+                start = other.bounds[j];
+                end = other.bounds[j + 1];
+                j += 2;
+            }
+            if (size > 0 && start <= result[size - 1] + 1) { // Overlapping or adjacent
+                result[size - 1] = Math.max(result[size - 1], end);
+                continue;
+            }
+            result[size++] = start;
+            result[size++] = end;
+        }
+        return new CodePointSet(Arrays.copyOf(result, size));
+    }
+
+    public CodePointSet intersection(final CodePointSet other) {
+        if (isEmpty() || other.isEmpty()) {
+            return EMPTY;
+        }
+        final var result = new int[bounds.length + other.bounds.length];
+        var size = 0;
+        var i = 0;
+        var j = 0;
+        while (i < bounds.length && j < other.bounds.length) {
+            final var start = Math.max(bounds[i], other.bounds[j]);
+            final var end = Math.min(bounds[i + 1], other.bounds[j + 1]);
+            if (start <= end) {
+                result[size++] = start;
+                result[size++] = end;
+            }
+            // Advance the interval which ends first
+            if (bounds[i + 1] < other.bounds[j + 1]) {
+                i += 2;
+            }
+            else {
+                j += 2;
+            }
+        }
+        return size == 0 ? EMPTY : new CodePointSet(Arrays.copyOf(result, size));
+    }
+
+    public CodePointSet complement() {
+        final var result = new int[bounds.length + 2];
+        var size = 0;
+        var next = 0;
+        for (var i = 0; i < bounds.length; i += 2) {
+            if (bounds[i] > next) {
+                result[size++] = next;
+                result[size++] = bounds[i] - 1;
+            }
+            next = bounds[i + 1] + 1;
+        }
+        if (next <= Character.MAX_CODE_POINT) {
+            result[size++] = next;
+            result[size++] = Character.MAX_CODE_POINT;
+        }
+        return size == 0 ? EMPTY : new CodePointSet(Arrays.copyOf(result, size));
+    }
+
+    public int getIntervalCount() {
+        return bounds.length >> 1;
+    }
+
+    public int getStart(final int interval) {
+        return bounds[interval << 1];
+    }
+
+    public int getEnd(final int interval) {
+        return bounds[(interval << 1) + 1];
+    }
+
+    /**
+     * @return the number of code points in this set.
+     */
+    public long size() {
+        var size = 0L;
+        for (var i = 0; i < bounds.length; i += 2) {
+            size += bounds[i + 1] - bounds[i] + 1;
+        }
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return bounds.length == 0;
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+        return obj instanceof CodePointSet set && Arrays.equals(bounds, set.bounds);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(bounds);
+    }
+
+    @Override
+    public String toString() {
+        final var builder = new StringBuilder("[");
+        for (var i = 0; i < bounds.length; i += 2) {
+            if (i > 0) {
+                builder.append(", ");
+            }
+            builder.append(STR."\{bounds[i]}..\{bounds[i + 1]}");
+        }
+        return builder.append(']').toString();
+    }
+}
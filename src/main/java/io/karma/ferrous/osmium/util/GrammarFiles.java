@@ -0,0 +1,137 @@
+/*
+ * Copyright 2023 Karma Krafts & associates
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.karma.ferrous.osmium.util;
+
+import org.apiguardian.api.API;
+
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * @author Alexander Hinze
+ * @since 17/10/2026
+ */
+@API(status = API.Status.INTERNAL)
+public final class GrammarFiles {
+    private static final String GRAMMAR_EXTENSION = ".g4";
+    private static final String GLOB_CHARS = "*?[{";
+
+    // @formatter:off
+    private GrammarFiles() {}
+    // @formatter:on
+
+    /**
+     * Collects all grammar files described by the given pattern, which may either be
+     * a single grammar file, a directory which is searched recursively, a list file
+     * containing one grammar path per line or a glob pattern.
+     *
+     * @param pattern the pattern describing the grammar files to collect.
+     * @return all matching grammar files in a stable order.
+     */
+    public static List<Path> collect(final String pattern) throws IOException {
+        if (isGlob(pattern)) {
+            return collectGlob(pattern);
+        }
+        final var path = Path.of(pattern);
+        if (Files.isDirectory(path)) {
+            return collectDirectory(path);
+        }
+        if (!Files.isRegularFile(path)) {
+            throw new IllegalStateException(STR."Grammar file or directory \{path} does not exist");
+        }
+        if (isGrammarFile(path)) {
+            return List.of(path);
+        }
+        return collectList(path);
+    }
+
+    public static boolean isGrammarFile(final Path path) {
+        return path.getFileName().toString().endsWith(GRAMMAR_EXTENSION);
+    }
+
+    public static String getBaseName(final Path path) {
+        final var fileName = path.getFileName().toString();
+        final var index = fileName.lastIndexOf('.');
+        return index == -1 ? fileName : fileName.substring(0, index);
+    }
+
+    private static boolean isGlob(final String pattern) {
+        for (var i = 0; i < pattern.length(); i++) {
+            if (GLOB_CHARS.indexOf(pattern.charAt(i)) != -1) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static List<Path> collectDirectory(final Path directory) throws IOException {
+        try (final Stream<Path> files = Files.walk(directory)) {
+            // @formatter:off
+            return files.filter(Files::isRegularFile)
+                .filter(GrammarFiles::isGrammarFile)
+                .sorted()
+                .toList();
+            // @formatter:on
+        }
+    }
+
+    private static List<Path> collectGlob(final String pattern) throws IOException {
+        // Walk from the longest directory prefix which does not contain any glob characters
+        final var normalized = pattern.replace('\\', '/');
+        var prefixEnd = 0;
+        for (var i = 0; i < normalized.length(); i++) {
+            final var c = normalized.charAt(i);
+            if (GLOB_CHARS.indexOf(c) != -1) {
+                break;
+            }
+            if (c == '/') {
+                prefixEnd = i + 1;
+            }
+        }
+        final var directory = Path.of(normalized.substring(0, prefixEnd)).toAbsolutePath();
+        final var remainder = normalized.substring(prefixEnd);
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        final var matcher = FileSystems.getDefault().getPathMatcher(STR."glob:\{remainder}");
+        try (final Stream<Path> files = Files.walk(directory)) {
+            // @formatter:off
+            return files.filter(Files::isRegularFile)
+                .filter(file -> matcher.matches(directory.relativize(file)))
+                .sorted()
+                .toList();
+            // @formatter:on
+        }
+    }
+
+    private static List<Path> collectList(final Path listFile) throws IOException {
+        final var directory = listFile.toAbsolutePath().getParent();
+        final var paths = new ArrayList<Path>();
+        for (final var line : Files.readAllLines(listFile)) {
+            final var entry = line.strip();
+            if (entry.isEmpty() || entry.startsWith("#")) {
+                continue;
+            }
+            paths.add(directory.resolve(entry));
+        }
+        return paths;
+    }
+}
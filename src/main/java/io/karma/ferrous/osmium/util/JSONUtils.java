@@ -19,6 +19,7 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.ObjectReader;
 import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import org.apiguardian.api.API;
 
 import java.io.IOException;
@@ -36,6 +37,7 @@ public final class JSONUtils {
     private static final ObjectMapper MAPPER = new ObjectMapper();
     private static final ObjectReader READER = MAPPER.reader();
     private static final ObjectWriter WRITER = MAPPER.writer();
+    private static final ObjectWriter PRETTY_WRITER = MAPPER.writerWithDefaultPrettyPrinter();
 
     // @formatter:off
     private JSONUtils() {}
@@ -54,6 +56,25 @@ public final class JSONUtils {
         }
     }
 
+    public static <T> T readValue(final Class<T> type, final byte[] data) throws IOException {
+        return READER.readValue(data, type);
+    }
+
+    public static ObjectNode createObject() {
+        return MAPPER.createObjectNode();
+    }
+
+    public static byte[] writeValueAsBytes(final Object value) throws IOException {
+        return WRITER.writeValueAsBytes(value);
+    }
+
+    /**
+     * Writes the given value indented, for files which are read by people as well.
+     */
+    public static byte[] writeValueAsPrettyBytes(final Object value) throws IOException {
+        return PRETTY_WRITER.writeValueAsBytes(value);
+    }
+
     public static void writeValue(final Object value, final WritableByteChannel channel) throws IOException {
         try (final var writer = Channels.newWriter(channel, StandardCharsets.UTF_8)) {
             WRITER.writeValue(writer, value);
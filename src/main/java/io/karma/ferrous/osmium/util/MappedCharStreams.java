@@ -0,0 +1,79 @@
+/*
+ * Copyright 2023 Karma Krafts & associates
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.karma.ferrous.osmium.util;
+
+import org.antlr.v4.runtime.CodePointBuffer;
+import org.antlr.v4.runtime.CodePointCharStream;
+import org.apiguardian.api.API;
+
+import java.io.IOException;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Creates ANTLR char streams from memory-mapped files.
+ * The mapped bytes are decoded straight into the code point buffer
+ * of the stream without reading them into intermediate heap buffers first.
+ *
+ * @author Alexander Hinze
+ * @since 17/10/2026
+ */
+@API(status = API.Status.INTERNAL)
+public final class MappedCharStreams {
+    private static final int DECODE_BUFFER_SIZE = 4096;
+
+    // @formatter:off
+    private MappedCharStreams() {}
+    // @formatter:on
+
+    public static CodePointCharStream fromPath(final Path path) throws IOException {
+        try (final var channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            final var size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException(STR."File \{path} is too large to be mapped");
+            }
+            final var bytes = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            // @formatter:off
+            final var decoder = StandardCharsets.UTF_8.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+            // @formatter:on
+            // UTF-8 never yields more code points than bytes, so the buffer never has to grow
+            final var builder = CodePointBuffer.builder((int) size);
+            final var chars = CharBuffer.allocate(DECODE_BUFFER_SIZE);
+            while (true) {
+                final var result = decoder.decode(bytes, chars, true);
+                if (result.isError()) {
+                    result.throwException();
+                }
+                chars.flip();
+                builder.append(chars);
+                chars.compact();
+                if (result.isUnderflow()) {
+                    break;
+                }
+            }
+            decoder.flush(chars);
+            chars.flip();
+            builder.append(chars);
+            return CodePointCharStream.fromBuffer(builder.build(), path.toString());
+        }
+    }
+}
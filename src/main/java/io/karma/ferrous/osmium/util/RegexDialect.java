@@ -0,0 +1,45 @@
+/*
+ * Copyright 2023 Karma Krafts & associates
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.karma.ferrous.osmium.util;
+
+import org.apiguardian.api.API;
+
+/**
+ * The regex engines patterns are emitted for, which differ in how
+ * characters without a printable form have to be escaped and in whether
+ * they support possessive quantifiers.
+ *
+ * @author Alexander Hinze
+ * @since 17/10/2026
+ */
+@API(status = API.Status.INTERNAL)
+public enum RegexDialect {
+    // @formatter:off
+    ONIGURUMA(true),  // Used by TextMate, which understands braced hex escapes
+    PYTHON   (false); // Used by Pygments, which only understands fixed length hex escapes
+                      // and needs Python 3.11 for possessive quantifiers
+    // @formatter:on
+
+    private final boolean isPossessiveSupported;
+
+    RegexDialect(final boolean isPossessiveSupported) {
+        this.isPossessiveSupported = isPossessiveSupported;
+    }
+
+    public boolean isPossessiveSupported() {
+        return isPossessiveSupported;
+    }
+}
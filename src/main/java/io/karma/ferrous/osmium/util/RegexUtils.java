@@ -15,34 +15,262 @@
 
 package io.karma.ferrous.osmium.util;
 
-import it.unimi.dsi.fastutil.chars.CharOpenHashSet;
 import org.apiguardian.api.API;
 
 /**
+ * Emits patterns straight into the buffer of the caller,
+ * so escaping characters never allocates intermediate strings.
+ *
  * @author Alexander Hinze
  * @since 28/12/2023
  */
 @API(status = API.Status.INTERNAL)
 public final class RegexUtils {
-    private static final CharOpenHashSet ESCAPED_CHARS = new CharOpenHashSet("-+*/()[]{}|^$.:".toCharArray());
+    public static final String ALL_CHARS_PATTERN = "[\\s\\S]"; // Neither dialect accepts an empty class like [^]
+    public static final String NO_CHARS_PATTERN = "(?!)";
+    private static final boolean[] ESCAPED_CHARS = new boolean[128];
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    static {
+        for (final var c : "-+*?/()[]{}|^$.:".toCharArray()) {
+            ESCAPED_CHARS[c] = true;
+        }
+    }
 
     // @formatter:off
     private RegexUtils() {}
     // @formatter:on
 
-    public static String escape(final char value) {
-        if (!ESCAPED_CHARS.contains(value)) {
-            return Character.toString(value);
+    public static void appendEscaped(final StringBuilder builder, final char value) {
+        if (value < ESCAPED_CHARS.length && ESCAPED_CHARS[value]) {
+            builder.append('\\');
         }
-        return STR."\\\{value}";
+        builder.append(value);
     }
 
-    public static String escape(final String value) {
+    public static void appendEscaped(final StringBuilder builder, final CharSequence value) {
         final var length = value.length();
-        final var builder = new StringBuilder();
         for (var i = 0; i < length; i++) {
-            builder.append(escape(value.charAt(i)));
+            appendEscaped(builder, value.charAt(i));
+        }
+    }
+
+    /**
+     * Appends a single decoded code point, so unlike literal text,
+     * backslashes and characters which can't be written as-is are escaped too,
+     * using the escape syntax of the given dialect.
+     */
+    public static void appendEscapedCodePoint(final StringBuilder builder, final int codePoint,
+                                              final RegexDialect dialect) {
+        switch (codePoint) {
+            case '\t' -> builder.append("\\t");
+            case '\n' -> builder.append("\\n");
+            case '\r' -> builder.append("\\r");
+            case '\f' -> builder.append("\\f");
+            case '\\' -> builder.append("\\\\");
+            default -> {
+                if (!Character.isISOControl(codePoint) && Character.isDefined(codePoint)
+                    && Character.isBmpCodePoint(codePoint) && !Character.isSurrogate((char) codePoint)) {
+                    appendEscaped(builder, (char) codePoint);
+                    return;
+                }
+                switch (dialect) {
+                    case ONIGURUMA -> {
+                        builder.append("\\x{");
+                        appendHex(builder, codePoint, 1);
+                        builder.append('}');
+                    }
+                    case PYTHON -> {
+                        if (codePoint <= 0xFF) {
+                            builder.append("\\x");
+                            appendHex(builder, codePoint, 2);
+                        }
+                        else if (codePoint <= 0xFFFF) {
+                            builder.append("\\u");
+                            appendHex(builder, codePoint, 4);
+                        }
+                        else {
+                            builder.append("\\U");
+                            appendHex(builder, codePoint, 8);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private static void appendHex(final StringBuilder builder, final int value, final int minDigits) {
+        final var digits = Math.max(minDigits, (32 - Integer.numberOfLeadingZeros(value) + 3) >> 2);
+        for (var shift = (digits - 1) << 2; shift >= 0; shift -= 4) {
+            builder.append(HEX_DIGITS[(value >>> shift) & 0xF]);
+        }
+    }
+
+    public static String escape(final char value) {
+        final var builder = new StringBuilder(2);
+        appendEscaped(builder, value);
+        return builder.toString();
+    }
+
+    /**
+     * @return true if the given pattern is a single atom which a quantifier applies to as a whole,
+     * like a single character, an escape sequence, a character class or a group.
+     */
+    public static boolean isAtom(final CharSequence pattern) {
+        return isAtom(pattern, 0);
+    }
+
+    /**
+     * @return true if the part of the given pattern after the given index is a single atom.
+     * Lookarounds are never atoms, since Oniguruma doesn't allow quantifying them.
+     */
+    public static boolean isAtom(final CharSequence pattern, final int start) {
+        final var length = pattern.length();
+        if (start >= length || isLookaround(pattern, start)) {
+            return false;
         }
+        return getAtomEnd(pattern, start) == length;
+    }
+
+    private static boolean isLookaround(final CharSequence pattern, final int start) {
+        if (start + 2 >= pattern.length() || pattern.charAt(start) != '(' || pattern.charAt(start + 1) != '?') {
+            return false;
+        }
+        final var kind = pattern.charAt(start + 2);
+        return kind == '=' || kind == '!' || (kind == '<' && start + 3 < pattern.length()
+            && (pattern.charAt(start + 3) == '=' || pattern.charAt(start + 3) == '!'));
+    }
+
+    // Returns the index after the atom starting at the given index, or -1 if the pattern is malformed
+    private static int getAtomEnd(final CharSequence pattern, final int start) {
+        final var length = pattern.length();
+        final var c = pattern.charAt(start);
+        switch (c) {
+            case '\\' -> {
+                if (start + 1 >= length) {
+                    return -1;
+                }
+                final var escaped = pattern.charAt(start + 1);
+                if ((escaped == 'x' || escaped == 'p') && start + 2 < length && pattern.charAt(start + 2) == '{') {
+                    final var index = indexOf(pattern, '}', start + 3);
+                    return index == -1 ? -1 : index + 1;
+                }
+                final var end = switch (escaped) { // Fixed length hex escapes of Python
+                    case 'x' -> start + 4;
+                    case 'u' -> start + 6;
+                    case 'U' -> start + 10;
+                    default -> start + 2;
+                };
+                return end <= length ? end : -1;
+            }
+            case '[' -> {
+                var index = start + 1;
+                if (index < length && pattern.charAt(index) == '^') {
+                    index++;
+                }
+                if (index < length && pattern.charAt(index) == ']') { // Leading bracket is literal
+                    index++;
+                }
+                while (index < length) {
+                    final var current = pattern.charAt(index);
+                    if (current == '\\') {
+                        index += 2;
+                        continue;
+                    }
+                    if (current == '[') { // Nested class
+                        index = getAtomEnd(pattern, index);
+                        if (index == -1) {
+                            return -1;
+                        }
+                        continue;
+                    }
+                    if (current == ']') {
+                        return index + 1;
+                    }
+                    index++;
+                }
+                return -1;
+            }
+            case '(' -> {
+                var index = start + 1;
+                while (index < length) {
+                    final var current = pattern.charAt(index);
+                    if (current == ')') {
+                        return index + 1;
+                    }
+                    index = getAtomEnd(pattern, index);
+                    if (index == -1) {
+                        return -1;
+                    }
+                }
+                return -1;
+            }
+            default -> {
+                return start + Character.charCount(Character.codePointAt(pattern, start));
+            }
+        }
+    }
+
+    private static int indexOf(final CharSequence pattern, final char value, final int start) {
+        for (var i = start; i < pattern.length(); i++) {
+            if (pattern.charAt(i) == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Appends the given set as a character class, which is negated if that needs fewer intervals.
+     * Sets of all or no characters have no class without intervals, so they are written as
+     * {@link #ALL_CHARS_PATTERN} and {@link #NO_CHARS_PATTERN}.
+     */
+    public static void appendCharSet(final StringBuilder builder, final CodePointSet set,
+                                     final RegexDialect dialect) {
+        if (set.isEmpty()) {
+            builder.append(NO_CHARS_PATTERN);
+            return;
+        }
+        final var complement = set.complement();
+        if (complement.isEmpty()) {
+            builder.append(ALL_CHARS_PATTERN);
+            return;
+        }
+        if (complement.getIntervalCount() < set.getIntervalCount()) {
+            builder.append("[^");
+            appendCharClass(builder, complement, dialect);
+            builder.append(']');
+            return;
+        }
+        builder.append('[');
+        appendCharClass(builder, set, dialect);
+        builder.append(']');
+    }
+
+    /**
+     * Appends the given set as the contents of a character class,
+     * emitting one range per interval instead of every single character.
+     */
+    public static void appendCharClass(final StringBuilder builder, final CodePointSet set,
+                                       final RegexDialect dialect) {
+        final var count = set.getIntervalCount();
+        for (var i = 0; i < count; i++) {
+            final var start = set.getStart(i);
+            final var end = set.getEnd(i);
+            appendEscapedCodePoint(builder, start, dialect);
+            if (end == start) {
+                continue;
+            }
+            if (end > start + 1) {
+                builder.append('-');
+            }
+            appendEscapedCodePoint(builder, end, dialect);
+        }
+    }
+
+    public static String escape(final String value) {
+        final var builder = new StringBuilder(value.length());
+        appendEscaped(builder, value);
         return builder.toString();
     }
 }
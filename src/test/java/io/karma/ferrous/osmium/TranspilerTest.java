@@ -0,0 +1,103 @@
+/*
+ * Copyright 2023 Karma Krafts & associates
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.karma.ferrous.osmium;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Alexander Hinze
+ * @since 17/10/2026
+ */
+public final class TranspilerTest {
+    // @formatter:off
+    private static final String LEXER_SOURCE = """
+        lexer grammar CommonLexer;
+        ID : [a-z]+ ;
+        NUMBER : [0-9]+ ;
+        """;
+    private static final String FIRST_SOURCE = """
+        parser grammar First;
+        options { tokenVocab = CommonLexer; }
+        file : ID* EOF ;
+        """;
+    private static final String SECOND_SOURCE = """
+        parser grammar Second;
+        options { tokenVocab = CommonLexer; }
+        file : NUMBER* EOF ;
+        """;
+    // @formatter:on
+
+    @TempDir
+    Path directory;
+    private Path firstPath;
+    private Path secondPath;
+    private Path outDir;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        firstPath = directory.resolve("First.g4");
+        secondPath = directory.resolve("Second.g4");
+        outDir = directory.resolve("out");
+        Files.writeString(directory.resolve("CommonLexer.g4"), LEXER_SOURCE);
+        Files.writeString(firstPath, FIRST_SOURCE);
+        Files.writeString(secondPath, SECOND_SOURCE);
+    }
+
+    @Test
+    void testBatchWithSharedImport() throws IOException {
+        final var transpiler = new Transpiler(new TranspilerConfig());
+        final var result = transpiler.transpileAll(List.of(firstPath, secondPath), outDir, "textmate");
+        assertTrue(result.isSuccessful(), result.getFailures()::toString);
+        assertEquals(2, result.getOutputs().size());
+        for (final var outPath : result.getOutputs().values()) {
+            final var output = Files.readString(outPath);
+            assertTrue(output.contains("[a-z]+")); // Both grammars include the rules of the shared lexer
+            assertTrue(output.contains("[0-9]+"));
+        }
+        assertEquals(outDir.resolve("First.tmLanguage.json"), result.getOutputs().get(firstPath));
+        assertEquals(outDir.resolve("Second.tmLanguage.json"), result.getOutputs().get(secondPath));
+        // Every grammar file, including the shared import, is parsed by the same transpiler
+        assertEquals(3, transpiler.getStatistics().getPredictionModes().size());
+    }
+
+    @Test
+    void testFailingGrammarDoesNotAbortBatch() throws IOException {
+        final var brokenPath = directory.resolve("Broken.g4");
+        Files.writeString(brokenPath, "parser grammar Broken;\nfile : ( ;\n");
+        final var transpiler = new Transpiler(new TranspilerConfig());
+        final var result = transpiler.transpileAll(List.of(firstPath, brokenPath, secondPath), outDir, "textmate");
+        assertFalse(result.isSuccessful());
+        assertEquals(2, result.getOutputs().size());
+        assertTrue(result.getFailures().containsKey(brokenPath));
+    }
+
+    @Test
+    void testConflictingOutputsAreRejected() {
+        final var otherPath = directory.resolve("other").resolve("First.g4");
+        final var transpiler = new Transpiler(new TranspilerConfig());
+        assertThrows(IllegalStateException.class,
+            () -> transpiler.transpileAll(List.of(firstPath, otherPath), outDir, "textmate"));
+    }
+}
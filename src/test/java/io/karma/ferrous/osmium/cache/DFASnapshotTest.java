@@ -0,0 +1,183 @@
+/*
+ * Copyright 2023 Karma Krafts & associates
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.karma.ferrous.osmium.cache;
+
+import io.karma.ferrous.antlr.ANTLRv4Lexer;
+import io.karma.ferrous.antlr.ANTLRv4Parser;
+import io.karma.ferrous.osmium.Transpiler;
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.atn.LexerATNConfig;
+import org.antlr.v4.runtime.dfa.DFA;
+import org.antlr.v4.runtime.dfa.DFAState;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Alexander Hinze
+ * @since 17/10/2026
+ */
+public final class DFASnapshotTest {
+    // @formatter:off
+    private static final String SOURCE = """
+        /** Doc comments and block comments are matched non-greedily */
+        lexer grammar Test;
+        // Line comment
+        A : 'a' /* inline */ ;
+        B : A 'b' | [0-9]+ ;
+        fragment C : ~[\\r\\n]* ;
+        mode Other;
+        D : 'd' -> popMode ;
+        """;
+    // @formatter:on
+
+    @TempDir
+    Path directory;
+    private Path grammarPath;
+    private Path snapshotPath;
+
+    private static DFA[] getParserDFAs() {
+        return new ANTLRv4Parser(null).getInterpreter().decisionToDFA;
+    }
+
+    private static DFA[] getLexerDFAs() {
+        return new ANTLRv4Lexer(CharStreams.fromString("")).getInterpreter().decisionToDFA;
+    }
+
+    private static void clear(final DFA[] dfas) {
+        for (var i = 0; i < dfas.length; i++) {
+            dfas[i] = new DFA(dfas[i].atnStartState, i);
+        }
+    }
+
+    private static List<Set<DFAState>> getStates(final DFA[] dfas) {
+        final var states = new ArrayList<Set<DFAState>>(dfas.length);
+        for (final var dfa : dfas) {
+            synchronized (dfa.states) {
+                states.add(new HashSet<>(dfa.states.keySet()));
+            }
+        }
+        return states;
+    }
+
+    private static int countNonGreedyConfigs(final DFA[] dfas) {
+        var count = 0;
+        for (final var dfa : dfas) {
+            for (final var state : dfa.states.keySet()) {
+                for (final var config : state.configs) {
+                    if (config instanceof LexerATNConfig lexerConfig && lexerConfig.hasPassedThroughNonGreedyDecision()) {
+                        count++;
+                    }
+                }
+            }
+        }
+        return count;
+    }
+
+    @BeforeEach
+    void setUp() throws IOException {
+        clear(getParserDFAs());
+        clear(getLexerDFAs());
+        grammarPath = directory.resolve("Test.g4");
+        snapshotPath = directory.resolve("dfa.bin");
+        Files.writeString(grammarPath, SOURCE);
+    }
+
+    @Test
+    void testRoundTrip() throws IOException {
+        Transpiler.loadGrammar(grammarPath);
+        final var parserStates = getStates(getParserDFAs());
+        final var lexerStates = getStates(getLexerDFAs());
+        final var nonGreedyConfigs = countNonGreedyConfigs(getLexerDFAs());
+        assertTrue(nonGreedyConfigs > 0);
+        DFASnapshot.save(snapshotPath);
+
+        clear(getParserDFAs());
+        clear(getLexerDFAs());
+        assertTrue(DFASnapshot.load(snapshotPath));
+        assertEquals(parserStates, getStates(getParserDFAs()));
+        assertEquals(lexerStates, getStates(getLexerDFAs()));
+        assertEquals(nonGreedyConfigs, countNonGreedyConfigs(getLexerDFAs()));
+
+        // The restored DFAs already cover the same input, so parsing it again adds no states
+        Transpiler.loadGrammar(grammarPath);
+        assertEquals(parserStates, getStates(getParserDFAs()));
+        assertEquals(lexerStates, getStates(getLexerDFAs()));
+    }
+
+    @Test
+    void testRestoredDFAsParseOtherInput() throws IOException {
+        Transpiler.loadGrammar(grammarPath);
+        DFASnapshot.save(snapshotPath);
+        clear(getParserDFAs());
+        clear(getLexerDFAs());
+        assertTrue(DFASnapshot.load(snapshotPath));
+
+        final var otherPath = directory.resolve("Other.g4");
+        Files.writeString(otherPath, SOURCE.replace("'a'", "'x' /* more */ 'y'"));
+        final var context = Transpiler.loadGrammar(otherPath);
+        final var lexer = new ANTLRv4Lexer(CharStreams.fromPath(otherPath));
+        final var expected = new ANTLRv4Parser(new CommonTokenStream(lexer)).grammarSpec();
+        assertEquals(expected.toStringTree(), context.toStringTree());
+    }
+
+    @Test
+    void testPopulatedDFAsAreKept() throws IOException {
+        Transpiler.loadGrammar(grammarPath);
+        DFASnapshot.save(snapshotPath);
+        final var parserDFAs = getParserDFAs();
+        final var dfa = parserDFAs[0];
+        assertTrue(DFASnapshot.load(snapshotPath));
+        assertSame(dfa, parserDFAs[0]);
+    }
+
+    @Test
+    void testMissingSnapshotIsIgnored() {
+        assertFalse(DFASnapshot.load(snapshotPath));
+    }
+
+    @Test
+    void testCorruptedSnapshotIsIgnored() throws IOException {
+        Transpiler.loadGrammar(grammarPath);
+        DFASnapshot.save(snapshotPath);
+        final var data = Files.readAllBytes(snapshotPath);
+        Files.write(snapshotPath, Arrays.copyOf(data, data.length / 2));
+        clear(getParserDFAs());
+        clear(getLexerDFAs());
+        assertFalse(DFASnapshot.load(snapshotPath));
+        for (final var dfa : getParserDFAs()) {
+            assertTrue(dfa.states.isEmpty());
+        }
+    }
+
+    @Test
+    void testForeignSnapshotIsIgnored() throws IOException {
+        Files.write(snapshotPath, new byte[]{'O', 'S', 'M', 'D', 0, 1, 0});
+        assertFalse(DFASnapshot.load(snapshotPath));
+    }
+}
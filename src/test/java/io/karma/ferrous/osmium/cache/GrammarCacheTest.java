@@ -0,0 +1,156 @@
+/*
+ * Copyright 2023 Karma Krafts & associates
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.karma.ferrous.osmium.cache;
+
+import io.karma.ferrous.osmium.Transpiler;
+import io.karma.ferrous.osmium.TranspilerConfig;
+import io.karma.ferrous.osmium.grammar.Grammar;
+import io.karma.ferrous.osmium.pass.EmitPass;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Alexander Hinze
+ * @since 17/10/2026
+ */
+public final class GrammarCacheTest {
+    // @formatter:off
+    private static final String PARSER_SOURCE = """
+        parser grammar Test;
+        options { tokenVocab = TestLexer; }
+        file : (A | B)* EOF ;
+        """;
+    private static final String LEXER_SOURCE = """
+        lexer grammar TestLexer;
+        A : 'a' ;
+        B : A 'b'+ ;
+        C : ~[a-z]* | 'if' | 'else' ;
+        mode Other;
+        D : 'd' -> popMode ;
+        """;
+    // @formatter:on
+
+    @TempDir
+    Path directory;
+    private Path path;
+    private Path lexerPath;
+    private Transpiler transpiler;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        path = directory.resolve("Test.g4");
+        lexerPath = directory.resolve("TestLexer.g4");
+        Files.writeString(path, PARSER_SOURCE);
+        Files.writeString(lexerPath, LEXER_SOURCE);
+        transpiler = new Transpiler(new TranspilerConfig());
+        transpiler.setCache(new GrammarCache(directory.resolve("cache"), GrammarCache.DEFAULT_MAX_SIZE));
+    }
+
+    @Test
+    void testHitReportsDependencies() throws IOException {
+        final var session = transpiler.createSession();
+        assertNotNull(transpiler.parseGrammar(path, session));
+        final var dependencies = new ArrayList<Path>();
+        assertNotNull(Objects.requireNonNull(transpiler.getCache()).get(path, dependencies::add));
+        assertEquals(new ArrayList<>(session.getDependencies()), dependencies);
+
+        final var cachedSession = transpiler.createSession();
+        assertNotNull(transpiler.parseGrammar(path, cachedSession));
+        assertEquals(session.getDependencies(), cachedSession.getDependencies());
+        assertTrue(cachedSession.getDependencies().contains(lexerPath.toAbsolutePath().normalize()));
+    }
+
+    private Map<String, String> getPatterns(final Grammar grammar) {
+        final var generator = Objects.requireNonNull(transpiler.getGenerator("textmate"));
+        return generator.getPipeline().run(grammar).get(EmitPass.PATTERNS);
+    }
+
+    private List<Path> getEntries() throws IOException {
+        try (final var files = Files.list(Objects.requireNonNull(transpiler.getCache()).getDirectory())) {
+            return files.toList();
+        }
+    }
+
+    @Test
+    void testSerializerRoundTrip() throws IOException {
+        final var grammar = Objects.requireNonNull(transpiler.parseGrammar(path));
+        final var out = new ByteArrayOutputStream();
+        GrammarSerializer.write(new DataOutputStream(out), grammar);
+        final var in = new DataInputStream(new ByteArrayInputStream(out.toByteArray()));
+        final var readGrammar = GrammarSerializer.read(in);
+        assertEquals(grammar.getName(), readGrammar.getName());
+        assertEquals(getPatterns(grammar), getPatterns(readGrammar));
+    }
+
+    @Test
+    void testCachedGrammarMatchesParsedGrammar() throws IOException {
+        final var grammar = Objects.requireNonNull(transpiler.parseGrammar(path));
+        final var cachedGrammar = Objects.requireNonNull(transpiler.getCache()).get(path);
+        assertNotNull(cachedGrammar);
+        assertNotSame(grammar, cachedGrammar);
+        assertEquals(getPatterns(grammar), getPatterns(cachedGrammar));
+    }
+
+    @Test
+    void testChangedImportIsMiss() throws IOException {
+        assertNotNull(transpiler.parseGrammar(path));
+        final var cache = Objects.requireNonNull(transpiler.getCache());
+        assertNotNull(cache.get(path));
+        Files.writeString(lexerPath, LEXER_SOURCE.replace("'a'", "'x'"));
+        assertNull(cache.get(path));
+
+        // Parsing again replaces the stale entry with one of the changed grammar
+        final var grammar = Objects.requireNonNull(transpiler.parseGrammar(path));
+        assertTrue(getPatterns(grammar).get("A").contains("x"));
+        assertEquals(getPatterns(grammar), getPatterns(Objects.requireNonNull(cache.get(path))));
+    }
+
+    @Test
+    void testCorruptedEntryIsMiss() throws IOException {
+        assertNotNull(transpiler.parseGrammar(path));
+        final var entries = getEntries();
+        assertEquals(1, entries.size());
+        final var entry = entries.getFirst();
+        final var data = Files.readAllBytes(entry);
+        Files.write(entry, Arrays.copyOf(data, data.length / 2));
+        assertNull(Objects.requireNonNull(transpiler.getCache()).get(path));
+        assertFalse(Files.exists(entry)); // Corrupted entries are removed right away
+    }
+
+    @Test
+    void testOversizedEntryIsEvicted() throws IOException {
+        final var cache = new GrammarCache(directory.resolve("small"), 1);
+        final var grammar = Objects.requireNonNull(transpiler.parseGrammar(path));
+        cache.put(path, List.of(lexerPath), grammar);
+        assertNull(cache.get(path)); // Larger than the whole cache
+    }
+}
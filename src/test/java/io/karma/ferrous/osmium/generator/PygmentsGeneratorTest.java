@@ -0,0 +1,95 @@
+/*
+ * Copyright 2023 Karma Krafts & associates
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.karma.ferrous.osmium.generator;
+
+import io.karma.ferrous.osmium.Transpiler;
+import io.karma.ferrous.osmium.TranspilerConfig;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Objects;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Alexander Hinze
+ * @since 17/10/2026
+ */
+public final class PygmentsGeneratorTest {
+    // @formatter:off
+    private static final String PARSER_SOURCE = """
+        parser grammar Test;
+        options { tokenVocab = TestLexer; }
+        file : (ID | STRING_START | COMMENT_START)* EOF ;
+        """;
+    private static final String LEXER_SOURCE = """
+        lexer grammar TestLexer;
+        ID : [a-z]+ ;
+        STRING_START : '"' -> pushMode(STRING) ;
+        COMMENT_START : '/*' -> mode(COMMENT) ;
+        mode STRING;
+        STRING_END : '"' -> popMode ;
+        STRING_TEXT : ~["]+ ;
+        mode COMMENT;
+        COMMENT_END : '*/' -> mode(DEFAULT_MODE) ;
+        COMMENT_TEXT : ~[*]+ ;
+        DOC_START : '*' -> mode(DOC) ;
+        mode DOC;
+        DOC_END : '*/' -> mode(DEFAULT_MODE) ;
+        """;
+    // @formatter:on
+
+    @TempDir
+    Path directory;
+    private String source;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        final var path = directory.resolve("Test.g4");
+        final var outPath = directory.resolve("Test.py");
+        Files.writeString(path, PARSER_SOURCE);
+        Files.writeString(directory.resolve("TestLexer.g4"), LEXER_SOURCE);
+        final var transpiler = new Transpiler(new TranspilerConfig());
+        final var grammar = Objects.requireNonNull(transpiler.parseGrammar(path));
+        transpiler.generate(grammar, outPath, Objects.requireNonNull(transpiler.getGenerator(PygmentsGenerator.NAME)));
+        source = Files.readString(outPath);
+    }
+
+    @Test
+    void testEveryModeIsAState() {
+        assertTrue(source.contains("'root': ["));
+        assertTrue(source.contains("'STRING': ["));
+        assertTrue(source.contains("'COMMENT': ["));
+    }
+
+    @Test
+    void testPushedModeIsPopped() {
+        assertTrue(source.contains("(r'\"', Text, 'STRING'),"));
+        assertTrue(source.contains("(r'\"', Text, '#pop'),"));
+    }
+
+    @Test
+    void testSetModeIsPushedFromRootAndPoppedBackToIt() {
+        assertTrue(source.contains("(r'\\/\\*', Text, 'COMMENT'),"));
+        assertTrue(source.contains("(r'\\*\\/', Text, '#pop'),"));
+        // Setting another mode replaces the current state
+        assertTrue(source.contains("(r'\\*', Text, ('#pop', 'DOC')),"));
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright 2023 Karma Krafts & associates
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.karma.ferrous.osmium.generator;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.karma.ferrous.osmium.Transpiler;
+import io.karma.ferrous.osmium.TranspilerConfig;
+import io.karma.ferrous.osmium.util.JSONUtils;
+import org.jetbrains.annotations.Nullable;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Alexander Hinze
+ * @since 17/10/2026
+ */
+public final class TextMateGeneratorTest {
+    // @formatter:off
+    private static final String PARSER_SOURCE = """
+        parser grammar Test;
+        options { tokenVocab = TestLexer; }
+        file : (ID | STRING_START | COMMENT_START)* EOF ;
+        """;
+    private static final String LEXER_SOURCE = """
+        lexer grammar TestLexer;
+        ID : [a-z]+ ;
+        STRING_START : '"' -> pushMode(STRING) ;
+        COMMENT_START : '/*' -> mode(COMMENT) ;
+        mode STRING;
+        STRING_END : '"' -> popMode ;
+        STRING_TEXT : ~["]+ ;
+        mode COMMENT;
+        COMMENT_END : '*/' -> mode(DEFAULT_MODE) ;
+        COMMENT_TEXT : ~[*]+ ;
+        """;
+    // @formatter:on
+
+    @TempDir
+    Path directory;
+    private ObjectNode repository;
+
+    private static @Nullable JsonNode findPattern(final JsonNode patterns, final String field, final String value) {
+        for (final var pattern : patterns) {
+            if (value.equals(pattern.path(field).asText(null))) {
+                return pattern;
+            }
+        }
+        return null;
+    }
+
+    private static List<String> getMatches(final JsonNode patterns) {
+        final var matches = new ArrayList<String>();
+        for (final var pattern : patterns) {
+            matches.add(pattern.path("match").asText(null));
+        }
+        return matches;
+    }
+
+    @BeforeEach
+    void setUp() throws IOException {
+        final var path = directory.resolve("Test.g4");
+        final var outPath = directory.resolve("Test.tmLanguage.json");
+        Files.writeString(path, PARSER_SOURCE);
+        Files.writeString(directory.resolve("TestLexer.g4"), LEXER_SOURCE);
+        final var transpiler = new Transpiler(new TranspilerConfig());
+        final var grammar = Objects.requireNonNull(transpiler.parseGrammar(path));
+        transpiler.generate(grammar, outPath, Objects.requireNonNull(transpiler.getGenerator(TextMateGenerator.NAME)));
+        final var root = JSONUtils.readValue(ObjectNode.class, Files.readAllBytes(outPath));
+        repository = (ObjectNode) root.get("repository");
+    }
+
+    @Test
+    void testPushedModeEndsOnPop() {
+        final var entry = findPattern(repository.path("DEFAULT_MODE").path("patterns"), "begin", "\"");
+        assertNotNull(entry);
+        assertEquals("\"", entry.path("end").asText());
+        assertEquals("#STRING", entry.path("patterns").path(0).path("include").asText());
+        assertEquals(List.of("[^\"]+"), getMatches(repository.path("STRING").path("patterns")));
+    }
+
+    @Test
+    void testSetModeEndsOnReturnToDefaultMode() {
+        final var entry = findPattern(repository.path("DEFAULT_MODE").path("patterns"), "begin", "\\/\\*");
+        assertNotNull(entry);
+        assertEquals("\\*\\/", entry.path("end").asText());
+        assertEquals("#COMMENT", entry.path("patterns").path(0).path("include").asText());
+        // The rule returning to the default mode only ends the region, it is no pattern of the mode itself
+        assertEquals(List.of("[^\\*]+"), getMatches(repository.path("COMMENT").path("patterns")));
+    }
+}
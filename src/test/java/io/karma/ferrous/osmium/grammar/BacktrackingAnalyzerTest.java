@@ -0,0 +1,113 @@
+/*
+ * Copyright 2023 Karma Krafts & associates
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.karma.ferrous.osmium.grammar;
+
+import io.karma.ferrous.osmium.Transpiler;
+import io.karma.ferrous.osmium.TranspilerConfig;
+import io.karma.ferrous.osmium.pass.EmitPass;
+import io.karma.ferrous.osmium.util.RegexDialect;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Objects;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Alexander Hinze
+ * @since 17/10/2026
+ */
+public final class BacktrackingAnalyzerTest {
+    // @formatter:off
+    private static final String PARSER_SOURCE = """
+        parser grammar Test;
+        options { tokenVocab = TestLexer; }
+        file : EOF ;
+        """;
+    // @formatter:on
+
+    @TempDir
+    Path directory;
+
+    private Grammar parse(final Transpiler transpiler, final String rules) throws IOException {
+        final var path = directory.resolve("Test.g4");
+        Files.writeString(path, PARSER_SOURCE);
+        Files.writeString(directory.resolve("TestLexer.g4"), STR."lexer grammar TestLexer;\n\{rules}");
+        return Objects.requireNonNull(transpiler.parseGrammar(path));
+    }
+
+    private Grammar parse(final String rules) throws IOException {
+        return parse(new Transpiler(new TranspilerConfig()), rules);
+    }
+
+    private Map<String, String> getPatterns(final String rules) throws IOException {
+        final var transpiler = new Transpiler(new TranspilerConfig());
+        final var grammar = parse(transpiler, rules);
+        final var generator = Objects.requireNonNull(transpiler.getGenerator("textmate"));
+        return generator.getPipeline().run(grammar).get(EmitPass.PATTERNS);
+    }
+
+    @Test
+    void testRunFollowedByOtherCharacterIsPossessive() throws IOException {
+        final var result = BacktrackingAnalyzer.analyze(parse("A : ('x'+)* 'y' ;"), RegexDialect.ONIGURUMA);
+        assertEquals(1, result.possessiveNodes().size());
+        assertTrue(getPatterns("A : ('x'+)* 'y' ;").get("A").contains("(?:x+)*+y"));
+    }
+
+    @Test
+    void testOverlappingAlternativesAreNotPossessive() throws IOException {
+        final var result = BacktrackingAnalyzer.analyze(parse("A : ('ab' | 'a')* 'b' ;"), RegexDialect.ONIGURUMA);
+        assertTrue(result.possessiveNodes().isEmpty());
+        assertTrue(result.riskyCount() > 0);
+    }
+
+    @Test
+    void testRunFollowedBySameCharacterIsNotPossessive() throws IOException {
+        final var result = BacktrackingAnalyzer.analyze(parse("A : ('q'+)* 'q' ;"), RegexDialect.ONIGURUMA);
+        assertTrue(result.possessiveNodes().isEmpty());
+        assertTrue(getPatterns("A : ('q'+)* 'q' ;").get("A").contains("(?:q+)*q"));
+    }
+
+    @Test
+    void testFragmentIsOnlyPossessiveIfEveryFollowerIsSafe() throws IOException {
+        // @formatter:off
+        final var safeRules = """
+            fragment F : ('z'+)+ ;
+            A : F ';' ;
+            B : F ',' ;
+            """;
+        // @formatter:on
+        final var safeResult = BacktrackingAnalyzer.analyze(parse(safeRules), RegexDialect.ONIGURUMA);
+        assertEquals(1, safeResult.possessiveNodes().size());
+        final var unsafeRules = safeRules.replace("','", "'z'");
+        final var unsafeResult = BacktrackingAnalyzer.analyze(parse(unsafeRules), RegexDialect.ONIGURUMA);
+        assertTrue(unsafeResult.possessiveNodes().isEmpty());
+        final var patterns = getPatterns(unsafeRules);
+        assertFalse(patterns.get("A").contains("++"));
+        assertFalse(patterns.get("B").contains("++"));
+    }
+
+    @Test
+    void testNothingIsPossessiveWithoutDialectSupport() throws IOException {
+        final var result = BacktrackingAnalyzer.analyze(parse("A : ('x'+)* 'y' ;"), RegexDialect.PYTHON);
+        assertTrue(result.possessiveNodes().isEmpty());
+        assertEquals(1, result.riskyCount());
+    }
+}
@@ -0,0 +1,159 @@
+/*
+ * Copyright 2023 Karma Krafts & associates
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.karma.ferrous.osmium.grammar;
+
+import io.karma.ferrous.osmium.Transpiler;
+import io.karma.ferrous.osmium.TranspilerConfig;
+import io.karma.ferrous.osmium.pass.EmitPass;
+import io.karma.ferrous.osmium.pass.PassContext;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Alexander Hinze
+ * @since 17/10/2026
+ */
+public final class LexerGrammarTest {
+    // @formatter:off
+    private static final String PARSER_SOURCE = """
+        parser grammar Test;
+        options { tokenVocab = TestLexer; }
+        file : (A | B | C | D)* EOF ;
+        """;
+    private static final String LEXER_SOURCE = """
+        lexer grammar TestLexer;
+        A : 'a' ;
+        B : A 'b' ;
+        C : 'c' ;
+        D : B 'd' ;
+        fragment F : ([a-z]+)+ ;
+        R : F ';' ;
+        """;
+    // @formatter:on
+
+    @TempDir
+    Path directory;
+    private Path path;
+    private Transpiler transpiler;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        path = directory.resolve("Test.g4");
+        Files.writeString(path, PARSER_SOURCE);
+        Files.writeString(directory.resolve("TestLexer.g4"), LEXER_SOURCE);
+        transpiler = new Transpiler(new TranspilerConfig());
+    }
+
+    private Grammar parse() throws IOException {
+        return Objects.requireNonNull(transpiler.parseGrammar(path));
+    }
+
+    private static LexerGrammar getLexerGrammar(final Grammar grammar) {
+        return Objects.requireNonNull(((ParserGrammar) grammar).getLexerGrammar());
+    }
+
+    private void editLexer(final String target, final String replacement) throws IOException {
+        Files.writeString(directory.resolve("TestLexer.g4"), LEXER_SOURCE.replace(target, replacement));
+    }
+
+    private static Map<String, String> getPatterns(final Transpiler transpiler, final Grammar grammar) {
+        final var generator = Objects.requireNonNull(transpiler.getGenerator("textmate"));
+        return generator.getPipeline().run(grammar).get(EmitPass.PATTERNS);
+    }
+
+    @Test
+    void testUpdateReturnsChangedRulesAndDependents() throws IOException {
+        final var grammar = parse();
+        editLexer("A : 'a' ;", "A : 'x' ;");
+        final var editedGrammar = parse();
+        assertEquals(Set.of("A", "B", "D"), grammar.update(editedGrammar));
+    }
+
+    @Test
+    void testUnchangedRulesAreKept() throws IOException {
+        final var grammar = parse();
+        final var lexerGrammar = getLexerGrammar(grammar);
+        final var ruleA = lexerGrammar.getNode("A");
+        final var ruleC = lexerGrammar.getNode("C");
+        editLexer("A : 'a' ;", "A : 'x' ;");
+        grammar.update(parse());
+        assertSame(ruleC, lexerGrammar.getNode("C"));
+        assertNotSame(ruleA, lexerGrammar.getNode("A"));
+    }
+
+    @Test
+    void testUpdateWithoutChanges() throws IOException {
+        final var grammar = parse();
+        assertEquals(Set.of(), grammar.update(parse()));
+        assertEquals(Set.of(), getLexerGrammar(grammar).update(getLexerGrammar(grammar)));
+    }
+
+    @Test
+    void testRemovedRuleIsChanged() throws IOException {
+        final var grammar = parse();
+        editLexer("C : 'c' ;\n", "");
+        Files.writeString(path, PARSER_SOURCE.replace(" | C", ""));
+        final var changedRules = grammar.update(parse());
+        assertNotNull(changedRules);
+        assertTrue(changedRules.contains("C"));
+        assertFalse(getLexerGrammar(grammar).hasNode("C"));
+    }
+
+    @Test
+    void testUpdateOfOtherGrammarIsRejected() throws IOException {
+        final var lexerGrammar = getLexerGrammar(parse());
+        final var otherGrammar = new LexerGrammar("OtherLexer");
+        assertNull(lexerGrammar.update(otherGrammar));
+    }
+
+    @Test
+    void testUpdatedPatternsMatchFullGeneration() throws IOException {
+        final var grammar = parse();
+        final var context = Objects.requireNonNull(transpiler.getGenerator("textmate")).getPipeline().run(grammar);
+        final var contexts = new HashMap<String, PassContext>();
+        contexts.put("textmate", context);
+        editLexer("A : 'a' ;", "A : 'x'+ ;");
+        final var session = transpiler.createSession();
+        final var updatedGrammar = transpiler.updateGrammar(grammar, path, session, contexts);
+        assertSame(grammar, updatedGrammar);
+        assertSame(context, contexts.get("textmate"));
+        assertTrue(session.isResolving()); // Later parses with the same session have to be resolved again
+
+        final var patterns = context.get(EmitPass.PATTERNS);
+        final var expectedPatterns = getPatterns(new Transpiler(new TranspilerConfig()), parse());
+        assertEquals(expectedPatterns, patterns);
+        assertTrue(patterns.get("D").contains("x"));
+        assertTrue(patterns.get("R").contains("++"));
+
+        // F itself is unchanged, but may no longer be possessive since R now follows it with a letter
+        editLexer("R : F ';' ;", "R : F 'x' ;");
+        transpiler.updateGrammar(grammar, path, transpiler.createSession(), contexts);
+        final var updatedPatterns = context.get(EmitPass.PATTERNS);
+        assertEquals(getPatterns(new Transpiler(new TranspilerConfig()), parse()), updatedPatterns);
+        assertFalse(updatedPatterns.get("R").contains("++"));
+    }
+}
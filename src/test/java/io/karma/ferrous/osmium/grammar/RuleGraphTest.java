@@ -0,0 +1,182 @@
+/*
+ * Copyright 2023 Karma Krafts & associates
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.karma.ferrous.osmium.grammar;
+
+import io.karma.ferrous.osmium.grammar.node.LexerRuleNode;
+import io.karma.ferrous.osmium.grammar.node.NamedNode;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Alexander Hinze
+ * @since 17/10/2026
+ */
+public final class RuleGraphTest {
+    private final SymbolTable symbols = new SymbolTable();
+    private final DependencyIndex index = new DependencyIndex(symbols);
+    private final ArrayList<NamedNode> rules = new ArrayList<>();
+
+    private void addRule(final String name, final String... references) {
+        final var refIds = new IntArrayList();
+        for (final var reference : references) {
+            refIds.add(symbols.getOrCreateId(reference));
+        }
+        index.put(symbols.getOrCreateId(name), refIds);
+        rules.add(new LexerRuleNode(name));
+    }
+
+    private RuleGraph createGraph() {
+        return new RuleGraph(rules, symbols, index);
+    }
+
+    private static Set<String> getNames(final Collection<NamedNode> rules) {
+        final var names = new HashSet<String>();
+        for (final var rule : rules) {
+            names.add(rule.getName());
+        }
+        return names;
+    }
+
+    private boolean isBackReference(final RuleGraph graph, final String rule, final String target) {
+        return graph.isBackReference(symbols.getId(rule), symbols.getId(target));
+    }
+
+    @Test
+    void testChainLevels() {
+        addRule("A", "B");
+        addRule("B", "C");
+        addRule("C");
+        final var levels = createGraph().getLevels();
+        assertEquals(3, levels.size());
+        assertEquals(Set.of("C"), getNames(levels.get(0).getFirst()));
+        assertEquals(Set.of("B"), getNames(levels.get(1).getFirst()));
+        assertEquals(Set.of("A"), getNames(levels.get(2).getFirst()));
+    }
+
+    @Test
+    void testIndependentRulesShareLevel() {
+        addRule("A", "C");
+        addRule("B", "C");
+        addRule("C");
+        final var levels = createGraph().getLevels();
+        assertEquals(2, levels.size());
+        assertEquals(2, levels.get(1).size());
+    }
+
+    @Test
+    void testMutualRecursionIsOneComponent() {
+        addRule("A", "B");
+        addRule("B", "A");
+        addRule("C", "A");
+        final var graph = createGraph();
+        assertEquals(2, graph.getComponents().size());
+        final var levels = graph.getLevels();
+        assertEquals(Set.of("A", "B"), getNames(levels.get(0).getFirst()));
+        assertEquals(Set.of("C"), getNames(levels.get(1).getFirst()));
+        // Exactly one of the two references closes the cycle
+        assertNotEquals(isBackReference(graph, "A", "B"), isBackReference(graph, "B", "A"));
+        assertFalse(isBackReference(graph, "C", "A"));
+    }
+
+    @Test
+    void testSelfReferenceIsBackReference() {
+        addRule("A", "A", "B");
+        addRule("B");
+        final var graph = createGraph();
+        assertTrue(isBackReference(graph, "A", "A"));
+        assertFalse(isBackReference(graph, "A", "B"));
+    }
+
+    @Test
+    void testReferencesOutsideGraphAreIgnored() {
+        addRule("A", "B", "EXTERNAL");
+        addRule("B");
+        final var graph = createGraph();
+        assertEquals(2, graph.getLevels().size());
+        assertFalse(isBackReference(graph, "A", "EXTERNAL"));
+    }
+
+    @Test
+    void testUnknownRuleIsRejected() {
+        final var rule = new LexerRuleNode("UNKNOWN");
+        assertThrows(IllegalStateException.class, () -> new RuleGraph(List.of(rule), symbols, index));
+    }
+
+    @Test
+    void testDeepChainDoesNotOverflow() {
+        final var depth = 100_000;
+        for (var i = 0; i < depth; i++) {
+            if (i + 1 < depth) {
+                addRule(STR."R\{i}", STR."R\{i + 1}");
+            }
+            else {
+                addRule(STR."R\{i}", "R0"); // Close one big cycle
+            }
+        }
+        final var graph = createGraph();
+        assertEquals(1, graph.getComponents().size());
+        var backReferences = 0;
+        for (var i = 0; i < depth; i++) {
+            if (isBackReference(graph, STR."R\{i}", STR."R\{(i + 1) % depth}")) {
+                backReferences++;
+            }
+        }
+        assertEquals(1, backReferences);
+    }
+
+    @Test
+    void testCuttingBackReferencesRemovesAllCycles() {
+        final var random = new Random(1234);
+        final var count = 200;
+        final var references = new HashMap<String, List<String>>();
+        for (var i = 0; i < count; i++) {
+            final var targets = new ArrayList<String>();
+            for (var j = random.nextInt(4); j > 0; j--) {
+                targets.add(STR."R\{random.nextInt(count)}");
+            }
+            references.put(STR."R\{i}", targets);
+            addRule(STR."R\{i}", targets.toArray(String[]::new));
+        }
+        final var graph = createGraph();
+        // Kahn's algorithm over all references which aren't back references
+        final var inDegrees = new HashMap<String, Integer>();
+        references.keySet().forEach(rule -> inDegrees.put(rule, 0));
+        references.forEach((rule, targets) -> targets.stream()
+            .filter(target -> !isBackReference(graph, rule, target))
+            .forEach(target -> inDegrees.merge(target, 1, Integer::sum)));
+        final var queue = new ArrayDeque<String>();
+        inDegrees.forEach((rule, inDegree) -> {
+            if (inDegree == 0) {
+                queue.add(rule);
+            }
+        });
+        var visited = 0;
+        while (!queue.isEmpty()) {
+            final var rule = queue.poll();
+            visited++;
+            for (final var target : references.get(rule)) {
+                if (!isBackReference(graph, rule, target) && inDegrees.merge(target, -1, Integer::sum) == 0) {
+                    queue.add(target);
+                }
+            }
+        }
+        assertEquals(count, visited);
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ * Copyright 2023 Karma Krafts & associates
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.karma.ferrous.osmium.grammar.node;
+
+import io.karma.ferrous.osmium.util.CodePointSet;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Alexander Hinze
+ * @since 17/10/2026
+ */
+public final class CharSetsTest {
+    @Test
+    void testDecodeLiteral() {
+        assertEquals("abc", CharSets.decodeLiteral("abc"));
+        assertEquals("\n\r\t\b\f", CharSets.decodeLiteral("\\n\\r\\t\\b\\f"));
+        assertEquals("'\\", CharSets.decodeLiteral("\\'\\\\"));
+    }
+
+    @Test
+    void testDecodeUnicodeEscapes() {
+        assertEquals("é", CharSets.decodeLiteral("\\u00E9"));
+        assertEquals(Character.toString(0x1F600), CharSets.decodeLiteral("\\u{1F600}"));
+    }
+
+    @Test
+    void testDecodeInvalidEscapes() {
+        assertNull(CharSets.decodeLiteral("a\\"));
+        assertNull(CharSets.decodeLiteral("\\u00"));
+        assertNull(CharSets.decodeLiteral("\\u{1F600"));
+        assertNull(CharSets.decodeLiteral("\\u{110000}"));
+        assertNull(CharSets.decodeLiteral("\\uXYZW"));
+        assertNull(CharSets.decodeLiteral("\\p{Letter}"));
+    }
+
+    @Test
+    void testParseCharSet() {
+        final var expected = CodePointSet.of('a', 'z').union(CodePointSet.of('_')).union(CodePointSet.of('0', '9'));
+        assertEquals(expected, CharSets.parseCharSet("a-z_0-9"));
+    }
+
+    @Test
+    void testParseCharSetWithEscapes() {
+        final var expected = CodePointSet.of(0, 0x1F).union(CodePointSet.of(']')).union(CodePointSet.of('\n'));
+        assertEquals(expected, CharSets.parseCharSet("\\u0000-\\u001F\\]\\n"));
+    }
+
+    @Test
+    void testParseCharSetTrailingDashIsLiteral() {
+        assertEquals(CodePointSet.of('a').union(CodePointSet.of('-')), CharSets.parseCharSet("a-"));
+    }
+
+    @Test
+    void testParseUnsupportedCharSet() {
+        assertNull(CharSets.parseCharSet("z-a"));
+        assertNull(CharSets.parseCharSet("\\p{Lu}"));
+    }
+
+    @Test
+    void testToSet() {
+        final var factory = new NodeFactory();
+        assertEquals(CodePointSet.of('a'), CharSets.toSet(factory.text("a")));
+        assertEquals(CodePointSet.of('\n'), CharSets.toSet(factory.text("\\n")));
+        assertNull(CharSets.toSet(factory.text("ab")));
+        assertEquals(CodePointSet.of('a', 'f'), CharSets.toSet(factory.range('a', 'f')));
+        assertEquals(CodePointSet.of('0', '9'), CharSets.toSet(factory.rawRange("0-9")));
+        assertNull(CharSets.toSet(factory.anyMatch()));
+    }
+
+    @Test
+    void testNotSetIsComplement() {
+        final var factory = new NodeFactory();
+        final var notSet = factory.notSet(List.of(factory.text("a"), factory.rawRange("0-9")));
+        assertEquals(CodePointSet.of('a').union(CodePointSet.of('0', '9')).complement(), CharSets.toSet(notSet));
+    }
+
+    @Test
+    void testMergeAlternatives() {
+        final var factory = new NodeFactory();
+        final var keyword = factory.text("if");
+        // @formatter:off
+        final var merged = CharSets.mergeAlternatives(List.of(
+            factory.text("a"),
+            factory.text("b"),
+            keyword,
+            factory.rawRange("0-4"),
+            factory.rawRange("5-9")
+        ));
+        // @formatter:on
+        assertEquals(3, merged.size());
+        assertEquals(CodePointSet.of('a', 'b'), CharSets.toSet(merged.get(0)));
+        assertSame(keyword, merged.get(1));
+        assertEquals(CodePointSet.of('0', '9'), CharSets.toSet(merged.get(2)));
+    }
+
+    @Test
+    void testMergeAlternativesKeepsSingleCharacters() {
+        final var factory = new NodeFactory();
+        final var alternatives = List.<Node>of(factory.text("a"), factory.text("if"), factory.text("b"));
+        assertSame(alternatives, CharSets.mergeAlternatives(alternatives));
+    }
+
+    @Test
+    void testToSetSeesThroughRules() {
+        final var factory = new NodeFactory();
+        final var letter = new FragmentNode("LETTER");
+        letter.addChild(factory.altList(List.of(factory.rawRange("a-z"), factory.rawRange("A-Z"))));
+        final var expected = CodePointSet.of('a', 'z').union(CodePointSet.of('A', 'Z'));
+        assertEquals(expected, CharSets.toSet(letter));
+        assertEquals(expected, CharSets.toSet(factory.sequence(List.of(letter))));
+        final var merged = CharSets.mergeAlternatives(List.of(letter, factory.text("_")));
+        assertEquals(expected.union(CodePointSet.of('_')), CharSets.toSet(merged.getFirst()));
+    }
+
+    @Test
+    void testToSetOfRecursiveRule() {
+        final var rule = new FragmentNode("A");
+        final var other = new FragmentNode("B");
+        rule.addChild(other);
+        other.addChild(rule);
+        assertNull(CharSets.toSet(rule));
+    }
+
+    @Test
+    void testAltListIsNotMergedWhileParsing() {
+        final var factory = new NodeFactory();
+        final var altList = factory.altList(List.of(factory.text("x"), factory.text("y"), factory.text("z")));
+        assertEquals(3, altList.getChildren().size());
+        assertEquals(CodePointSet.of('x', 'z'), CharSets.toSet(altList));
+    }
+}
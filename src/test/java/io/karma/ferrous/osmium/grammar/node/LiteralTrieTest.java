@@ -0,0 +1,97 @@
+/*
+ * Copyright 2023 Karma Krafts & associates
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.karma.ferrous.osmium.grammar.node;
+
+import io.karma.ferrous.osmium.util.RegexDialect;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Alexander Hinze
+ * @since 17/10/2026
+ */
+public final class LiteralTrieTest {
+    private static String toPattern(final String... literals) {
+        final var trie = LiteralTrie.ofLiterals(List.of(literals));
+        assertNotNull(trie);
+        final var builder = new StringBuilder();
+        trie.appendPattern(builder, RegexDialect.ONIGURUMA);
+        return builder.toString();
+    }
+
+    @Test
+    void testSharedPrefixesAreFactored() {
+        assertEquals("(?:a(?:bstract|ssert)|break)", toPattern("abstract", "assert", "break"));
+    }
+
+    @Test
+    void testSingleLiteralIsPlainText() {
+        assertEquals("while", toPattern("while"));
+    }
+
+    @Test
+    void testDuplicateLiteralsAreMerged() {
+        assertEquals(toPattern("if", "else"), toPattern("if", "else", "if"));
+    }
+
+    @Test
+    void testPrefixLiteralIsOptional() {
+        assertEquals("in(?:t(?:erface)?)?", toPattern("in", "int", "interface"));
+    }
+
+    @Test
+    void testLongestLiteralWins() {
+        final var literals = new String[]{"in", "int", "interface", "instanceof", "import"};
+        final var pattern = Pattern.compile(toPattern(literals));
+        for (final var literal : literals) {
+            final var matcher = pattern.matcher(literal);
+            assertTrue(matcher.lookingAt(), literal);
+            assertEquals(literal, matcher.group());
+        }
+        final var matcher = pattern.matcher("integer");
+        assertTrue(matcher.lookingAt());
+        assertEquals("int", matcher.group());
+    }
+
+    @Test
+    void testLiteralsAreEscaped() {
+        final var pattern = toPattern("+", "++", "+=", "\\n");
+        assertEquals("(?:\\n|\\+(?:\\+|=)?)", pattern);
+        assertTrue(Pattern.compile(pattern).matcher("\n").matches());
+    }
+
+    @Test
+    void testSupplementaryCodePointsAreOrderedByCodePoint() {
+        final var pattern = toPattern("\\uD83D\\uDE00", "\\uE000", "a");
+        assertEquals(pattern, toPattern("a", "\\uE000", "\\uD83D\\uDE00"));
+        assertTrue(pattern.indexOf('\uE000') < pattern.indexOf("\\x{1f600}"), pattern);
+        assertTrue(Pattern.compile(pattern).matcher("\uD83D\uDE00").matches());
+    }
+
+    @Test
+    void testNoLiterals() {
+        assertEquals("", toPattern());
+    }
+
+    @Test
+    void testInvalidLiteral() {
+        assertNull(LiteralTrie.ofLiterals(List.of("ok", "\\u00")));
+    }
+}
@@ -0,0 +1,160 @@
+/*
+ * Copyright 2023 Karma Krafts & associates
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.karma.ferrous.osmium.ir;
+
+import io.karma.ferrous.osmium.Transpiler;
+import io.karma.ferrous.osmium.TranspilerConfig;
+import io.karma.ferrous.osmium.pass.EmitPass;
+import io.karma.ferrous.osmium.pass.LowerPass;
+import io.karma.ferrous.osmium.util.RegexDialect;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Alexander Hinze
+ * @since 17/10/2026
+ */
+public final class LexerIREmitterTest {
+    // @formatter:off
+    private static final String PARSER_SOURCE = """
+        parser grammar Test;
+        options { tokenVocab = TestLexer; }
+        file : (LOWER | RANGE)* EOF ;
+        """;
+    private static final String LEXER_SOURCE = """
+        lexer grammar TestLexer;
+        LOWER : [a-z]+ ;
+        RANGE : 'a'..'f' ;
+        PAIR : [ab] ;
+        NOT : ~[a-z\\r\\n] ;
+        CONTROL : [\\u0000-\\u001F] ;
+        EMOJI : [\\u{1F600}-\\u{1F64F}] ;
+        OPERATOR : [+\\-*] ;
+        BRACKETS : '[' ']' '\\\\' ;
+        TAB : '\\t' ;
+        ALTERNATIVES : 'x' | 'y' | 'z' ;
+        EVERYTHING : 'a' | ~'a' ;
+        NOTHING : ~[\\u0000-\\u{10FFFF}] ;
+        """;
+    // @formatter:on
+
+    @TempDir
+    Path directory;
+    private Path path;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        path = directory.resolve("Test.g4");
+        Files.writeString(path, PARSER_SOURCE);
+        Files.writeString(directory.resolve("TestLexer.g4"), LEXER_SOURCE);
+    }
+
+    private Map<String, String> getPatterns(final String generatorName) throws IOException {
+        final var transpiler = new Transpiler(new TranspilerConfig());
+        final var grammar = Objects.requireNonNull(transpiler.parseGrammar(path));
+        final var generator = Objects.requireNonNull(transpiler.getGenerator(generatorName));
+        return generator.getPipeline().run(grammar).get(EmitPass.PATTERNS);
+    }
+
+    @Test
+    void testRangesAreEmittedAsClasses() throws IOException {
+        final var patterns = getPatterns("textmate");
+        assertEquals("[a-z]+", patterns.get("LOWER"));
+        assertEquals("[a-f]", patterns.get("RANGE"));
+        assertEquals("[ab]", patterns.get("PAIR")); // Adjacent bounds don't need a dash
+        assertEquals("[^\\n\\ra-z]", patterns.get("NOT"));
+        assertEquals("[\\*\\+\\-]", patterns.get("OPERATOR"));
+        assertEquals("[x-z]", patterns.get("ALTERNATIVES"));
+    }
+
+    @Test
+    void testCachedPatternsAreReused() throws IOException {
+        final var transpiler = new Transpiler(new TranspilerConfig());
+        final var grammar = Objects.requireNonNull(transpiler.parseGrammar(path));
+        final var generator = Objects.requireNonNull(transpiler.getGenerator("textmate"));
+        final var context = generator.getPipeline().run(grammar);
+        final var cache = context.get(EmitPass.PATTERN_CACHE);
+        final var patterns = cache.getPatterns();
+        final var ir = context.get(LowerPass.LEXER_IR);
+        final var updatedPatterns = LexerIREmitter.emit(ir, RegexDialect.ONIGURUMA, cache, Set.of("LOWER"))
+            .getPatterns();
+        assertEquals(patterns, updatedPatterns);
+        assertSame(patterns.get("RANGE"), updatedPatterns.get("RANGE"));
+        assertNotSame(patterns.get("LOWER"), updatedPatterns.get("LOWER"));
+        assertNull(cache.getRulePattern(0, "OTHER")); // Indices of other rules are never reused
+    }
+
+    @Test
+    void testFullAndEmptySetsAreValid() throws IOException {
+        final var patterns = getPatterns("textmate");
+        assertEquals("[\\s\\S]", patterns.get("EVERYTHING"));
+        assertEquals("(?!)", patterns.get("NOTHING"));
+        assertTrue(Pattern.compile(patterns.get("EVERYTHING")).matcher("\n").matches());
+        assertFalse(Pattern.compile(patterns.get("NOTHING")).matcher("a").find());
+    }
+
+    @Test
+    void testOnigurumaEscapes() throws IOException {
+        final var patterns = getPatterns("textmate");
+        assertEquals("[\\x{0}-\\x{1f}]", patterns.get("CONTROL"));
+        assertEquals("[\\x{1f600}-\\x{1f64f}]", patterns.get("EMOJI"));
+        assertEquals("\\t", patterns.get("TAB"));
+    }
+
+    @Test
+    void testPythonEscapes() throws IOException {
+        final var patterns = getPatterns("pygments");
+        assertEquals("[\\x00-\\x1f]", patterns.get("CONTROL"));
+        assertEquals("[\\U0001f600-\\U0001f64f]", patterns.get("EMOJI"));
+        assertEquals("[a-f]", patterns.get("RANGE"));
+    }
+
+    @Test
+    void testPatternsMatchTheirRules() throws IOException {
+        final var patterns = getPatterns("textmate");
+        // @formatter:off
+        final var inputs = Map.of(
+            "LOWER", "osmium",
+            "RANGE", "c",
+            "NOT", "%",
+            "CONTROL", "\u0007",
+            "EMOJI", Character.toString(0x1F60A),
+            "OPERATOR", "-",
+            "BRACKETS", "[]\\",
+            "TAB", "\t",
+            "ALTERNATIVES", "y"
+        );
+        // @formatter:on
+        inputs.forEach((rule, input) -> {
+            final var pattern = Pattern.compile(patterns.get(rule));
+            assertTrue(pattern.matcher(input).matches(), rule);
+        });
+        assertFalse(Pattern.compile(patterns.get("NOT")).matcher("\n").matches());
+        assertFalse(Pattern.compile(patterns.get("RANGE")).matcher("g").matches());
+        assertFalse(Pattern.compile(patterns.get("EMOJI")).matcher(Character.toString(0x1F650)).matches());
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright 2023 Karma Krafts & associates
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.karma.ferrous.osmium.pass;
+
+import io.karma.ferrous.osmium.Transpiler;
+import io.karma.ferrous.osmium.TranspilerConfig;
+import io.karma.ferrous.osmium.grammar.Grammar;
+import io.karma.ferrous.osmium.ir.LexerIR;
+import io.karma.ferrous.osmium.util.RegexDialect;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Objects;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Alexander Hinze
+ * @since 17/10/2026
+ */
+public final class LowerPassTest {
+    // @formatter:off
+    private static final String PARSER_SOURCE = """
+        parser grammar Test;
+        options { tokenVocab = TestLexer; }
+        file : (ID | KEYWORD)* EOF ;
+        """;
+    private static final String LEXER_SOURCE = """
+        lexer grammar TestLexer;
+        fragment LETTER : [a-z] | [A-Z] ;
+        ID : LETTER (LETTER | [0-9])* ;
+        KEYWORD : 'if' | 'else' ;
+        """;
+    // @formatter:on
+
+    // @formatter:off
+    private static final PassPipeline PIPELINE = PassPipeline.of(
+        new ResolvePass(),
+        new SimplifyPass(),
+        new BacktrackingPass(RegexDialect.ONIGURUMA),
+        new OptimizePass(),
+        new LowerPass(),
+        new EmitPass(RegexDialect.ONIGURUMA)
+    );
+    // @formatter:on
+
+    @TempDir
+    Path directory;
+    private Grammar grammar;
+
+    private static int getRule(final LexerIR lexerIR, final String name) {
+        for (var rule = 0; rule < lexerIR.getRuleCount(); rule++) {
+            if (lexerIR.getRuleName(rule).equals(name)) {
+                return rule;
+            }
+        }
+        throw new IllegalStateException(STR."No rule named \{name}");
+    }
+
+    @BeforeEach
+    void setUp() throws IOException {
+        final var path = directory.resolve("Test.g4");
+        Files.writeString(path, PARSER_SOURCE);
+        Files.writeString(directory.resolve("TestLexer.g4"), LEXER_SOURCE);
+        grammar = Objects.requireNonNull(new Transpiler(new TranspilerConfig()).parseGrammar(path));
+    }
+
+    @Test
+    void testUpdateOnlyLowersChangedRules() {
+        final var context = PIPELINE.run(grammar);
+        final var lexerIR = context.get(LowerPass.LEXER_IR);
+        final var patterns = context.get(EmitPass.PATTERNS);
+        PIPELINE.update(context, Set.of("KEYWORD"));
+        final var updatedIR = context.get(LowerPass.LEXER_IR);
+        assertEquals(lexerIR.getRuleCount(), updatedIR.getRuleCount());
+        for (final var name : new String[]{"ID", "LETTER", "KEYWORD"}) {
+            assertEquals(getRule(lexerIR, name), getRule(updatedIR, name));
+        }
+        assertEquals(lexerIR.getRuleRoot(getRule(lexerIR, "ID")), updatedIR.getRuleRoot(getRule(updatedIR, "ID")));
+        assertTrue(updatedIR.getRuleRoot(getRule(updatedIR, "KEYWORD")) >= lexerIR.getNodeCount());
+        assertEquals(patterns, context.get(EmitPass.PATTERNS));
+    }
+
+    @Test
+    void testRepeatedUpdatesLowerFromScratch() {
+        final var context = PIPELINE.run(grammar);
+        final var nodeCount = context.get(LowerPass.LEXER_IR).getNodeCount();
+        for (var i = 0; i < 10; i++) {
+            PIPELINE.update(context, Set.of("ID", "LETTER", "KEYWORD"));
+            assertTrue(context.get(LowerPass.LEXER_IR).getNodeCount() <= 3 * nodeCount);
+        }
+    }
+}
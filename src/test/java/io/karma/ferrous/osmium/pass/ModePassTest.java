@@ -0,0 +1,106 @@
+/*
+ * Copyright 2023 Karma Krafts & associates
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.karma.ferrous.osmium.pass;
+
+import io.karma.ferrous.osmium.Transpiler;
+import io.karma.ferrous.osmium.TranspilerConfig;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Objects;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Alexander Hinze
+ * @since 17/10/2026
+ */
+public final class ModePassTest {
+    // @formatter:off
+    private static final String PARSER_SOURCE = """
+        parser grammar Test;
+        options { tokenVocab = TestLexer; }
+        file : ID* EOF ;
+        """;
+    private static final String LEXER_SOURCE = """
+        lexer grammar TestLexer;
+        ID : [a-z]+ ;
+        STRING_START : '"' -> pushMode(STRING) ;
+        COMMENT_START : '/*' -> mode(COMMENT) ;
+        fragment DIGIT : [0-9] ;
+        mode STRING;
+        STRING_END : '"' -> popMode ;
+        STRING_TEXT : ~["]+ ;
+        mode COMMENT;
+        COMMENT_END : '*/' -> mode(DEFAULT_MODE) ;
+        COMMENT_STAY : '**' -> mode(COMMENT) ;
+        COMMENT_TEXT : ~[*]+ ;
+        """;
+    // @formatter:on
+
+    @TempDir
+    Path directory;
+    private final HashMap<String, ModeTable> tables = new HashMap<>();
+
+    private static List<String> getNames(final List<ModeTable.Rule> rules) {
+        return rules.stream().map(ModeTable.Rule::name).toList();
+    }
+
+    @BeforeEach
+    void setUp() throws IOException {
+        final var path = directory.resolve("Test.g4");
+        Files.writeString(path, PARSER_SOURCE);
+        Files.writeString(directory.resolve("TestLexer.g4"), LEXER_SOURCE);
+        final var grammar = Objects.requireNonNull(new Transpiler(new TranspilerConfig()).parseGrammar(path));
+        final var context = PassPipeline.of(new ResolvePass(), new ModePass()).run(grammar);
+        for (final var table : context.get(ModePass.MODE_TABLES)) {
+            tables.put(table.name(), table);
+        }
+    }
+
+    @Test
+    void testRulesAreSplitByMode() {
+        assertEquals(List.of("ID", "STRING_START", "COMMENT_START"), getNames(tables.get("DEFAULT_MODE").rules()));
+        assertEquals(List.of("STRING_END", "STRING_TEXT"), getNames(tables.get("STRING").rules()));
+    }
+
+    @Test
+    void testDefaultModeIsNeverLeft() {
+        final var table = tables.get("DEFAULT_MODE");
+        assertTrue(table.getEndRules().isEmpty());
+        assertEquals(table.rules(), table.getInnerRules());
+    }
+
+    @Test
+    void testPoppingRulesEndPushedModes() {
+        final var table = tables.get("STRING");
+        assertEquals(List.of("STRING_END"), getNames(table.getEndRules()));
+        assertEquals(List.of("STRING_TEXT"), getNames(table.getInnerRules()));
+    }
+
+    @Test
+    void testSettingOtherModesEndsSetModes() {
+        final var table = tables.get("COMMENT");
+        assertEquals(List.of("COMMENT_END"), getNames(table.getEndRules()));
+        assertEquals(List.of("COMMENT_STAY", "COMMENT_TEXT"), getNames(table.getInnerRules()));
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2023 Karma Krafts & associates
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.karma.ferrous.osmium.pass;
+
+import io.karma.ferrous.osmium.Transpiler;
+import io.karma.ferrous.osmium.TranspilerConfig;
+import io.karma.ferrous.osmium.grammar.Grammar;
+import io.karma.ferrous.osmium.grammar.ParserGrammar;
+import io.karma.ferrous.osmium.grammar.node.AltListNode;
+import io.karma.ferrous.osmium.grammar.node.ContainerNode;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Objects;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Alexander Hinze
+ * @since 17/10/2026
+ */
+public final class OptimizePassTest {
+    // @formatter:off
+    private static final String PARSER_SOURCE = """
+        parser grammar Test;
+        options { tokenVocab = TestLexer; }
+        file : (KEYWORD | LETTER | MIXED)* EOF ;
+        """;
+    private static final String LEXER_SOURCE = """
+        lexer grammar TestLexer;
+        KEYWORD : 'if' | 'in' | 'else' ;
+        LETTER : 'a' | 'b' ;
+        MIXED : 'if' | [0-9]+ ;
+        """;
+    // @formatter:on
+
+    private static final PassPipeline PIPELINE = PassPipeline.of(new ResolvePass(), new SimplifyPass(),
+        new OptimizePass());
+
+    @TempDir
+    Path directory;
+    private Grammar grammar;
+
+    private static AltListNode getAltList(final Grammar grammar, final String rule) {
+        final var lexerGrammar = Objects.requireNonNull(((ParserGrammar) grammar).getLexerGrammar());
+        final var node = (ContainerNode) Objects.requireNonNull(lexerGrammar.getNode(rule));
+        return (AltListNode) node.getChildren().getFirst();
+    }
+
+    @BeforeEach
+    void setUp() throws IOException {
+        final var path = directory.resolve("Test.g4");
+        Files.writeString(path, PARSER_SOURCE);
+        Files.writeString(directory.resolve("TestLexer.g4"), LEXER_SOURCE);
+        grammar = Objects.requireNonNull(new Transpiler(new TranspilerConfig()).parseGrammar(path));
+    }
+
+    @Test
+    void testLiteralsAreFactored() {
+        final var tries = PIPELINE.run(grammar).get(OptimizePass.LITERAL_TRIES);
+        assertNotNull(tries.get(getAltList(grammar, "KEYWORD")));
+        assertFalse(tries.containsKey(getAltList(grammar, "MIXED")));
+        // Single characters are merged into a class by the simplify pass instead
+        assertFalse(tries.containsKey(getAltList(grammar, "LETTER")));
+    }
+
+    @Test
+    void testUpdateKeepsUnchangedRules() {
+        final var context = PIPELINE.run(grammar);
+        final var tries = context.get(OptimizePass.LITERAL_TRIES);
+        final var keyword = getAltList(grammar, "KEYWORD");
+        PIPELINE.update(context, Set.of("MIXED"));
+        final var updatedTries = context.get(OptimizePass.LITERAL_TRIES);
+        assertNotSame(tries, updatedTries);
+        assertSame(tries.get(keyword), updatedTries.get(keyword));
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2023 Karma Krafts & associates
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.karma.ferrous.osmium.pass;
+
+import io.karma.ferrous.osmium.Transpiler;
+import io.karma.ferrous.osmium.TranspilerConfig;
+import io.karma.ferrous.osmium.grammar.Grammar;
+import io.karma.ferrous.osmium.grammar.ParserGrammar;
+import io.karma.ferrous.osmium.grammar.node.AltListNode;
+import io.karma.ferrous.osmium.grammar.node.CharSets;
+import io.karma.ferrous.osmium.grammar.node.ContainerNode;
+import io.karma.ferrous.osmium.util.CodePointSet;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Objects;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Alexander Hinze
+ * @since 17/10/2026
+ */
+public final class SimplifyPassTest {
+    // @formatter:off
+    private static final String PARSER_SOURCE = """
+        parser grammar Test;
+        options { tokenVocab = TestLexer; }
+        file : (ID | KEYWORD)* EOF ;
+        """;
+    private static final String LEXER_SOURCE = """
+        lexer grammar TestLexer;
+        fragment LETTER : [a-z] | [A-Z] ;
+        ID_START : LETTER | '_' | '$' ;
+        ID : ID_START (ID_START | [0-9])* ;
+        KEYWORD : 'if' | 'else' ;
+        """;
+    // @formatter:on
+
+    private static final PassPipeline PIPELINE = PassPipeline.of(new ResolvePass(), new SimplifyPass());
+
+    @TempDir
+    Path directory;
+    private Grammar grammar;
+
+    private static AltListNode getAltList(final Grammar grammar, final String rule) {
+        final var lexerGrammar = Objects.requireNonNull(((ParserGrammar) grammar).getLexerGrammar());
+        final var node = (ContainerNode) Objects.requireNonNull(lexerGrammar.getNode(rule));
+        return (AltListNode) node.getChildren().getFirst();
+    }
+
+    @BeforeEach
+    void setUp() throws IOException {
+        final var path = directory.resolve("Test.g4");
+        Files.writeString(path, PARSER_SOURCE);
+        Files.writeString(directory.resolve("TestLexer.g4"), LEXER_SOURCE);
+        grammar = Objects.requireNonNull(new Transpiler(new TranspilerConfig()).parseGrammar(path));
+    }
+
+    @Test
+    void testReferencedFragmentsAreMerged() {
+        final var merged = PIPELINE.run(grammar).get(SimplifyPass.MERGED_ALTERNATIVES);
+        final var children = merged.get(getAltList(grammar, "ID_START"));
+        assertNotNull(children);
+        assertEquals(1, children.size());
+        final var expected = CodePointSet.of('a', 'z').union(CodePointSet.of('A', 'Z')).union(CodePointSet.of('_'))
+            .union(CodePointSet.of('$'));
+        assertEquals(expected, CharSets.toSet(children.getFirst()));
+        assertEquals(3, getAltList(grammar, "ID_START").getChildren().size()); // The tree is left untouched
+    }
+
+    @Test
+    void testLiteralsAreNotMerged() {
+        final var merged = PIPELINE.run(grammar).get(SimplifyPass.MERGED_ALTERNATIVES);
+        assertFalse(merged.containsKey(getAltList(grammar, "KEYWORD")));
+    }
+
+    @Test
+    void testUpdateKeepsUnchangedRules() {
+        final var context = PIPELINE.run(grammar);
+        final var merged = context.get(SimplifyPass.MERGED_ALTERNATIVES);
+        final var idStart = getAltList(grammar, "ID_START");
+        PIPELINE.update(context, Set.of("KEYWORD"));
+        final var updatedMerged = context.get(SimplifyPass.MERGED_ALTERNATIVES);
+        assertNotSame(merged, updatedMerged);
+        assertSame(merged.get(idStart), updatedMerged.get(idStart));
+    }
+}
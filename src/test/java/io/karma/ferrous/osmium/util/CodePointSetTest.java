@@ -0,0 +1,116 @@
+/*
+ * Copyright 2023 Karma Krafts & associates
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.karma.ferrous.osmium.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Alexander Hinze
+ * @since 17/10/2026
+ */
+public final class CodePointSetTest {
+    @Test
+    void testOfInvertedRangeIsEmpty() {
+        assertSame(CodePointSet.EMPTY, CodePointSet.of('z', 'a'));
+    }
+
+    @Test
+    void testOfInvalidRange() {
+        assertThrows(IllegalArgumentException.class, () -> CodePointSet.of(-1, 'a'));
+        assertThrows(IllegalArgumentException.class, () -> CodePointSet.of('a', Character.MAX_CODE_POINT + 1));
+    }
+
+    @Test
+    void testContains() {
+        final var set = CodePointSet.of('a', 'c').union(CodePointSet.of('x', 'z'));
+        assertTrue(set.contains('a'));
+        assertTrue(set.contains('b'));
+        assertTrue(set.contains('z'));
+        assertFalse(set.contains('d'));
+        assertFalse(set.contains('w'));
+        assertFalse(set.contains('`'));
+    }
+
+    @Test
+    void testUnionMergesOverlappingIntervals() {
+        final var set = CodePointSet.of('a', 'm').union(CodePointSet.of('f', 'z'));
+        assertEquals(CodePointSet.of('a', 'z'), set);
+        assertEquals(1, set.getIntervalCount());
+    }
+
+    @Test
+    void testUnionMergesAdjacentIntervals() {
+        final var set = CodePointSet.of('a').union(CodePointSet.of('c')).union(CodePointSet.of('b'));
+        assertEquals(CodePointSet.of('a', 'c'), set);
+    }
+
+    @Test
+    void testUnionKeepsDisjointIntervalsSorted() {
+        final var set = CodePointSet.of('x', 'z').union(CodePointSet.of('0', '9')).union(CodePointSet.of('a', 'c'));
+        assertEquals(3, set.getIntervalCount());
+        assertEquals('0', set.getStart(0));
+        assertEquals('9', set.getEnd(0));
+        assertEquals('a', set.getStart(1));
+        assertEquals('z', set.getEnd(2));
+        assertEquals(16, set.size());
+    }
+
+    @Test
+    void testUnionWithEmpty() {
+        final var set = CodePointSet.of('a', 'z');
+        assertSame(set, set.union(CodePointSet.EMPTY));
+        assertSame(set, CodePointSet.EMPTY.union(set));
+    }
+
+    @Test
+    void testIntersection() {
+        final var left = CodePointSet.of('a', 'k').union(CodePointSet.of('p', 'z'));
+        final var right = CodePointSet.of('f', 'r');
+        assertEquals(CodePointSet.of('f', 'k').union(CodePointSet.of('p', 'r')), left.intersection(right));
+        assertEquals(left.intersection(right), right.intersection(left));
+    }
+
+    @Test
+    void testDisjointIntersectionIsEmpty() {
+        assertTrue(CodePointSet.of('a', 'c').intersection(CodePointSet.of('d', 'f')).isEmpty());
+        assertTrue(CodePointSet.of('a', 'c').intersection(CodePointSet.EMPTY).isEmpty());
+    }
+
+    @Test
+    void testComplement() {
+        final var complement = CodePointSet.of('b', 'y').complement();
+        assertEquals(CodePointSet.of(0, 'a').union(CodePointSet.of('z', Character.MAX_CODE_POINT)), complement);
+        assertEquals(CodePointSet.ALL, CodePointSet.EMPTY.complement());
+        assertTrue(CodePointSet.ALL.complement().isEmpty());
+    }
+
+    @Test
+    void testComplementIsInvolution() {
+        final var set = CodePointSet.of(0).union(CodePointSet.of('0', '9')).union(CodePointSet.of(0x1F600));
+        assertEquals(set, set.complement().complement());
+        assertTrue(set.intersection(set.complement()).isEmpty());
+        assertEquals(CodePointSet.ALL, set.union(set.complement()));
+    }
+
+    @Test
+    void testSize() {
+        assertEquals(0, CodePointSet.EMPTY.size());
+        assertEquals(Character.MAX_CODE_POINT + 1L, CodePointSet.ALL.size());
+        assertEquals(26, CodePointSet.of('a', 'z').size());
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright 2023 Karma Krafts & associates
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.karma.ferrous.osmium.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Alexander Hinze
+ * @since 17/10/2026
+ */
+public final class RegexUtilsTest {
+    private static String escape(final int codePoint, final RegexDialect dialect) {
+        final var builder = new StringBuilder();
+        RegexUtils.appendEscapedCodePoint(builder, codePoint, dialect);
+        return builder.toString();
+    }
+
+    @Test
+    void testEscapeMetaCharacters() {
+        assertEquals("\\(a\\|b\\)\\*", RegexUtils.escape("(a|b)*"));
+        assertEquals("\\\\", escape('\\', RegexDialect.ONIGURUMA));
+        assertEquals("\\[", escape('[', RegexDialect.PYTHON));
+    }
+
+    @Test
+    void testEscapeControlCharacters() {
+        for (final var dialect : RegexDialect.values()) {
+            assertEquals("\\t", escape('\t', dialect));
+            assertEquals("\\n", escape('\n', dialect));
+            assertEquals("\\r", escape('\r', dialect));
+            assertEquals("\\f", escape('\f', dialect));
+        }
+        assertEquals("\\x{0}", escape(0, RegexDialect.ONIGURUMA));
+        assertEquals("\\x00", escape(0, RegexDialect.PYTHON));
+        assertEquals("\\x{7f}", escape(0x7F, RegexDialect.ONIGURUMA));
+        assertEquals("\\x7f", escape(0x7F, RegexDialect.PYTHON));
+    }
+
+    @Test
+    void testEscapeSupplementaryCharacters() {
+        assertEquals("\\x{1f600}", escape(0x1F600, RegexDialect.ONIGURUMA));
+        assertEquals("\\U0001f600", escape(0x1F600, RegexDialect.PYTHON));
+    }
+
+    @Test
+    void testEscapeUnassignedCharacters() {
+        assertEquals("\\x{378}", escape(0x378, RegexDialect.ONIGURUMA));
+        assertEquals("\\u0378", escape(0x378, RegexDialect.PYTHON));
+        assertEquals("\\x{d800}", escape(0xD800, RegexDialect.ONIGURUMA));
+        assertEquals("\\ud800", escape(0xD800, RegexDialect.PYTHON));
+    }
+
+    @Test
+    void testPrintableCharactersAreKept() {
+        assertEquals("a", escape('a', RegexDialect.ONIGURUMA));
+        assertEquals("é", escape(0xE9, RegexDialect.PYTHON));
+    }
+
+    @Test
+    void testEscapesAreAtoms() {
+        for (final var dialect : RegexDialect.values()) {
+            for (final var codePoint : new int[]{0, '\n', '\\', '(', 0x7F, 0x378, 0x1F600}) {
+                assertTrue(RegexUtils.isAtom(escape(codePoint, dialect)), escape(codePoint, dialect));
+            }
+        }
+    }
+
+    @Test
+    void testIsAtom() {
+        assertTrue(RegexUtils.isAtom("a"));
+        assertTrue(RegexUtils.isAtom("[a-z]"));
+        assertTrue(RegexUtils.isAtom("[]a]"));
+        assertTrue(RegexUtils.isAtom("(?:ab|cd)"));
+        assertTrue(RegexUtils.isAtom("\\p{L}"));
+        assertFalse(RegexUtils.isAtom("ab"));
+        assertFalse(RegexUtils.isAtom("[a-z]+"));
+        assertFalse(RegexUtils.isAtom("(a)(b)"));
+        assertFalse(RegexUtils.isAtom(""));
+        assertFalse(RegexUtils.isAtom("(?!)"));
+        assertFalse(RegexUtils.isAtom("(?<=a)"));
+    }
+
+    @Test
+    void testFullAndEmptySets() {
+        final var builder = new StringBuilder();
+        RegexUtils.appendCharSet(builder, CodePointSet.ALL, RegexDialect.ONIGURUMA);
+        assertEquals(RegexUtils.ALL_CHARS_PATTERN, builder.toString());
+        builder.setLength(0);
+        RegexUtils.appendCharSet(builder, CodePointSet.EMPTY, RegexDialect.PYTHON);
+        assertEquals(RegexUtils.NO_CHARS_PATTERN, builder.toString());
+        builder.setLength(0);
+        RegexUtils.appendCharSet(builder, CodePointSet.of('a').complement(), RegexDialect.PYTHON);
+        assertEquals("[^a]", builder.toString());
+    }
+}